@@ -5,6 +5,7 @@ import io.swagger.v3.oas.annotations.info.Info;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @OpenAPIDefinition(
 		info = @Info(
@@ -15,6 +16,7 @@ import org.springframework.cache.annotation.EnableCaching;
 )
 @SpringBootApplication
 @EnableCaching
+@EnableScheduling
 public class FundraiserApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(FundraiserApplication.class, args);
@@ -0,0 +1,141 @@
+package com.vb.fundraiser.client;
+
+import com.vb.fundraiser.exception.currency.ExchangeRateServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Guards calls to a remote service. After {@code failureThreshold} consecutive failures the circuit opens and calls
+ * are rejected without touching the network for {@code openDuration}. Then up to {@code halfOpenTrials} calls are let
+ * through: if all of them succeed the circuit closes, the first failure opens it again.
+ */
+@Slf4j
+public class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final int halfOpenTrials;
+    private final Predicate<Throwable> recordsFailure;
+    private final Clock clock;
+    private final MeterRegistry meterRegistry;
+    private final Counter rejectedCalls;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Instant openedAt;
+    private int trialsStarted;
+    private int trialsSucceeded;
+
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration, int halfOpenTrials,
+                          Predicate<Throwable> recordsFailure, Clock clock, MeterRegistry meterRegistry) {
+        if (failureThreshold < 1 || halfOpenTrials < 1) {
+            throw new IllegalArgumentException("Failure threshold and half-open trials must be at least 1");
+        }
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.halfOpenTrials = halfOpenTrials;
+        this.recordsFailure = recordsFailure;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+        this.rejectedCalls = Counter.builder("circuit.breaker.rejected")
+                .tag("name", name)
+                .description("Calls rejected without reaching the remote service because the circuit was open")
+                .register(meterRegistry);
+        Gauge.builder("circuit.breaker.state", this, breaker -> breaker.getState().ordinal())
+                .tag("name", name)
+                .description("Circuit state: 0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(Supplier<T> call) {
+        acquirePermission();
+        try {
+            T result = call.get();
+            onSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            if (recordsFailure.test(e)) {
+                onFailure();
+            } else {
+                onSuccess();
+            }
+            throw e;
+        }
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && openDurationElapsed()) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    private synchronized void acquirePermission() {
+        if (state == State.OPEN && openDurationElapsed()) {
+            transitionTo(State.HALF_OPEN);
+        }
+
+        boolean permitted = switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> trialsStarted++ < halfOpenTrials;
+        };
+        if (!permitted) {
+            rejectedCalls.increment();
+            throw new ExchangeRateServiceUnavailableException(name);
+        }
+    }
+
+    private synchronized void onSuccess() {
+        switch (state) {
+            case CLOSED -> consecutiveFailures = 0;
+            case HALF_OPEN -> {
+                if (++trialsSucceeded >= halfOpenTrials) {
+                    transitionTo(State.CLOSED);
+                }
+            }
+            case OPEN -> { }
+        }
+    }
+
+    private synchronized void onFailure() {
+        switch (state) {
+            case CLOSED -> {
+                if (++consecutiveFailures >= failureThreshold) {
+                    transitionTo(State.OPEN);
+                }
+            }
+            case HALF_OPEN -> transitionTo(State.OPEN);
+            case OPEN -> { }
+        }
+    }
+
+    private boolean openDurationElapsed() {
+        return !clock.instant().isBefore(openedAt.plus(openDuration));
+    }
+
+    private void transitionTo(State next) {
+        log.warn("Circuit breaker '{}' changed state from {} to {}", name, state, next);
+        meterRegistry.counter("circuit.breaker.transitions", "name", name, "from", state.name(), "to", next.name())
+                .increment();
+
+        state = next;
+        consecutiveFailures = 0;
+        trialsStarted = 0;
+        trialsSucceeded = 0;
+        if (next == State.OPEN) {
+            openedAt = clock.instant();
+        }
+    }
+}
@@ -1,52 +1,95 @@
 package com.vb.fundraiser.client;
 
-import com.vb.fundraiser.exception.currency.CurrencyConversionException;
-import com.vb.fundraiser.client.response.CurrencyConversionResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 
 import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.*;
 
 @Slf4j
 @Component
 public class CurrencyConversionClient {
-    private final RestTemplate restTemplate;
-    private final String baseUrl;
-    private final String apiKey;
+    private final ExchangeRateProvider rateProvider;
+    private final Timer rateLookupTimer;
 
-    public CurrencyConversionClient(
-            RestTemplate restTemplate,
-            @Value("${currency.unirate.base-url}") String baseUrl,
-            @Value("${currency.unirate.api-key}") String apiKey
-    ) {
-        this.restTemplate = restTemplate;
-        this.baseUrl = baseUrl;
-        this.apiKey = apiKey;
+    public CurrencyConversionClient(ExchangeRateProvider rateProvider, MeterRegistry meterRegistry) {
+        this.rateProvider = rateProvider;
+        this.rateLookupTimer = Timer.builder("currency.rate.lookup")
+                .description("Time to resolve a single exchange rate, cached or remote")
+                .register(meterRegistry);
     }
 
     public BigDecimal convert(BigDecimal amount, String fromCurrency, String toCurrency) {
         validateInput(amount, fromCurrency, toCurrency);
-        log.info("Converting amount {} from {} to {}", amount, fromCurrency, toCurrency);
-
-        String url = UriComponentsBuilder.fromUriString(baseUrl)
-                .queryParam("api_key", apiKey)
-                .queryParam("amount", amount)
-                .queryParam("from", fromCurrency)
-                .queryParam("to", toCurrency)
-                .toUriString();
-
-        CurrencyConversionResponse response = restTemplate.getForObject(url, CurrencyConversionResponse.class);
-        if (response == null || response.result() == null) {
-            log.error("Currency conversion failed for amount {} from {} to {}", amount, fromCurrency, toCurrency);
-            throw new CurrencyConversionException(amount, fromCurrency, toCurrency);
+
+        BigDecimal rate = getRate(fromCurrency, toCurrency);
+        BigDecimal result = amount.multiply(rate);
+
+        log.info("Converted amount {} from {} to {} at rate {}: {}", amount, fromCurrency, toCurrency, rate, result);
+        return result;
+    }
+
+    public BigDecimal getRate(String fromCurrency, String toCurrency) {
+        return getExchangeRate(fromCurrency, toCurrency).rate();
+    }
+
+    public ExchangeRate getExchangeRate(String fromCurrency, String toCurrency) {
+        return rateProvider.getExchangeRate(fromCurrency, toCurrency);
+    }
+
+    /**
+     * Resolves the rates of all source currencies into the target currency concurrently, one virtual thread per pair.
+     * The first failed lookup cancels the remaining ones and is rethrown, so callers either get every rate or none.
+     */
+    public Map<String, ExchangeRate> getExchangeRates(Collection<String> fromCurrencies, String toCurrency) {
+        if (fromCurrencies.isEmpty()) {
+            return Map.of();
         }
 
-        log.info("Currency converted result: {}", response.result());
-        return response.result();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletionService<ExchangeRate> completion = new ExecutorCompletionService<>(executor);
+            List<Future<ExchangeRate>> lookups = fromCurrencies.stream()
+                    .map(from -> completion.submit(() -> timedLookup(from, toCurrency)))
+                    .toList();
+
+            Map<String, ExchangeRate> rates = new HashMap<>();
+            try {
+                for (int i = 0; i < lookups.size(); i++) {
+                    ExchangeRate rate = completion.take().get();
+                    rates.put(rate.from(), rate);
+                }
+            } catch (ExecutionException e) {
+                lookups.forEach(lookup -> lookup.cancel(true));
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException("Exchange rate lookup into " + toCurrency + " failed", e.getCause());
+            } catch (InterruptedException e) {
+                lookups.forEach(lookup -> lookup.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while resolving exchange rates into " + toCurrency, e);
+            }
+            return rates;
+        }
+    }
+
+    public boolean isStale(ExchangeRate rate) {
+        return rateProvider.isStale(rate);
+    }
+
+    private ExchangeRate timedLookup(String fromCurrency, String toCurrency) {
+        long start = System.nanoTime();
+        try {
+            return getExchangeRate(fromCurrency, toCurrency);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            rateLookupTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            log.info("Resolved exchange rate {} -> {} in {} ms", fromCurrency, toCurrency, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
     }
 
     private void validateInput(BigDecimal amount, String fromCurrency, String toCurrency) {
@@ -60,4 +103,4 @@ public class CurrencyConversionClient {
             throw new IllegalArgumentException("To currency must not be blank");
         }
     }
-}
\ No newline at end of file
+}
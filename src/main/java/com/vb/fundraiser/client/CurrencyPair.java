@@ -0,0 +1,6 @@
+package com.vb.fundraiser.client;
+
+public record CurrencyPair(
+        String from,
+        String to
+) {}
@@ -0,0 +1,11 @@
+package com.vb.fundraiser.client;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record ExchangeRate(
+        String from,
+        String to,
+        BigDecimal rate,
+        Instant fetchedAt
+) {}
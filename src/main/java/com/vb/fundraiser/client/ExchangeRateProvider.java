@@ -0,0 +1,14 @@
+package com.vb.fundraiser.client;
+
+/**
+ * Source of exchange rates behind {@link CurrencyConversionClient}. Exactly one implementation is active,
+ * selected with {@code currency.rates.mode}.
+ */
+public interface ExchangeRateProvider {
+    ExchangeRate getExchangeRate(String fromCurrency, String toCurrency);
+
+    /**
+     * Whether a rate handed out earlier must no longer be used to move money.
+     */
+    boolean isStale(ExchangeRate rate);
+}
@@ -0,0 +1,70 @@
+package com.vb.fundraiser.client;
+
+import com.vb.fundraiser.exception.currency.CurrencyConversionException;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rates of every known currency against a single base currency. Any cross rate X -> Y is derived locally
+ * as (base -> Y) / (base -> X), rounded to the table's precision. Only the currencies the source actually
+ * quotes are kept, so a lookup is two map reads and one division.
+ */
+public class ExchangeRateTable {
+    private final String baseCurrency;
+    private final Map<String, BigDecimal> ratesFromBase;
+    private final Instant fetchedAt;
+    private final MathContext mathContext;
+
+    public ExchangeRateTable(String baseCurrency, Map<String, BigDecimal> ratesFromBase, Instant fetchedAt, MathContext mathContext) {
+        this.baseCurrency = baseCurrency;
+        this.fetchedAt = fetchedAt;
+        this.mathContext = mathContext;
+
+        Map<String, BigDecimal> usable = new HashMap<>();
+        ratesFromBase.forEach((currency, rate) -> {
+            if (currency != null && rate != null && rate.signum() > 0) {
+                usable.put(currency, rate);
+            }
+        });
+        this.ratesFromBase = Map.copyOf(usable);
+    }
+
+    public ExchangeRate crossRate(String fromCurrency, String toCurrency) {
+        if (fromCurrency.equals(toCurrency)) {
+            return new ExchangeRate(fromCurrency, toCurrency, BigDecimal.ONE, fetchedAt);
+        }
+
+        BigDecimal baseToFrom = rateFromBase(fromCurrency);
+        BigDecimal baseToTo = rateFromBase(toCurrency);
+        BigDecimal rate = baseToTo.divide(baseToFrom, mathContext);
+        return new ExchangeRate(fromCurrency, toCurrency, rate, fetchedAt);
+    }
+
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    public Instant getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public int size() {
+        return ratesFromBase.size();
+    }
+
+    private BigDecimal rateFromBase(String currency) {
+        if (currency.equals(baseCurrency)) {
+            return BigDecimal.ONE;
+        }
+
+        BigDecimal rate = ratesFromBase.get(currency);
+        if (rate == null) {
+            throw new CurrencyConversionException(baseCurrency, currency);
+        }
+        return rate;
+    }
+}
@@ -0,0 +1,50 @@
+package com.vb.fundraiser.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vb.fundraiser.model.dto.BalanceChangeMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends relayed balance changes to a local file, one JSON object per line, for local runs and testing. Each batch
+ * is appended with a single write.
+ */
+@Component
+@ConditionalOnProperty(name = "fundraiser.outbox.sink.type", havingValue = "ndjson", matchIfMissing = true)
+public class NdjsonFileOutboxSink implements OutboxSink {
+    private final ObjectMapper objectMapper;
+    private final Path file;
+
+    public NdjsonFileOutboxSink(
+            ObjectMapper objectMapper,
+            @Value("${fundraiser.outbox.sink.ndjson.file}") Path file
+    ) {
+        this.objectMapper = objectMapper;
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void publish(List<BalanceChangeMessage> messages) {
+        StringBuilder lines = new StringBuilder();
+        try {
+            for (BalanceChangeMessage message : messages) {
+                lines.append(objectMapper.writeValueAsString(message)).append('\n');
+            }
+            Files.writeString(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize balance change message", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append balance changes to " + file, e);
+        }
+    }
+}
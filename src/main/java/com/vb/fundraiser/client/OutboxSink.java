@@ -0,0 +1,14 @@
+package com.vb.fundraiser.client;
+
+import com.vb.fundraiser.model.dto.BalanceChangeMessage;
+
+import java.util.List;
+
+/**
+ * Destination of the balance changes relayed from the outbox. Exactly one implementation is active, selected with
+ * {@code fundraiser.outbox.sink.type}. A batch that fails is published again later, possibly after part of it was
+ * delivered, so the sink must tolerate duplicates or drop them by message ID.
+ */
+public interface OutboxSink {
+    void publish(List<BalanceChangeMessage> messages);
+}
@@ -0,0 +1,53 @@
+package com.vb.fundraiser.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Opt-in policy for serving the last successfully fetched rate when the remote rate service fails.
+ * Disabled by default: without it, a failed lookup fails the conversion.
+ */
+@Slf4j
+@Component
+public class RateFallbackPolicy {
+    private final boolean enabled;
+    private final Duration maxStaleness;
+    private final Counter fallbacksServed;
+
+    public RateFallbackPolicy(
+            @Value("${currency.rates.fallback.enabled}") boolean enabled,
+            @Value("${currency.rates.fallback.max-staleness}") Duration maxStaleness,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.maxStaleness = maxStaleness;
+        this.fallbacksServed = Counter.builder("currency.rates.fallback.served")
+                .description("Lookups answered with a last-known-good rate after the rate service failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether a value fetched at {@code fetchedAt} may still be served in place of a failed lookup.
+     */
+    public boolean permits(Instant fetchedAt) {
+        return enabled && !fetchedAt.plus(maxStaleness).isBefore(Instant.now());
+    }
+
+    /**
+     * Oldest age at which a rate may still move money: the cache TTL, or the fallback staleness if that is longer.
+     */
+    public Duration maxRateAge(Duration rateTtl) {
+        return enabled && maxStaleness.compareTo(rateTtl) > 0 ? maxStaleness : rateTtl;
+    }
+
+    void recordFallback(String what, Instant fetchedAt, RuntimeException cause) {
+        fallbacksServed.increment();
+        log.warn("Serving last known {} fetched at {} because the rate lookup failed: {}", what, fetchedAt, cause.getMessage());
+    }
+}
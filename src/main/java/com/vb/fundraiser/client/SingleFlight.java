@@ -0,0 +1,55 @@
+package com.vb.fundraiser.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into a single execution whose outcome is handed to every caller.
+ * The entry is dropped as soon as the call completes, so neither results nor failures outlive it.
+ */
+class SingleFlight<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            V value = call.get();
+            inFlight.remove(key, own);
+            own.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, own);
+            own.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private V await(CompletableFuture<V> call) {
+        try {
+            return call.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an in-flight call", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
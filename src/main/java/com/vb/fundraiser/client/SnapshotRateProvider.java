@@ -0,0 +1,121 @@
+package com.vb.fundraiser.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vb.fundraiser.client.response.ExchangeRatesResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Serves rates from a snapshot file on local disk, with no network I/O at all. The file holds rates against
+ * the base currency either as JSON ({"base": "USD", "rates": {"EUR": 0.92, ...}}) or as CSV with a
+ * {@code currency,rate} header. It is polled for changes and swapped in atomically; a snapshot that fails
+ * to parse is logged and the previous one stays in use.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "currency.rates.mode", havingValue = "snapshot")
+public class SnapshotRateProvider implements ExchangeRateProvider {
+    private final ObjectMapper objectMapper;
+    private final Path file;
+    private final String baseCurrency;
+    private final MathContext mathContext;
+
+    private volatile Snapshot current;
+
+    public SnapshotRateProvider(
+            ObjectMapper objectMapper,
+            @Value("${currency.rates.snapshot.file}") Path file,
+            @Value("${currency.rates.table.base-currency}") String baseCurrency,
+            @Value("${currency.rates.table.precision}") int precision
+    ) throws IOException {
+        this.objectMapper = objectMapper;
+        this.file = file;
+        this.baseCurrency = baseCurrency;
+        this.mathContext = new MathContext(precision, RoundingMode.HALF_EVEN);
+        this.current = load(Files.getLastModifiedTime(file));
+    }
+
+    @Override
+    public ExchangeRate getExchangeRate(String fromCurrency, String toCurrency) {
+        return current.table().crossRate(fromCurrency, toCurrency);
+    }
+
+    /**
+     * Snapshot rates never expire by age; a rate is stale only once a newer snapshot has been loaded.
+     */
+    @Override
+    public boolean isStale(ExchangeRate rate) {
+        return rate.fetchedAt().isBefore(current.table().getFetchedAt());
+    }
+
+    @Scheduled(fixedDelayString = "${currency.rates.snapshot.reload-interval}")
+    public void reloadIfChanged() {
+        try {
+            FileTime lastModified = Files.getLastModifiedTime(file);
+            if (lastModified.equals(current.lastModified())) {
+                return;
+            }
+            current = load(lastModified);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not reload exchange rate snapshot from {}, keeping the previous one: {}", file, e.getMessage());
+        }
+    }
+
+    private Snapshot load(FileTime lastModified) {
+        Map<String, BigDecimal> rates = file.getFileName().toString().endsWith(".csv") ? readCsv() : readJson();
+        ExchangeRateTable table = new ExchangeRateTable(baseCurrency, rates, Instant.now(), mathContext);
+
+        log.info("Loaded exchange rate snapshot from {} with {} currencies against {}", file, table.size(), baseCurrency);
+        return new Snapshot(table, lastModified);
+    }
+
+    private Map<String, BigDecimal> readJson() {
+        try {
+            ExchangeRatesResponse snapshot = objectMapper.readValue(file.toFile(), ExchangeRatesResponse.class);
+            if (snapshot.rates() == null || !baseCurrency.equals(snapshot.base())) {
+                throw new IllegalStateException("Snapshot " + file + " does not contain rates against " + baseCurrency);
+            }
+            return snapshot.rates();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read exchange rate snapshot " + file, e);
+        }
+    }
+
+    private Map<String, BigDecimal> readCsv() {
+        Map<String, BigDecimal> rates = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#") || line.startsWith("currency,")) continue;
+
+                int comma = line.indexOf(',');
+                if (comma < 0) {
+                    throw new IllegalStateException("Malformed line in snapshot " + file + ": " + line);
+                }
+                rates.put(line.substring(0, comma).strip().toUpperCase(), new BigDecimal(line.substring(comma + 1).strip()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read exchange rate snapshot " + file, e);
+        }
+        return rates;
+    }
+
+    private record Snapshot(ExchangeRateTable table, FileTime lastModified) {}
+}
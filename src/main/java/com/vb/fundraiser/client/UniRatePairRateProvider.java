@@ -0,0 +1,122 @@
+package com.vb.fundraiser.client;
+
+import com.vb.fundraiser.client.response.CurrencyConversionResponse;
+import com.vb.fundraiser.config.CacheConfig;
+import com.vb.fundraiser.exception.currency.CurrencyConversionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Fetches one rate per currency pair from the UniRate {@code /convert} endpoint and caches it per pair.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "currency.rates.mode", havingValue = "pair", matchIfMissing = true)
+public class UniRatePairRateProvider implements ExchangeRateProvider {
+    private final RestTemplate restTemplate;
+    private final Cache rateCache;
+    private final String baseUrl;
+    private final String apiKey;
+    private final Duration rateTtl;
+    private final CircuitBreaker circuitBreaker;
+    private final RateFallbackPolicy fallbackPolicy;
+    private final SingleFlight<CurrencyPair, ExchangeRate> rateFetches = new SingleFlight<>();
+    private final ConcurrentMap<CurrencyPair, ExchangeRate> lastKnownRates = new ConcurrentHashMap<>();
+
+    public UniRatePairRateProvider(
+            RestTemplate restTemplate,
+            CacheManager cacheManager,
+            @Value("${currency.unirate.base-url}") String baseUrl,
+            @Value("${currency.unirate.api-key}") String apiKey,
+            @Value("${currency.rates.cache.ttl}") Duration rateTtl,
+            CircuitBreaker unirateCircuitBreaker,
+            RateFallbackPolicy fallbackPolicy
+    ) {
+        this.restTemplate = restTemplate;
+        this.rateCache = cacheManager.getCache(CacheConfig.EXCHANGE_RATES_CACHE);
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+        this.rateTtl = rateTtl;
+        this.circuitBreaker = unirateCircuitBreaker;
+        this.fallbackPolicy = fallbackPolicy;
+    }
+
+    @Override
+    public ExchangeRate getExchangeRate(String fromCurrency, String toCurrency) {
+        CurrencyPair pair = new CurrencyPair(fromCurrency, toCurrency);
+
+        ExchangeRate cached = rateCache.get(pair, ExchangeRate.class);
+        if (cached != null) {
+            log.debug("Exchange rate {} -> {} served from cache: {}", fromCurrency, toCurrency, cached.rate());
+            return cached;
+        }
+
+        // Concurrent misses for the same pair share one remote call; a failure reaches every waiter and is not cached
+        return rateFetches.execute(pair, () -> {
+            ExchangeRate fetchedMeanwhile = rateCache.get(pair, ExchangeRate.class);
+            if (fetchedMeanwhile != null) {
+                return fetchedMeanwhile;
+            }
+
+            ExchangeRate rate;
+            try {
+                rate = new ExchangeRate(fromCurrency, toCurrency, circuitBreaker.execute(() -> fetchRate(pair)), Instant.now());
+            } catch (RuntimeException e) {
+                return fallback(pair, e);
+            }
+            rateCache.put(pair, rate);
+            lastKnownRates.put(pair, rate);
+            return rate;
+        });
+    }
+
+    /**
+     * A rate is stale once it is older than the cache TTL, i.e. when the cache would no longer serve it,
+     * unless the fallback policy allows older rates.
+     */
+    @Override
+    public boolean isStale(ExchangeRate rate) {
+        return rate.fetchedAt().plus(fallbackPolicy.maxRateAge(rateTtl)).isBefore(Instant.now());
+    }
+
+    private ExchangeRate fallback(CurrencyPair pair, RuntimeException cause) {
+        ExchangeRate lastKnown = lastKnownRates.get(pair);
+        if (lastKnown == null || !fallbackPolicy.permits(lastKnown.fetchedAt())) {
+            throw cause;
+        }
+        fallbackPolicy.recordFallback("rate " + pair.from() + " -> " + pair.to(), lastKnown.fetchedAt(), cause);
+        return lastKnown;
+    }
+
+    private BigDecimal fetchRate(CurrencyPair pair) {
+        log.info("Fetching exchange rate from {} to {}", pair.from(), pair.to());
+
+        String url = UriComponentsBuilder.fromUriString(baseUrl)
+                .queryParam("api_key", apiKey)
+                .queryParam("amount", BigDecimal.ONE)
+                .queryParam("from", pair.from())
+                .queryParam("to", pair.to())
+                .toUriString();
+
+        CurrencyConversionResponse response = restTemplate.getForObject(url, CurrencyConversionResponse.class);
+        if (response == null || response.result() == null) {
+            log.error("Exchange rate lookup failed from {} to {}", pair.from(), pair.to());
+            throw new CurrencyConversionException(pair.from(), pair.to());
+        }
+
+        log.info("Fetched exchange rate {} -> {}: {}", pair.from(), pair.to(), response.result());
+        return response.result();
+    }
+}
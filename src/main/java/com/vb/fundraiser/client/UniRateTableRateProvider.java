@@ -0,0 +1,125 @@
+package com.vb.fundraiser.client;
+
+import com.vb.fundraiser.client.response.ExchangeRatesResponse;
+import com.vb.fundraiser.config.CacheConfig;
+import com.vb.fundraiser.exception.currency.CurrencyConversionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Fetches all rates against the base currency with one UniRate {@code /rates} call and derives cross rates locally.
+ * The whole table is cached as a single entry, so it is refreshed with one bulk call per TTL.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "currency.rates.mode", havingValue = "table")
+public class UniRateTableRateProvider implements ExchangeRateProvider {
+    private final RestTemplate restTemplate;
+    private final Cache rateCache;
+    private final String ratesUrl;
+    private final String apiKey;
+    private final String baseCurrency;
+    private final MathContext mathContext;
+    private final Duration rateTtl;
+    private final CircuitBreaker circuitBreaker;
+    private final RateFallbackPolicy fallbackPolicy;
+    private final SingleFlight<String, ExchangeRateTable> tableFetches = new SingleFlight<>();
+    private volatile ExchangeRateTable lastKnownTable;
+
+    public UniRateTableRateProvider(
+            RestTemplate restTemplate,
+            CacheManager cacheManager,
+            @Value("${currency.unirate.rates-url}") String ratesUrl,
+            @Value("${currency.unirate.api-key}") String apiKey,
+            @Value("${currency.rates.table.base-currency}") String baseCurrency,
+            @Value("${currency.rates.table.precision}") int precision,
+            @Value("${currency.rates.cache.ttl}") Duration rateTtl,
+            CircuitBreaker unirateCircuitBreaker,
+            RateFallbackPolicy fallbackPolicy
+    ) {
+        this.restTemplate = restTemplate;
+        this.rateCache = cacheManager.getCache(CacheConfig.EXCHANGE_RATES_CACHE);
+        this.ratesUrl = ratesUrl;
+        this.apiKey = apiKey;
+        this.baseCurrency = baseCurrency;
+        this.mathContext = new MathContext(precision, RoundingMode.HALF_EVEN);
+        this.rateTtl = rateTtl;
+        this.circuitBreaker = unirateCircuitBreaker;
+        this.fallbackPolicy = fallbackPolicy;
+    }
+
+    @Override
+    public ExchangeRate getExchangeRate(String fromCurrency, String toCurrency) {
+        return getRateTable().crossRate(fromCurrency, toCurrency);
+    }
+
+    @Override
+    public boolean isStale(ExchangeRate rate) {
+        return rate.fetchedAt().plus(fallbackPolicy.maxRateAge(rateTtl)).isBefore(Instant.now());
+    }
+
+    private ExchangeRateTable getRateTable() {
+        String key = "table:" + baseCurrency;
+
+        ExchangeRateTable cached = rateCache.get(key, ExchangeRateTable.class);
+        if (cached != null) {
+            return cached;
+        }
+
+        return tableFetches.execute(key, () -> {
+            ExchangeRateTable loadedMeanwhile = rateCache.get(key, ExchangeRateTable.class);
+            if (loadedMeanwhile != null) {
+                return loadedMeanwhile;
+            }
+
+            ExchangeRateTable table;
+            try {
+                table = circuitBreaker.execute(this::fetchTable);
+            } catch (RuntimeException e) {
+                return fallback(e);
+            }
+            rateCache.put(key, table);
+            lastKnownTable = table;
+            return table;
+        });
+    }
+
+    private ExchangeRateTable fallback(RuntimeException cause) {
+        ExchangeRateTable lastKnown = lastKnownTable;
+        if (lastKnown == null || !fallbackPolicy.permits(lastKnown.getFetchedAt())) {
+            throw cause;
+        }
+        fallbackPolicy.recordFallback("rate table for base " + baseCurrency, lastKnown.getFetchedAt(), cause);
+        return lastKnown;
+    }
+
+    private ExchangeRateTable fetchTable() {
+        log.info("Fetching exchange rate table for base {}", baseCurrency);
+
+        String url = UriComponentsBuilder.fromUriString(ratesUrl)
+                .queryParam("api_key", apiKey)
+                .queryParam("from", baseCurrency)
+                .toUriString();
+
+        ExchangeRatesResponse response = restTemplate.getForObject(url, ExchangeRatesResponse.class);
+        if (response == null || response.rates() == null || !baseCurrency.equals(response.base())) {
+            log.error("Exchange rate table lookup failed for base {}", baseCurrency);
+            throw new CurrencyConversionException(baseCurrency, "all currencies");
+        }
+
+        ExchangeRateTable table = new ExchangeRateTable(baseCurrency, response.rates(), Instant.now(), mathContext);
+        log.info("Fetched exchange rate table for base {} with {} currencies", baseCurrency, table.size());
+        return table;
+    }
+}
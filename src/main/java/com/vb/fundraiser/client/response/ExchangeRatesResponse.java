@@ -0,0 +1,9 @@
+package com.vb.fundraiser.client.response;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+public record ExchangeRatesResponse(
+        String base,
+        Map<String, BigDecimal> rates
+) {}
@@ -1,13 +1,88 @@
 package com.vb.fundraiser.config;
 
+import com.vb.fundraiser.client.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Clock;
+import java.time.Duration;
+
 @Configuration
 public class AppConfig {
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public PoolingHttpClientConnectionManager unirateConnectionManager(
+            @Value("${currency.unirate.http.max-connections}") int maxConnections,
+            @Value("${currency.unirate.http.max-connections-per-route}") int maxConnectionsPerRoute,
+            @Value("${currency.unirate.http.connect-timeout}") Duration connectTimeout,
+            @Value("${currency.unirate.http.read-timeout}") Duration readTimeout,
+            @Value("${currency.unirate.http.connection-ttl}") Duration connectionTtl
+    ) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setTimeToLive(TimeValue.of(connectionTtl))
+                        .build())
+                .build();
+    }
+
+    @Bean
+    public CloseableHttpClient unirateHttpClient(
+            PoolingHttpClientConnectionManager unirateConnectionManager,
+            @Value("${currency.unirate.http.read-timeout}") Duration readTimeout,
+            @Value("${currency.unirate.http.pool-acquire-timeout}") Duration poolAcquireTimeout,
+            @Value("${currency.unirate.http.keep-alive}") Duration keepAlive,
+            @Value("${currency.unirate.http.idle-eviction}") Duration idleEviction
+    ) {
+        return HttpClients.custom()
+                .setConnectionManager(unirateConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(poolAcquireTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> TimeValue.of(keepAlive))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleEviction))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient unirateHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(unirateHttpClient));
+    }
+
+    // Client errors (4xx) mean the service answered, so only I/O failures, 5xx and unusable responses open the circuit
+    @Bean
+    public CircuitBreaker unirateCircuitBreaker(
+            @Value("${currency.unirate.circuit-breaker.failure-threshold}") int failureThreshold,
+            @Value("${currency.unirate.circuit-breaker.open-duration}") Duration openDuration,
+            @Value("${currency.unirate.circuit-breaker.half-open-trials}") int halfOpenTrials,
+            MeterRegistry meterRegistry
+    ) {
+        return new CircuitBreaker("unirate", failureThreshold, openDuration, halfOpenTrials,
+                ex -> !(ex instanceof HttpClientErrorException), Clock.systemUTC(), meterRegistry);
+    }
+
+    // Exports httpcomponents.httpclient.pool.* gauges (leased, available, pending, max) for the UniRate pool
+    @Bean
+    public MeterBinder unirateConnectionPoolMetrics(PoolingHttpClientConnectionManager unirateConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(unirateConnectionManager, "unirate");
     }
-}
\ No newline at end of file
+}
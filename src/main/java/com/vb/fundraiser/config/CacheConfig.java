@@ -0,0 +1,42 @@
+package com.vb.fundraiser.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+    public static final String EXCHANGE_RATES_CACHE = "exchangeRates";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${currency.rates.cache.ttl}") Duration rateTtl,
+            @Value("${currency.rates.cache.max-size}") long rateMaxSize
+    ) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(EXCHANGE_RATES_CACHE, Caffeine.newBuilder()
+                .expireAfterWrite(rateTtl)
+                .maximumSize(rateMaxSize)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+
+    // Hit and miss counts and evictions are bound by actuator's cache metrics; the ratio is exported for convenience
+    @Bean
+    public MeterBinder exchangeRateCacheHitRatio(CacheManager cacheManager) {
+        CaffeineCache rateCache = (CaffeineCache) cacheManager.getCache(EXCHANGE_RATES_CACHE);
+        return registry -> Gauge.builder("cache.hit.ratio", rateCache, c -> c.getNativeCache().stats().hitRate())
+                .tag("cache", EXCHANGE_RATES_CACHE)
+                .description("Share of exchange rate lookups served from the cache")
+                .register(registry);
+    }
+}
@@ -1,8 +1,19 @@
 package com.vb.fundraiser.controller;
 
+import com.vb.fundraiser.model.request.AddMoneyBatchRequest;
 import com.vb.fundraiser.model.request.AddMoneyRequest;
+import com.vb.fundraiser.model.request.RegisterBoxesRequest;
+import com.vb.fundraiser.model.dto.BoxRegistrationDTO;
 import com.vb.fundraiser.model.dto.CollectionBoxDTO;
+import com.vb.fundraiser.model.dto.CursorSlice;
+import com.vb.fundraiser.model.dto.DonationBatchResultDTO;
+import com.vb.fundraiser.model.dto.PendingTransferDTO;
+import com.vb.fundraiser.model.dto.RevaluationDTO;
+import com.vb.fundraiser.service.BalanceRevaluationService;
+import com.vb.fundraiser.service.BoxRegistrationService;
 import com.vb.fundraiser.service.CollectionBoxService;
+import com.vb.fundraiser.service.DonationBatchService;
+import com.vb.fundraiser.service.TransferSettlementService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -14,12 +25,18 @@ import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+
 @Tag(name = "Collection Boxes", description = "Endpoints for managing collection boxes")
 @RestController
 @RequestMapping("/api/v1/boxes")
 @RequiredArgsConstructor
 public class CollectionBoxController {
     private final CollectionBoxService boxService;
+    private final BoxRegistrationService registrationService;
+    private final DonationBatchService donationBatchService;
+    private final BalanceRevaluationService revaluationService;
+    private final TransferSettlementService settlementService;
 
     @Operation(summary = "Register a new collection box")
     @ApiResponses({
@@ -30,6 +47,24 @@ public class CollectionBoxController {
         return ResponseEntity.ok(boxService.registerNewBox());
     }
 
+    @Operation(summary = "Register many collection boxes at once, either a number of boxes or one box per label")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Boxes registered, IDs returned as ranges. If a chunk "
+                    + "failed after earlier chunks were committed, only those boxes are registered: `registered` is "
+                    + "below `requested` and `stoppedAt` gives the index of the first box not registered"),
+            @ApiResponse(responseCode = "400", description = "Invalid request payload, too many boxes or label already registered")
+    })
+    @PostMapping("/bulk")
+    public ResponseEntity<BoxRegistrationDTO> registerBoxes(
+            @Parameter(
+                    description = "Payload containing either a box count or a list of box labels",
+                    required = true
+            )
+            @RequestBody @Valid RegisterBoxesRequest request
+    ) {
+        return ResponseEntity.ok(registrationService.registerBoxes(request.count(), request.labels()));
+    }
+
     @Operation(summary = "List all collection boxes with pagination")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Box list retrieved successfully")
@@ -48,6 +83,25 @@ public class CollectionBoxController {
         return ResponseEntity.ok(boxService.getAllBoxes(page, size, direction));
     }
 
+    @Operation(summary = "List collection boxes with cursor (keyset) pagination, without a total count")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Box slice retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or pagination parameters")
+    })
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorSlice<CollectionBoxDTO>> getBoxesAfter(
+            @Parameter(description = "Continuation token from the previous slice; empty for the first slice", example = "")
+            @RequestParam String cursor,
+
+            @Parameter(description = "Slice size", example = "10")
+            @RequestParam(defaultValue = "10") int size,
+
+            @Parameter(description = "Sort direction (asc or desc); must match the cursor", example = "asc")
+            @RequestParam(defaultValue = "asc") String direction
+    ) {
+        return ResponseEntity.ok(boxService.getBoxesAfter(cursor, size, direction));
+    }
+
     @Operation(summary = "Unregister (remove) a collection box")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Box unregistered successfully"),
@@ -88,6 +142,22 @@ public class CollectionBoxController {
         return ResponseEntity.ok("Money successfully added to the box " + boxId);
     }
 
+    @Operation(summary = "Add a batch of donations to many boxes, with an outcome per record")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Batch processed; see the outcome of each record"),
+            @ApiResponse(responseCode = "400", description = "Empty or oversized batch")
+    })
+    @PostMapping("/donations")
+    public ResponseEntity<DonationBatchResultDTO> addMoneyBatch(
+            @Parameter(
+                    description = "Payload containing the donation records (box ID, currency code, amount)",
+                    required = true
+            )
+            @RequestBody @Valid AddMoneyBatchRequest request
+    ) {
+        return ResponseEntity.ok(donationBatchService.addMoneyBatch(request.donations()));
+    }
+
     @Operation(summary = "Empty the box (transfer money to assigned event)")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Box emptied and funds transferred successfully"),
@@ -99,4 +169,37 @@ public class CollectionBoxController {
         boxService.emptyBox(boxId);
         return ResponseEntity.ok("Box " + boxId + " successfully emptied");
     }
+
+    @Operation(summary = "Empty the box into a pending transfer, converted and credited to the event in the background")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Box emptied; the transfer will be settled asynchronously"),
+            @ApiResponse(responseCode = "400", description = "Attempt to transfer money from an empty box or box is not assigned to an event"),
+            @ApiResponse(responseCode = "404", description = "Box not found")
+    })
+    @PostMapping(value = "/{boxId}/empty", params = "async=true")
+    public ResponseEntity<PendingTransferDTO> emptyBoxDeferred(@PathVariable Long boxId) {
+        PendingTransferDTO transfer = boxService.emptyBoxDeferred(boxId);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/boxes/transfers/" + transfer.transferId()))
+                .body(transfer);
+    }
+
+    @Operation(summary = "Get the status of a transfer left by deferred emptying")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Transfer retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Transfer not found")
+    })
+    @GetMapping("/transfers/{transferId}")
+    public ResponseEntity<PendingTransferDTO> getTransfer(@PathVariable Long transferId) {
+        return ResponseEntity.ok(settlementService.getTransfer(transferId));
+    }
+
+    @Operation(summary = "Re-price the event-currency value of all outstanding box balances at current rates")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Balances re-priced; rows whose rate is unavailable are skipped")
+    })
+    @PostMapping("/revaluation")
+    public ResponseEntity<RevaluationDTO> revalueBalances() {
+        return ResponseEntity.ok(revaluationService.revalue());
+    }
 }
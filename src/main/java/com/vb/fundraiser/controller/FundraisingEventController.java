@@ -1,8 +1,12 @@
 package com.vb.fundraiser.controller;
 
 import com.vb.fundraiser.model.request.CreateEventRequest;
+import com.vb.fundraiser.model.dto.CursorSlice;
+import com.vb.fundraiser.model.dto.EventEmptyingDTO;
 import com.vb.fundraiser.model.dto.FundraisingEventDTO;
+import com.vb.fundraiser.service.EventEmptyingService;
 import com.vb.fundraiser.service.FundraisingEventService;
+import com.vb.fundraiser.util.ReportFormat;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -11,9 +15,11 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Tag(name = "Fundraising Events", description = "Endpoints for managing fundraising events")
 @RestController
@@ -21,6 +27,7 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class FundraisingEventController {
     private final FundraisingEventService eventService;
+    private final EventEmptyingService emptyingService;
 
     @Operation(summary = "Create a new fundraising event")
     @ApiResponses({
@@ -39,9 +46,22 @@ public class FundraisingEventController {
         return ResponseEntity.ok(eventService.createEvent(request.name(), request.currencyCode().toUpperCase()));
     }
 
+    @Operation(summary = "Empty all boxes assigned to the event and transfer their money to the event account")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Boxes emptied; failed boxes, if any, are left untouched"),
+            @ApiResponse(responseCode = "404", description = "Event not found"),
+            @ApiResponse(responseCode = "409", description = "An exchange rate expired before any box was emptied"),
+            @ApiResponse(responseCode = "503", description = "Exchange rate service unavailable")
+    })
+    @PostMapping("/{eventId}/empty-boxes")
+    public ResponseEntity<EventEmptyingDTO> emptyEventBoxes(@PathVariable Long eventId) {
+        return ResponseEntity.ok(emptyingService.emptyEventBoxes(eventId));
+    }
+
     @Operation(summary = "Get paginated financial report for fundraising events")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Paginated financial report returned successfully")
+            @ApiResponse(responseCode = "200", description = "Paginated financial report returned successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid pagination or sort parameters")
     })
     @GetMapping
     public ResponseEntity<Page<FundraisingEventDTO>> getFinancialReport(
@@ -51,7 +71,7 @@ public class FundraisingEventController {
             @Parameter(description = "Page size", example = "10")
             @RequestParam(defaultValue = "10") int size,
 
-            @Parameter(description = "Sort by field (e.g. name)", example = "name")
+            @Parameter(description = "Sort by field (id, name, accountBalance or currency)", example = "name")
             @RequestParam(defaultValue = "name") String sort,
 
             @Parameter(description = "Sort direction (asc or desc)", example = "asc")
@@ -60,18 +80,80 @@ public class FundraisingEventController {
         return ResponseEntity.ok(eventService.getFinancialReport(page, size, sort, direction));
     }
 
+    @Operation(summary = "Get financial report with cursor (keyset) pagination, without a total count")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Financial report slice returned successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, sort field or pagination parameters")
+    })
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorSlice<FundraisingEventDTO>> getFinancialReportAfter(
+            @Parameter(description = "Continuation token from the previous slice; empty for the first slice", example = "")
+            @RequestParam String cursor,
+
+            @Parameter(description = "Slice size", example = "10")
+            @RequestParam(defaultValue = "10") int size,
+
+            @Parameter(description = "Sort by field (id, name, accountBalance or currency); must match the cursor", example = "name")
+            @RequestParam(defaultValue = "name") String sort,
+
+            @Parameter(description = "Sort direction (asc or desc); must match the cursor", example = "asc")
+            @RequestParam(defaultValue = "asc") String direction
+    ) {
+        return ResponseEntity.ok(eventService.getFinancialReportAfter(cursor, size, sort, direction));
+    }
+
     @Operation(summary = "Get financial report in HTML format for all events")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Financial report in HTML format returned successfully")
+            @ApiResponse(responseCode = "200", description = "Financial report in HTML format returned successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid sort field or direction")
     })
     @GetMapping(value = "/table", produces = MediaType.TEXT_HTML_VALUE)
-    public ResponseEntity<String> getReportAsHtml(
-            @Parameter(description = "Field to sort by (e.g. name, currency, accountBalance)", example = "name")
+    public ResponseEntity<StreamingResponseBody> getReportAsHtml(
+            @Parameter(description = "Field to sort by (id, name, accountBalance or currency)", example = "name")
             @RequestParam(defaultValue = "name") String sort,
 
             @Parameter(description = "Sort direction (asc or desc)", example = "asc")
             @RequestParam(defaultValue = "asc") String direction
     ) {
-        return ResponseEntity.ok(eventService.generateHtmlReport(sort, direction));
+        return streamReport(ReportFormat.HTML, sort, direction);
+    }
+
+    @Operation(summary = "Get financial report in CSV format for all events")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Financial report in CSV format returned successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid sort field or direction")
+    })
+    @GetMapping(value = "/csv", produces = "text/csv")
+    public ResponseEntity<StreamingResponseBody> getReportAsCsv(
+            @Parameter(description = "Field to sort by (id, name, accountBalance or currency)", example = "name")
+            @RequestParam(defaultValue = "name") String sort,
+
+            @Parameter(description = "Sort direction (asc or desc)", example = "asc")
+            @RequestParam(defaultValue = "asc") String direction
+    ) {
+        return streamReport(ReportFormat.CSV, sort, direction);
+    }
+
+    @Operation(summary = "Get financial report as newline-delimited JSON for all events")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Financial report in NDJSON format returned successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid sort field or direction")
+    })
+    @GetMapping(value = "/ndjson", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getReportAsNdjson(
+            @Parameter(description = "Field to sort by (id, name, accountBalance or currency)", example = "name")
+            @RequestParam(defaultValue = "name") String sort,
+
+            @Parameter(description = "Sort direction (asc or desc)", example = "asc")
+            @RequestParam(defaultValue = "asc") String direction
+    ) {
+        return streamReport(ReportFormat.NDJSON, sort, direction);
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamReport(ReportFormat format, String sort, String direction) {
+        Sort reportSort = eventService.reportSort(sort, direction);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .body(output -> eventService.writeReport(format, reportSort, output));
     }
 }
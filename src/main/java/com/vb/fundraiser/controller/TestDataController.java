@@ -5,8 +5,9 @@ import com.vb.fundraiser.model.entity.CollectionBox;
 import com.vb.fundraiser.model.entity.Currency;
 import com.vb.fundraiser.model.entity.FundraisingEvent;
 import com.vb.fundraiser.repository.CollectionBoxRepository;
-import com.vb.fundraiser.repository.CurrencyRepository;
 import com.vb.fundraiser.repository.FundraisingEventRepository;
+import com.vb.fundraiser.service.CurrencyRegistry;
+import com.vb.fundraiser.service.EventBalanceLedger;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Profile;
@@ -27,7 +28,8 @@ import java.util.stream.Collectors;
 public class TestDataController {
     private final FundraisingEventRepository eventRepository;
     private final CollectionBoxRepository boxRepository;
-    private final CurrencyRepository currencyRepository;
+    private final CurrencyRegistry currencyRegistry;
+    private final EventBalanceLedger balanceLedger;
 
     private static int eventCounter = 0;
 
@@ -36,7 +38,7 @@ public class TestDataController {
         Random random = new Random(312);
         List<String> currencyCodes = List.of("USD", "EUR", "GBP", "PLN", "JPY");
         Map<String, Currency> currencies = currencyCodes.stream()
-                .map(code -> currencyRepository.findByCode(code).orElseThrow())
+                .map(code -> currencyRegistry.findByCode(code).orElseThrow())
                 .collect(Collectors.toMap(Currency::getCode, c -> c));
 
         List<FundraisingEvent> events = new ArrayList<>();
@@ -50,6 +52,7 @@ public class TestDataController {
             events.add(event);
         }
         eventRepository.saveAll(events);
+        events.forEach(balanceLedger::initialize);
 
         List<CollectionBox> boxes = new ArrayList<>();
         List<BoxCurrencyAmount> amounts = new ArrayList<>();
@@ -65,7 +68,7 @@ public class TestDataController {
                 int numAmounts = 1 + random.nextInt(3); // 1–3 entries per box
                 Set<Currency> assignedCurrencies = new HashSet<>();
                 for (int j = 0; j < numAmounts; j++) {
-                    Optional<Currency> currency = currencyRepository.findByCode(currencyCodes.get(random.nextInt(currencyCodes.size())));
+                    Optional<Currency> currency = currencyRegistry.findByCode(currencyCodes.get(random.nextInt(currencyCodes.size())));
                     if (!assignedCurrencies.add(currency.get())) continue;
 
                     BigDecimal amount = BigDecimal.valueOf(10 + random.nextInt(100) + random.nextDouble());
@@ -2,11 +2,14 @@ package com.vb.fundraiser.exception;
 
 import com.vb.fundraiser.exception.box.*;
 import com.vb.fundraiser.exception.currency.CurrencyNotFoundException;
+import com.vb.fundraiser.exception.currency.ExchangeRateServiceUnavailableException;
 import com.vb.fundraiser.exception.currency.InvalidMoneyAmountException;
+import com.vb.fundraiser.exception.currency.StaleExchangeRateException;
 import com.vb.fundraiser.exception.event.FundraisingEventAlreadyExistsException;
 import com.vb.fundraiser.exception.event.FundraisingEventNotFoundException;
 import com.vb.fundraiser.model.common.ErrorResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.data.mapping.PropertyReferenceException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -14,6 +17,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.time.LocalDateTime;
@@ -25,7 +29,8 @@ public class GlobalExceptionHandler {
     @ExceptionHandler({
             BoxNotFoundException.class,
             FundraisingEventNotFoundException.class,
-            CurrencyNotFoundException.class
+            CurrencyNotFoundException.class,
+            TransferNotFoundException.class
     })
     public ResponseEntity<ErrorResponse> handleNotFound(RuntimeException ex) {
         return buildErrorResponse(HttpStatus.NOT_FOUND, ex.getMessage());
@@ -38,12 +43,25 @@ public class GlobalExceptionHandler {
             NotEmptyBoxAssignmentException.class,
             EmptyBoxMoneyTransferException.class,
             InvalidMoneyAmountException.class,
-            FundraisingEventAlreadyExistsException.class
+            FundraisingEventAlreadyExistsException.class,
+            BoxLabelAlreadyExistsException.class
     })
     public ResponseEntity<ErrorResponse> handleBadRequest(RuntimeException ex) {
         return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
     }
 
+    // 409 – Concurrent state changes
+    @ExceptionHandler(StaleExchangeRateException.class)
+    public ResponseEntity<ErrorResponse> handleConflict(RuntimeException ex) {
+        return buildErrorResponse(HttpStatus.CONFLICT, ex.getMessage());
+    }
+
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<ErrorResponse> handleConcurrencyFailure(ConcurrencyFailureException ex) {
+        log.warn("Concurrent update conflict not resolved by retries: {}", ex.getMessage());
+        return buildErrorResponse(HttpStatus.CONFLICT, "The resource was modified concurrently, please try again");
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationError(MethodArgumentNotValidException ex) {
         String message = ex.getBindingResult().getFieldErrors().stream()
@@ -59,6 +77,19 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(HttpStatus.UNAUTHORIZED, "Unauthorized request; you should probably provide valid Unirate api key in application.yml or as an environment variable");
     }
 
+    // 503 – Exchange rate provider timed out or unreachable
+    @ExceptionHandler(ResourceAccessException.class)
+    public ResponseEntity<ErrorResponse> handleResourceAccess(ResourceAccessException ex) {
+        log.warn("Currency conversion service unavailable: {}", ex.getMessage());
+        return buildErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, "Currency conversion service is unavailable, please try again later");
+    }
+
+    // 503 – Circuit open, exchange rate provider calls suspended
+    @ExceptionHandler(ExchangeRateServiceUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleRateServiceUnavailable(ExchangeRateServiceUnavailableException ex) {
+        return buildErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorResponse> handleIllegalArgument(IllegalArgumentException ex) {
         return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
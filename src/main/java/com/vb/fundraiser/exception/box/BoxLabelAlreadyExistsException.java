@@ -0,0 +1,9 @@
+package com.vb.fundraiser.exception.box;
+
+import java.util.Collection;
+
+public class BoxLabelAlreadyExistsException extends RuntimeException {
+    public BoxLabelAlreadyExistsException(Collection<String> labels) {
+        super("Boxes with labels " + labels + " are already registered");
+    }
+}
@@ -0,0 +1,7 @@
+package com.vb.fundraiser.exception.box;
+
+public class TransferNotFoundException extends RuntimeException {
+    public TransferNotFoundException(Long id) {
+        super("Transfer with ID " + id + " not found");
+    }
+}
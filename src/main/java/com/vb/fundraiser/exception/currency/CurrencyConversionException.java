@@ -6,4 +6,8 @@ public class CurrencyConversionException extends RuntimeException {
     public CurrencyConversionException(BigDecimal amount, String fromCurrency, String toCurrency) {
         super("Currency conversion for amount " + amount + " from " + fromCurrency + " to " + toCurrency + " failed");
     }
+
+    public CurrencyConversionException(String fromCurrency, String toCurrency) {
+        super("Exchange rate lookup from " + fromCurrency + " to " + toCurrency + " failed");
+    }
 }
@@ -0,0 +1,7 @@
+package com.vb.fundraiser.exception.currency;
+
+public class ExchangeRateServiceUnavailableException extends RuntimeException {
+    public ExchangeRateServiceUnavailableException(String service) {
+        super("Exchange rate service '" + service + "' is failing; calls are suspended until it recovers");
+    }
+}
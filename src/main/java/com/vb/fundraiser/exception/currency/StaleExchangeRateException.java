@@ -0,0 +1,8 @@
+package com.vb.fundraiser.exception.currency;
+
+public class StaleExchangeRateException extends RuntimeException {
+    public StaleExchangeRateException(Long boxId, String fromCurrency, String toCurrency) {
+        super("Exchange rate from " + fromCurrency + " to " + toCurrency + " resolved for box " + boxId
+                + " is no longer valid; retry the transfer");
+    }
+}
@@ -2,6 +2,7 @@ package com.vb.fundraiser.init;
 
 import com.vb.fundraiser.model.entity.Currency;
 import com.vb.fundraiser.repository.CurrencyRepository;
+import com.vb.fundraiser.service.CurrencyRegistry;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -9,6 +10,7 @@ import org.springframework.stereotype.Component;
 
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -16,6 +18,7 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class CurrencyInitializer {
     private final CurrencyRepository currencyRepository;
+    private final CurrencyRegistry currencyRegistry;
 
     @PostConstruct
     public void initCurrencies() {
@@ -33,8 +36,11 @@ public class CurrencyInitializer {
                 .toList();
 
         if (!newCurrencies.isEmpty()) {
+            long start = System.nanoTime();
             currencyRepository.saveAll(newCurrencies);
-            log.info("Initialized {} ISO fiat currencies into the database", newCurrencies.size());
+            log.info("Initialized {} ISO fiat currencies into the database in {} ms",
+                    newCurrencies.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
         }
+        currencyRegistry.refresh();
     }
 }
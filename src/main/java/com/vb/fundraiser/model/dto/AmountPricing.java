@@ -0,0 +1,10 @@
+package com.vb.fundraiser.model.dto;
+
+/**
+ * An outstanding box amount row to re-price, with the currency it holds and the currency of the box's event.
+ */
+public record AmountPricing(
+        Long id,
+        String currencyCode,
+        String eventCurrencyCode
+) {}
@@ -0,0 +1,20 @@
+package com.vb.fundraiser.model.dto;
+
+import com.vb.fundraiser.model.entity.OutboxMessage;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A relayed balance change. {@code amount} is the change in the event currency, zero for a newly created event;
+ * {@code messageId} is unique per change, so consumers can drop the duplicates an at-least-once relay may deliver.
+ */
+public record BalanceChangeMessage(
+        Long messageId,
+        OutboxMessage.Type type,
+        Long eventId,
+        String currencyCode,
+        BigDecimal amount,
+        String operation,
+        Instant occurredAt
+) {}
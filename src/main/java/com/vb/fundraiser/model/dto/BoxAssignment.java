@@ -0,0 +1,6 @@
+package com.vb.fundraiser.model.dto;
+
+public record BoxAssignment(
+        Long boxId,
+        boolean assigned
+) {}
@@ -0,0 +1,18 @@
+package com.vb.fundraiser.model.dto;
+
+import java.util.List;
+
+/**
+ * Result of a bulk registration. IDs are listed in registration order, so with labels the n-th ID belongs to the
+ * n-th label. Boxes are committed in chunks, so a failure after the first chunk leaves the earlier chunks
+ * registered: {@code registered} is then less than {@code requested}, {@code stoppedAt} is the index of the first
+ * box (or label) that was not registered and {@code error} tells why. Both are {@code null} when all boxes were
+ * registered.
+ */
+public record BoxRegistrationDTO(
+        int requested,
+        int registered,
+        List<IdRange> ids,
+        Integer stoppedAt,
+        String error
+) {}
@@ -0,0 +1,10 @@
+package com.vb.fundraiser.model.dto;
+
+import java.util.List;
+
+public record CursorSlice<T>(
+        List<T> content,
+        int size,
+        boolean hasNext,
+        String nextCursor
+) {}
@@ -0,0 +1,13 @@
+package com.vb.fundraiser.model.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a donation batch, with one entry per submitted record in submission order.
+ */
+public record DonationBatchResultDTO(
+        int accepted,
+        int rejected,
+        int failed,
+        List<DonationOutcomeDTO> outcomes
+) {}
@@ -0,0 +1,16 @@
+package com.vb.fundraiser.model.dto;
+
+public record DonationOutcomeDTO(
+        int index,
+        Status status,
+        String error
+) {
+    public enum Status {
+        // Added to the box
+        ACCEPTED,
+        // Failed validation, nothing was added
+        REJECTED,
+        // Valid, but the group of boxes it belonged to could not be updated
+        FAILED
+    }
+}
@@ -0,0 +1,10 @@
+package com.vb.fundraiser.model.dto;
+
+/**
+ * A pending transfer due for settlement, with the event it credits and that event's currency.
+ */
+public record DueTransfer(
+        Long id,
+        Long eventId,
+        String currencyCode
+) {}
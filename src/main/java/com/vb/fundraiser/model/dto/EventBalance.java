@@ -0,0 +1,8 @@
+package com.vb.fundraiser.model.dto;
+
+import java.math.BigDecimal;
+
+public record EventBalance(
+        Long eventId,
+        BigDecimal balance
+) {}
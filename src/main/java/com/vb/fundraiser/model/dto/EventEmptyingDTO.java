@@ -0,0 +1,11 @@
+package com.vb.fundraiser.model.dto;
+
+import java.math.BigDecimal;
+
+public record EventEmptyingDTO(
+        Long eventId,
+        String currencyCode,
+        int boxesEmptied,
+        int boxesFailed,
+        BigDecimal transferred
+) {}
@@ -0,0 +1,15 @@
+package com.vb.fundraiser.model.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * A non-empty amount row of a box assigned to an event, read when planning the emptying of the event's boxes.
+ * {@code convertedAmount} is the value stored by convert-at-deposit mode, or {@code null} while not priced.
+ */
+public record HeldAmount(
+        Long id,
+        Long boxId,
+        String currencyCode,
+        BigDecimal amount,
+        BigDecimal convertedAmount
+) {}
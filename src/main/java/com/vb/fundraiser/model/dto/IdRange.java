@@ -0,0 +1,24 @@
+package com.vb.fundraiser.model.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public record IdRange(
+        long first,
+        long last
+) {
+    /**
+     * Collapses IDs into runs of consecutive values, keeping their order.
+     */
+    public static List<IdRange> collapse(List<Long> ids) {
+        List<IdRange> ranges = new ArrayList<>();
+        for (long id : ids) {
+            if (!ranges.isEmpty() && ranges.getLast().last() + 1 == id) {
+                ranges.set(ranges.size() - 1, new IdRange(ranges.getLast().first(), id));
+            } else {
+                ranges.add(new IdRange(id, id));
+            }
+        }
+        return ranges;
+    }
+}
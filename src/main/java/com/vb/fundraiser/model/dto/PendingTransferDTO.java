@@ -0,0 +1,19 @@
+package com.vb.fundraiser.model.dto;
+
+import com.vb.fundraiser.model.entity.PendingTransfer.Status;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record PendingTransferDTO(
+        Long transferId,
+        Long boxId,
+        Long eventId,
+        Status status,
+        String currencyCode,
+        BigDecimal transferred,
+        int attempts,
+        String lastError,
+        Instant createdAt,
+        Instant settledAt
+) {}
@@ -0,0 +1,7 @@
+package com.vb.fundraiser.model.dto;
+
+public record RevaluationDTO(
+        int checked,
+        int repriced,
+        int skipped
+) {}
@@ -16,7 +16,8 @@ import java.math.BigDecimal;
 @Builder
 public class BoxCurrencyAmount {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "box_currency_amount_seq")
+    @SequenceGenerator(name = "box_currency_amount_seq", sequenceName = "box_currency_amount_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -30,7 +31,14 @@ public class BoxCurrencyAmount {
     @Column(nullable = false, precision = 20, scale = 6)
     private BigDecimal amount;
 
+    // Value of amount in the event's currency when deposits are converted as they arrive; null while not priced
+    @Column(precision = 20, scale = 6)
+    private BigDecimal convertedAmount;
+
     @Builder.Default
     @Column(nullable = false)
     private boolean isDeleted = false;
+
+    @Version
+    private Long version;
 }
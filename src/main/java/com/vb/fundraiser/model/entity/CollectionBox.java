@@ -15,9 +15,14 @@ import java.util.List;
 @Builder
 public class CollectionBox {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "collection_box_seq")
+    @SequenceGenerator(name = "collection_box_seq", sequenceName = "collection_box_seq", allocationSize = 50)
     private Long id;
 
+    // Optional external label printed on the box, set when boxes are registered in bulk from a label list
+    @Column(unique = true, length = 64)
+    private String label;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_event")
     private FundraisingEvent event;
@@ -29,4 +34,7 @@ public class CollectionBox {
     @Builder.Default
     @Column(nullable = false)
     private boolean isDeleted = false;
+
+    @Version
+    private Long version;
 }
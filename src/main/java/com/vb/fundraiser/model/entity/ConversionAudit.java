@@ -0,0 +1,58 @@
+package com.vb.fundraiser.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * The rate applied to one source currency group of a transfer to an event, written in the transaction that credits
+ * the event so every converted credit can be traced back to the rate and the amount it was computed from.
+ */
+@Entity
+@Table(name = "conversion_audit", indexes = {
+        @Index(name = "idx_conversion_audit_event", columnList = "id_event, id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConversionAudit {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "conversion_audit_seq")
+    @SequenceGenerator(name = "conversion_audit_seq", sequenceName = "conversion_audit_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "id_event")
+    private FundraisingEvent event;
+
+    @Column(nullable = false, length = 32)
+    private String operation;
+
+    @Column(nullable = false, length = 3)
+    private String sourceCurrency;
+
+    @Column(nullable = false, length = 3)
+    private String targetCurrency;
+
+    @Column(nullable = false, precision = 20, scale = 6)
+    private BigDecimal sourceTotal;
+
+    // Holds rates exactly as applied, see ConversionPlan.RATE_SCALE
+    @Column(nullable = false, precision = 40, scale = 20)
+    private BigDecimal rate;
+
+    @Column(nullable = false, precision = 20, scale = 6)
+    private BigDecimal convertedTotal;
+
+    @Column(nullable = false)
+    private int boxes;
+
+    private Instant rateFetchedAt;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
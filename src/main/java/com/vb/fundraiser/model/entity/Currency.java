@@ -12,7 +12,8 @@ import lombok.*;
 @Builder
 public class Currency {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "currency_seq")
+    @SequenceGenerator(name = "currency_seq", sequenceName = "currency_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 3)
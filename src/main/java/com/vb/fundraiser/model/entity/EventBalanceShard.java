@@ -0,0 +1,36 @@
+package com.vb.fundraiser.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * One of several counter rows that absorb credits to a hot event's balance; the event's total balance is its
+ * {@code accountBalance} plus the sum of its shards until compaction folds them back.
+ */
+@Entity
+@Table(name = "event_balance_shard", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"id_event", "shard_index"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EventBalanceShard {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "event_balance_shard_seq")
+    @SequenceGenerator(name = "event_balance_shard_seq", sequenceName = "event_balance_shard_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "id_event")
+    private FundraisingEvent event;
+
+    @Column(name = "shard_index", nullable = false)
+    private int shardIndex;
+
+    @Column(nullable = false, precision = 20, scale = 6)
+    private BigDecimal amount;
+}
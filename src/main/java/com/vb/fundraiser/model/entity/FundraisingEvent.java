@@ -6,7 +6,11 @@ import lombok.*;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "fundraising_event")
+// Sortable report fields (see EventSortField); name is covered by its unique constraint
+@Table(name = "fundraising_event", indexes = {
+        @Index(name = "idx_fundraising_event_balance", columnList = "account_balance, id"),
+        @Index(name = "idx_fundraising_event_currency_code", columnList = "currency_code, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -14,7 +18,8 @@ import java.math.BigDecimal;
 @Builder
 public class FundraisingEvent {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fundraising_event_seq")
+    @SequenceGenerator(name = "fundraising_event_seq", sequenceName = "fundraising_event_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -24,6 +29,18 @@ public class FundraisingEvent {
     @JoinColumn(name = "id_currency", nullable = false)
     private Currency currency;
 
+    // Copy of the currency code, so the report can be sorted by it in index order without joining currency
+    @Column(nullable = false, length = 3, updatable = false)
+    private String currencyCode;
+
     @Column(nullable = false, precision = 20, scale = 6)
     private BigDecimal accountBalance;
+
+    @Version
+    private Long version;
+
+    @PrePersist
+    private void copyCurrencyCode() {
+        currencyCode = currency.getCode();
+    }
 }
@@ -0,0 +1,49 @@
+package com.vb.fundraiser.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A change to an event balance waiting to be relayed downstream. It is written in the transaction that changes the
+ * balance, so a message exists exactly when the change was committed; the relay deletes it once published.
+ */
+@Entity
+@Table(name = "outbox_message")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxMessage {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_message_seq")
+    @SequenceGenerator(name = "outbox_message_seq", sequenceName = "outbox_message_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private Type type;
+
+    @Column(name = "id_event", nullable = false)
+    private Long eventId;
+
+    @Column(nullable = false, length = 3)
+    private String currencyCode;
+
+    @Column(nullable = false, precision = 20, scale = 6)
+    private BigDecimal amount;
+
+    @Column(nullable = false, length = 32)
+    private String operation;
+
+    @Column(nullable = false)
+    private Instant occurredAt;
+
+    public enum Type {
+        EVENT_CREATED,
+        BALANCE_CREDITED
+    }
+}
@@ -0,0 +1,74 @@
+package com.vb.fundraiser.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Money taken out of a box by a deferred emptying, waiting to be converted and credited to the event. The box is
+ * zeroed in the same transaction that writes this row, so the money is always either in the box, in a pending
+ * transfer, or in the event balance.
+ */
+@Entity
+// The settlement worker polls for due transfers in ID order
+@Table(name = "pending_transfer", indexes = {
+        @Index(name = "idx_pending_transfer_due", columnList = "status, next_attempt_at, id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PendingTransfer {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pending_transfer_seq")
+    @SequenceGenerator(name = "pending_transfer_seq", sequenceName = "pending_transfer_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "id_box")
+    private CollectionBox box;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "id_event")
+    private FundraisingEvent event;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Builder.Default
+    @ElementCollection
+    @CollectionTable(name = "pending_transfer_amount", joinColumns = @JoinColumn(name = "id_transfer"))
+    private List<TransferAmount> amounts = new ArrayList<>();
+
+    // Credit in the event's currency, set when the transfer is settled
+    @Column(precision = 20, scale = 6)
+    private BigDecimal transferred;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant nextAttemptAt;
+
+    private Instant settledAt;
+
+    @Version
+    private Long version;
+
+    public enum Status {
+        PENDING,
+        SETTLED
+    }
+}
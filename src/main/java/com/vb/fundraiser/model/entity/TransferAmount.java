@@ -0,0 +1,21 @@
+package com.vb.fundraiser.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransferAmount {
+    @Column(nullable = false, length = 3)
+    private String currencyCode;
+
+    @Column(nullable = false, precision = 20, scale = 6)
+    private BigDecimal amount;
+}
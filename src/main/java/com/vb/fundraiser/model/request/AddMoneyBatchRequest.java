@@ -0,0 +1,11 @@
+package com.vb.fundraiser.model.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record AddMoneyBatchRequest(
+        @NotEmpty(message = "Donation batch must contain at least one record")
+        List<@NotNull(message = "Donation record must not be null") DonationRecord> donations
+) {}
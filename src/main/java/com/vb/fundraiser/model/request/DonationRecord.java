@@ -0,0 +1,20 @@
+package com.vb.fundraiser.model.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+/**
+ * One line of a donation batch. Deliberately unconstrained: each record is validated on its own so that a bad
+ * line is reported in the batch result instead of failing the whole request.
+ */
+public record DonationRecord(
+        @Schema(example = "1")
+        Long boxId,
+
+        @Schema(example = "USD")
+        String currencyCode,
+
+        @Schema(example = "12.50")
+        BigDecimal amount
+) {}
@@ -0,0 +1,18 @@
+package com.vb.fundraiser.model.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record RegisterBoxesRequest(
+        @Positive(message = "Box count must be greater than 0")
+        @Schema(description = "Number of unlabelled boxes to register; omit when labels are given", example = "1000")
+        Integer count,
+
+        @Schema(description = "External labels, one box per label; omit when count is given", example = "[\"WAW-0001\", \"WAW-0002\"]")
+        List<@NotBlank(message = "Box label must not be blank")
+             @Size(max = 64, message = "Box label must not exceed 64 characters") String> labels
+) {}
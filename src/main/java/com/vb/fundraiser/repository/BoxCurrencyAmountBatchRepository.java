@@ -0,0 +1,17 @@
+package com.vb.fundraiser.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Batched form of {@link BoxCurrencyAmountRepository#addToAmount}, for deposits applied many at a time.
+ */
+public interface BoxCurrencyAmountBatchRepository {
+    /**
+     * Increments every (box, currency) row in one JDBC batch, in the caller's transaction, and leaves the rows
+     * unpriced. Returns the update count of each increment in order; 0 means the row does not exist yet.
+     */
+    int[] addToAmounts(List<AmountIncrement> increments);
+
+    record AmountIncrement(Long boxId, Long currencyId, BigDecimal amount) {}
+}
@@ -0,0 +1,25 @@
+package com.vb.fundraiser.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+class BoxCurrencyAmountBatchRepositoryImpl implements BoxCurrencyAmountBatchRepository {
+    // Same increment as BoxCurrencyAmountRepository.addToAmount; relies on the driver reporting per-statement counts
+    private static final String ADD_TO_AMOUNT = """
+            update box_currency_amount
+            set amount = amount + ?, converted_amount = null, version = version + 1
+            where id_box = ? and id_currency = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int[] addToAmounts(List<AmountIncrement> increments) {
+        return jdbcTemplate.batchUpdate(ADD_TO_AMOUNT, increments.stream()
+                .map(increment -> new Object[]{increment.amount(), increment.boxId(), increment.currencyId()})
+                .toList());
+    }
+}
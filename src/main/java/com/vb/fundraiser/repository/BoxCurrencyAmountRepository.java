@@ -1,7 +1,67 @@
 package com.vb.fundraiser.repository;
 
+import com.vb.fundraiser.model.dto.AmountPricing;
+import com.vb.fundraiser.model.dto.HeldAmount;
 import com.vb.fundraiser.model.entity.BoxCurrencyAmount;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
-public interface BoxCurrencyAmountRepository extends JpaRepository<BoxCurrencyAmount, Long> {
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+public interface BoxCurrencyAmountRepository extends JpaRepository<BoxCurrencyAmount, Long>, BoxCurrencyAmountBatchRepository {
+    // Increments in the database so concurrent donations to the same box and currency cannot overwrite each other;
+    // the version bump makes a concurrent emptying that read the old amount fail its optimistic check. A null
+    // convertedAmount leaves the row unpriced until the next revaluation
+    @Modifying
+    @Query("""
+            update BoxCurrencyAmount a
+            set a.amount = a.amount + :amount,
+                a.convertedAmount = a.convertedAmount + :convertedAmount,
+                a.version = a.version + 1
+            where a.box.id = :boxId and a.currency.id = :currencyId
+            """)
+    int addToAmount(Long boxId, Long currencyId, BigDecimal amount, BigDecimal convertedAmount);
+
+    @Query("""
+            select new com.vb.fundraiser.model.dto.AmountPricing(a.id, c.code, ec.code)
+            from BoxCurrencyAmount a
+            join a.currency c
+            join a.box b
+            join b.event e
+            join e.currency ec
+            where a.id > :afterId and a.amount > 0 and b.isDeleted = false
+            order by a.id
+            """)
+    List<AmountPricing> findPricingAfter(Long afterId, Limit limit);
+
+    @Query("""
+            select new com.vb.fundraiser.model.dto.HeldAmount(a.id, b.id, c.code, a.amount, a.convertedAmount)
+            from BoxCurrencyAmount a
+            join a.box b
+            join a.currency c
+            where b.event.id = :eventId and b.isDeleted = false and a.amount > 0
+            order by b.id, a.id
+            """)
+    List<HeldAmount> findHeldAmounts(Long eventId);
+
+    // Row locks make concurrent deposits into these rows wait until the amounts are zeroed and credited. The box IDs
+    // may have been read a while ago, so boxes unregistered or no longer assigned to the event since are skipped
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            select a
+            from BoxCurrencyAmount a
+            join a.box b
+            where b.id in :boxIds and b.event.id = :eventId and b.isDeleted = false and a.amount > 0
+            """)
+    List<BoxCurrencyAmount> lockNonEmptyAmounts(Long eventId, Collection<Long> boxIds);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update BoxCurrencyAmount a set a.amount = 0, a.convertedAmount = 0, a.version = a.version + 1 where a.id in :ids")
+    int zeroAmounts(Collection<Long> ids);
 }
@@ -1,13 +1,79 @@
 package com.vb.fundraiser.repository;
 
+import com.vb.fundraiser.model.dto.BoxAssignment;
+import com.vb.fundraiser.model.dto.CollectionBoxDTO;
 import com.vb.fundraiser.model.entity.CollectionBox;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface CollectionBoxRepository extends JpaRepository<CollectionBox, Long> {
     Optional<CollectionBox> findByIdAndIsDeletedFalse(Long id);
-    Page<CollectionBox> findByIsDeletedFalse(Pageable pageable);
+
+    // Labels stay reserved by unregistered boxes as well, matching the unique constraint
+    @Query("select b.label from CollectionBox b where b.label in :labels")
+    List<String> findExistingLabels(Collection<String> labels);
+
+    @Query("""
+            select new com.vb.fundraiser.model.dto.BoxAssignment(b.id, case when b.event is not null then true else false end)
+            from CollectionBox b
+            where b.id in :ids and b.isDeleted = false
+            """)
+    List<BoxAssignment> findAssignments(Collection<Long> ids);
+
+    @Query("select case when b.event is not null then true else false end from CollectionBox b where b.id = :id and b.isDeleted = false")
+    Optional<Boolean> findAssignedById(Long id);
+
+    @Query("select c.code from CollectionBox b join b.event e join e.currency c where b.id = :id and b.isDeleted = false")
+    Optional<String> findEventCurrencyCode(Long id);
+
+    // Flags are computed in SQL so listing a page never loads amounts or event proxies
+    @Query(value = """
+            select new com.vb.fundraiser.model.dto.CollectionBoxDTO(
+                b.id,
+                case when b.event is not null then true else false end,
+                case when exists (
+                    select 1 from BoxCurrencyAmount a where a.box = b and a.amount > 0
+                ) then false else true end
+            )
+            from CollectionBox b
+            where b.isDeleted = false
+            """,
+            countQuery = "select count(b) from CollectionBox b where b.isDeleted = false")
+    Page<CollectionBoxDTO> findBoxSummaries(Pageable pageable);
+
+    // Keyset variants: seek past the last id of the previous slice, no offset and no count
+    @Query("""
+            select new com.vb.fundraiser.model.dto.CollectionBoxDTO(
+                b.id,
+                case when b.event is not null then true else false end,
+                case when exists (
+                    select 1 from BoxCurrencyAmount a where a.box = b and a.amount > 0
+                ) then false else true end
+            )
+            from CollectionBox b
+            where b.isDeleted = false and b.id > :afterId
+            order by b.id asc
+            """)
+    List<CollectionBoxDTO> findBoxSummariesAfter(long afterId, Limit limit);
+
+    @Query("""
+            select new com.vb.fundraiser.model.dto.CollectionBoxDTO(
+                b.id,
+                case when b.event is not null then true else false end,
+                case when exists (
+                    select 1 from BoxCurrencyAmount a where a.box = b and a.amount > 0
+                ) then false else true end
+            )
+            from CollectionBox b
+            where b.isDeleted = false and b.id < :beforeId
+            order by b.id desc
+            """)
+    List<CollectionBoxDTO> findBoxSummariesBefore(long beforeId, Limit limit);
 }
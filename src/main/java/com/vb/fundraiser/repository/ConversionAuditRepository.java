@@ -0,0 +1,29 @@
+package com.vb.fundraiser.repository;
+
+import com.vb.fundraiser.model.entity.ConversionAudit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+public interface ConversionAuditRepository extends JpaRepository<ConversionAudit, Long> {
+    List<ConversionAudit> findByEventIdOrderById(Long eventId);
+
+    // Adds what one transaction converted at the audited rate, in the database so concurrent transactions add up
+    @Modifying
+    @Query("""
+            update ConversionAudit a
+            set a.sourceTotal = a.sourceTotal + :sourceAmount,
+                a.convertedTotal = a.convertedTotal + :convertedAmount,
+                a.boxes = a.boxes + :boxes
+            where a.id = :id
+            """)
+    int addToTotals(Long id, BigDecimal sourceAmount, BigDecimal convertedAmount, int boxes);
+
+    @Modifying
+    @Query("delete from ConversionAudit a where a.id in :ids and a.boxes = 0")
+    int deleteUnused(Collection<Long> ids);
+}
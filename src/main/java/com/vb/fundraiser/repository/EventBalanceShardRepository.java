@@ -0,0 +1,36 @@
+package com.vb.fundraiser.repository;
+
+import com.vb.fundraiser.model.dto.EventBalance;
+import com.vb.fundraiser.model.entity.EventBalanceShard;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+public interface EventBalanceShardRepository extends JpaRepository<EventBalanceShard, Long> {
+    @Modifying
+    @Query("update EventBalanceShard s set s.amount = s.amount + :amount where s.event.id = :eventId and s.shardIndex = :shardIndex")
+    int addToShard(Long eventId, int shardIndex, BigDecimal amount);
+
+    // Folded in one statement so a concurrent compaction can neither hide nor double count a credit
+    @Query("""
+            select new com.vb.fundraiser.model.dto.EventBalance(
+                e.id,
+                e.accountBalance + coalesce((select sum(s.amount) from EventBalanceShard s where s.event = e), 0)
+            )
+            from FundraisingEvent e
+            where e.id in :eventIds
+            """)
+    List<EventBalance> findFoldedBalances(Collection<Long> eventIds);
+
+    @Query("select distinct s.event.id from EventBalanceShard s where s.amount <> 0")
+    List<Long> findEventIdsWithPendingCredits();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<EventBalanceShard> findByEventId(Long eventId);
+}
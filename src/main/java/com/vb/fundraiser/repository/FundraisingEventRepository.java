@@ -1,8 +1,58 @@
 package com.vb.fundraiser.repository;
 
+import com.vb.fundraiser.model.dto.FundraisingEventDTO;
 import com.vb.fundraiser.model.entity.FundraisingEvent;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.math.BigDecimal;
+import java.util.stream.Stream;
 
 public interface FundraisingEventRepository extends JpaRepository<FundraisingEvent, Long> {
+    // Report rows with pending shard credits folded into the balance, in one statement. The currency code is read from
+    // the copy on the event, so no join stands between the sort and its index
+    String REPORT_ROWS = """
+            select new com.vb.fundraiser.model.dto.FundraisingEventDTO(
+                e.id,
+                e.name,
+                e.currencyCode,
+                e.accountBalance + coalesce((select sum(s.amount) from EventBalanceShard s where s.event = e), 0)
+            )
+            from FundraisingEvent e
+            """;
+
     boolean existsByName(String name);
+
+    @Query(value = REPORT_ROWS, countQuery = "select count(e) from FundraisingEvent e")
+    Page<FundraisingEventDTO> findReportPage(Pageable pageable);
+
+    // Keyset scrolling; the sort must end with the unique id so positions are unambiguous
+    @EntityGraph(attributePaths = "currency")
+    Window<FundraisingEvent> findBy(ScrollPosition position, Sort sort, Limit limit);
+
+    /**
+     * Whole report as a lazily read stream of rows, fetched from the driver {@code 500} at a time. Must be consumed
+     * inside a transaction and closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(REPORT_ROWS)
+    Stream<FundraisingEventDTO> streamReport(Sort sort);
+
+    @Modifying
+    @Query("update FundraisingEvent e set e.accountBalance = e.accountBalance + :amount, e.version = e.version + 1 where e.id = :id")
+    int addToBalance(Long id, BigDecimal amount);
 }
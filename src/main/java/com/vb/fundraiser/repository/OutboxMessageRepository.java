@@ -0,0 +1,19 @@
+package com.vb.fundraiser.repository;
+
+import com.vb.fundraiser.model.dto.BalanceChangeMessage;
+import com.vb.fundraiser.model.entity.OutboxMessage;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+    @Query("""
+            select new com.vb.fundraiser.model.dto.BalanceChangeMessage(
+                m.id, m.type, m.eventId, m.currencyCode, m.amount, m.operation, m.occurredAt)
+            from OutboxMessage m
+            order by m.id
+            """)
+    List<BalanceChangeMessage> findOldest(Limit limit);
+}
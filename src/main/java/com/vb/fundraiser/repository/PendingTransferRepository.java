@@ -0,0 +1,59 @@
+package com.vb.fundraiser.repository;
+
+import com.vb.fundraiser.model.dto.DueTransfer;
+import com.vb.fundraiser.model.dto.PendingTransferDTO;
+import com.vb.fundraiser.model.entity.PendingTransfer;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface PendingTransferRepository extends JpaRepository<PendingTransfer, Long> {
+    @Query("""
+            select new com.vb.fundraiser.model.dto.DueTransfer(t.id, e.id, c.code)
+            from PendingTransfer t
+            join t.event e
+            join e.currency c
+            where t.status = com.vb.fundraiser.model.entity.PendingTransfer.Status.PENDING
+              and t.nextAttemptAt <= :now
+            order by t.id
+            """)
+    List<DueTransfer> findDue(Instant now, Limit limit);
+
+    @Query("select distinct a.currencyCode from PendingTransfer t join t.amounts a where t.id in :ids")
+    List<String> findCurrencyCodes(Collection<Long> ids);
+
+    // Already settled transfers drop out, so a transfer is never credited twice
+    @Query("""
+            select distinct t from PendingTransfer t
+            left join fetch t.amounts
+            where t.id in :ids and t.status = com.vb.fundraiser.model.entity.PendingTransfer.Status.PENDING
+            """)
+    List<PendingTransfer> findPendingWithAmounts(Collection<Long> ids);
+
+    @Modifying
+    @Query("""
+            update PendingTransfer t
+            set t.attempts = t.attempts + 1, t.lastError = :error, t.nextAttemptAt = :nextAttemptAt,
+                t.version = t.version + 1
+            where t.id in :ids and t.status = com.vb.fundraiser.model.entity.PendingTransfer.Status.PENDING
+            """)
+    int recordFailure(Collection<Long> ids, String error, Instant nextAttemptAt);
+
+    @Query("""
+            select new com.vb.fundraiser.model.dto.PendingTransferDTO(
+                t.id, b.id, e.id, t.status, c.code, t.transferred, t.attempts, t.lastError, t.createdAt, t.settledAt
+            )
+            from PendingTransfer t
+            join t.box b
+            join t.event e
+            join e.currency c
+            where t.id = :id
+            """)
+    Optional<PendingTransferDTO> findTransfer(Long id);
+}
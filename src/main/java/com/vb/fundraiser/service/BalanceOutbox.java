@@ -0,0 +1,42 @@
+package com.vb.fundraiser.service;
+
+import com.vb.fundraiser.model.entity.FundraisingEvent;
+import com.vb.fundraiser.model.entity.OutboxMessage;
+import com.vb.fundraiser.repository.OutboxMessageRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Records balance changes in the outbox relayed by {@link OutboxRelay}. Must be called in the transaction that
+ * changes the balance, so that the message commits or rolls back with the change itself.
+ */
+@Component
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class BalanceOutbox {
+    private final OutboxMessageRepository outboxRepository;
+
+    public void recordCreated(FundraisingEvent event) {
+        record(OutboxMessage.Type.EVENT_CREATED, event.getId(), event.getCurrency().getCode(), BigDecimal.ZERO, "createEvent");
+    }
+
+    public void recordCredit(Long eventId, String currencyCode, BigDecimal amount, String operation) {
+        record(OutboxMessage.Type.BALANCE_CREDITED, eventId, currencyCode, amount, operation);
+    }
+
+    private void record(OutboxMessage.Type type, Long eventId, String currencyCode, BigDecimal amount, String operation) {
+        outboxRepository.save(OutboxMessage.builder()
+                .type(type)
+                .eventId(eventId)
+                .currencyCode(currencyCode)
+                .amount(amount)
+                .operation(operation)
+                .occurredAt(Instant.now())
+                .build());
+    }
+}
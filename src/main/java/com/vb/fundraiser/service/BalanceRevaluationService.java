@@ -0,0 +1,145 @@
+package com.vb.fundraiser.service;
+
+import com.vb.fundraiser.client.CurrencyConversionClient;
+import com.vb.fundraiser.client.ExchangeRate;
+import com.vb.fundraiser.model.dto.AmountPricing;
+import com.vb.fundraiser.model.dto.RevaluationDTO;
+import com.vb.fundraiser.model.entity.BoxCurrencyAmount;
+import com.vb.fundraiser.repository.BoxCurrencyAmountRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Re-prices the outstanding box balances stored in convert-at-deposit mode at the current rates, and prices the
+ * rows deposits left unpriced. Amount rows are walked in ID order in batches of {@code batchSize}, each batch with
+ * the rates of its currency pairs resolved before and its rows updated in one short transaction, so memory and
+ * lock time stay bounded however many boxes hold money. A batch that loses a race with a deposit or an emptying
+ * is skipped and picked up again by the next run.
+ */
+@Slf4j
+@Service
+public class BalanceRevaluationService {
+    private final int batchSize;
+    private final BoxCurrencyAmountRepository amountRepository;
+    private final DepositPricer depositPricer;
+    private final CurrencyConversionClient conversionClient;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    public BalanceRevaluationService(
+            @Value("${fundraiser.conversion.revaluation.batch-size}") int batchSize,
+            BoxCurrencyAmountRepository amountRepository,
+            DepositPricer depositPricer,
+            CurrencyConversionClient conversionClient,
+            TransactionTemplate transactionTemplate,
+            EntityManager entityManager
+    ) {
+        this.batchSize = batchSize;
+        this.amountRepository = amountRepository;
+        this.depositPricer = depositPricer;
+        this.conversionClient = conversionClient;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Scheduled(cron = "${fundraiser.conversion.revaluation.cron}")
+    public void revalueOnSchedule() {
+        if (depositPricer.isEnabled()) {
+            revalue();
+        }
+    }
+
+    public RevaluationDTO revalue() {
+        long start = System.nanoTime();
+        int checked = 0;
+        int repriced = 0;
+        int skipped = 0;
+        long afterId = 0;
+        while (true) {
+            List<AmountPricing> batch = amountRepository.findPricingAfter(afterId, Limit.of(batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            afterId = batch.getLast().id();
+
+            Map<Long, BigDecimal> rates = resolveRates(batch);
+            skipped += batch.size() - rates.size();
+            try {
+                repriced += transactionTemplate.execute(status -> repriceBatch(rates));
+                checked += rates.size();
+            } catch (OptimisticLockingFailureException e) {
+                log.info("Amount rows changed while re-pricing a batch up to ID {}, leaving it for the next run", afterId);
+                skipped += rates.size();
+            }
+            // With open-in-view the persistence context outlives the batch transaction; drop the re-priced rows
+            entityManager.clear();
+
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+
+        log.info("Revaluation of outstanding balances checked {} amount row(s), re-priced {}, skipped {}, in {} ms",
+                checked, repriced, skipped, (System.nanoTime() - start) / 1_000_000);
+        return new RevaluationDTO(checked, repriced, skipped);
+    }
+
+    // Rate per amount row; rows whose rate cannot be resolved are left out and keep their current value
+    private Map<Long, BigDecimal> resolveRates(List<AmountPricing> batch) {
+        Map<String, List<AmountPricing>> byTarget = batch.stream()
+                .collect(Collectors.groupingBy(AmountPricing::eventCurrencyCode));
+
+        Map<Long, BigDecimal> rates = new HashMap<>();
+        byTarget.forEach((targetCurrency, rows) -> {
+            List<String> foreign = rows.stream()
+                    .map(AmountPricing::currencyCode)
+                    .filter(code -> !code.equals(targetCurrency))
+                    .distinct()
+                    .toList();
+            Map<String, ExchangeRate> targetRates;
+            try {
+                targetRates = conversionClient.getExchangeRates(foreign, targetCurrency);
+            } catch (RuntimeException e) {
+                log.warn("Could not resolve rates {} -> {} for revaluation: {}", foreign, targetCurrency, e.getMessage());
+                targetRates = Map.of();
+            }
+
+            for (AmountPricing row : rows) {
+                if (row.currencyCode().equals(targetCurrency)) {
+                    rates.put(row.id(), BigDecimal.ONE);
+                } else if (targetRates.containsKey(row.currencyCode())) {
+                    rates.put(row.id(), targetRates.get(row.currencyCode()).rate());
+                }
+            }
+        });
+        return rates;
+    }
+
+    private int repriceBatch(Map<Long, BigDecimal> rates) {
+        List<BoxCurrencyAmount> rows = amountRepository.findAllById(rates.keySet());
+        // Only rows whose price moved become dirty; they go out as versioned batch updates, flushed here rather than
+        // at commit so they are never lost to the clear that follows, even when the batch joins an outer transaction
+        int repriced = 0;
+        for (BoxCurrencyAmount row : rows) {
+            BigDecimal converted = DepositPricer.convert(row.getAmount(), rates.get(row.getId()));
+            if (row.getConvertedAmount() == null || row.getConvertedAmount().compareTo(converted) != 0) {
+                row.setConvertedAmount(converted);
+                repriced++;
+            }
+        }
+        amountRepository.flush();
+        return repriced;
+    }
+}
@@ -0,0 +1,134 @@
+package com.vb.fundraiser.service;
+
+import com.vb.fundraiser.exception.box.BoxLabelAlreadyExistsException;
+import com.vb.fundraiser.model.dto.BoxRegistrationDTO;
+import com.vb.fundraiser.model.dto.IdRange;
+import com.vb.fundraiser.model.entity.CollectionBox;
+import com.vb.fundraiser.repository.CollectionBoxRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Registers many boxes per request. Boxes are persisted in chunks of {@code chunkSize}, one transaction per chunk,
+ * so IDs come from the pooled sequence and inserts go out in JDBC batches while no single transaction or
+ * persistence context grows with the request. A chunk that fails does not undo the chunks committed before it; the
+ * boxes registered so far are returned together with the index where registration stopped.
+ */
+@Slf4j
+@Service
+public class BoxRegistrationService {
+    private final int chunkSize;
+    private final int maxBoxes;
+    private final CollectionBoxRepository boxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    public BoxRegistrationService(
+            @Value("${fundraiser.boxes.registration.chunk-size}") int chunkSize,
+            @Value("${fundraiser.boxes.registration.max-boxes}") int maxBoxes,
+            CollectionBoxRepository boxRepository,
+            TransactionTemplate transactionTemplate,
+            EntityManager entityManager
+    ) {
+        this.chunkSize = chunkSize;
+        this.maxBoxes = maxBoxes;
+        this.boxRepository = boxRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Registers either {@code count} unlabelled boxes or one box per label; exactly one of them must be given.
+     */
+    public BoxRegistrationDTO registerBoxes(Integer count, List<String> labels) {
+        if ((count == null) == (labels == null || labels.isEmpty())) {
+            throw new IllegalArgumentException("Provide either a box count or a list of box labels");
+        }
+        int total = count != null ? count : labels.size();
+        if (total > maxBoxes) {
+            throw new IllegalArgumentException("At most " + maxBoxes + " boxes can be registered at once");
+        }
+
+        if (labels != null) {
+            checkLabelsAvailable(labels);
+        }
+        IntFunction<CollectionBox> newBox = labels == null
+                ? index -> CollectionBox.builder().build()
+                : index -> CollectionBox.builder().label(labels.get(index)).build();
+
+        long start = System.nanoTime();
+        List<Long> ids = new ArrayList<>(total);
+        for (int from = 0; from < total; from += chunkSize) {
+            int to = Math.min(from + chunkSize, total);
+            try {
+                ids.addAll(persistChunk(from, to, newBox));
+            } catch (DataAccessException e) {
+                entityManager.clear();
+                RuntimeException failure = explainFailure(e, labels == null ? null : labels.subList(from, to));
+                if (ids.isEmpty()) {
+                    throw failure;
+                }
+                log.warn("Bulk registration stopped at box {} of {} after registering {}: {}",
+                        from, total, ids.size(), e.getMessage());
+                return new BoxRegistrationDTO(total, ids.size(), IdRange.collapse(ids), from, failure.getMessage());
+            }
+        }
+
+        List<IdRange> ranges = IdRange.collapse(ids);
+        log.info("Registered {} collection boxes in {} ms, IDs in {} range(s)",
+                total, (System.nanoTime() - start) / 1_000_000, ranges.size());
+        return new BoxRegistrationDTO(total, total, ranges, null, null);
+    }
+
+    // A label registered concurrently since the up-front check is reported like one taken before the request
+    private RuntimeException explainFailure(DataAccessException failure, List<String> chunkLabels) {
+        if (chunkLabels != null && failure instanceof DataIntegrityViolationException) {
+            List<String> taken = new ArrayList<>(boxRepository.findExistingLabels(chunkLabels));
+            if (!taken.isEmpty()) {
+                Collections.sort(taken);
+                return new BoxLabelAlreadyExistsException(taken);
+            }
+        }
+        return failure;
+    }
+
+    private List<Long> persistChunk(int from, int to, IntFunction<CollectionBox> newBox) {
+        List<Long> ids = transactionTemplate.execute(status -> {
+            List<CollectionBox> boxes = new ArrayList<>(to - from);
+            for (int index = from; index < to; index++) {
+                boxes.add(newBox.apply(index));
+            }
+            return boxRepository.saveAll(boxes).stream().map(CollectionBox::getId).toList();
+        });
+        // With open-in-view the persistence context outlives the chunk transaction; drop the committed boxes from it
+        entityManager.clear();
+        return ids;
+    }
+
+    private void checkLabelsAvailable(List<String> labels) {
+        if (new HashSet<>(labels).size() != labels.size()) {
+            throw new IllegalArgumentException("Box labels must be unique");
+        }
+
+        List<String> taken = new ArrayList<>();
+        for (int from = 0; from < labels.size(); from += chunkSize) {
+            taken.addAll(boxRepository.findExistingLabels(labels.subList(from, Math.min(from + chunkSize, labels.size()))));
+        }
+        if (!taken.isEmpty()) {
+            Collections.sort(taken);
+            log.warn("Bulk registration rejected, {} label(s) already registered", taken.size());
+            throw new BoxLabelAlreadyExistsException(taken);
+        }
+    }
+}
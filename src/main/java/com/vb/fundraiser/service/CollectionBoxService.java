@@ -1,40 +1,65 @@
 package com.vb.fundraiser.service;
 
 import com.vb.fundraiser.client.CurrencyConversionClient;
+import com.vb.fundraiser.client.ExchangeRate;
 import com.vb.fundraiser.exception.box.*;
 import com.vb.fundraiser.exception.currency.CurrencyNotFoundException;
 import com.vb.fundraiser.exception.currency.InvalidMoneyAmountException;
+import com.vb.fundraiser.exception.currency.StaleExchangeRateException;
 import com.vb.fundraiser.exception.event.FundraisingEventNotFoundException;
 import com.vb.fundraiser.model.dto.CollectionBoxDTO;
+import com.vb.fundraiser.model.dto.CursorSlice;
+import com.vb.fundraiser.model.dto.PendingTransferDTO;
 import com.vb.fundraiser.model.entity.BoxCurrencyAmount;
 import com.vb.fundraiser.model.entity.CollectionBox;
 import com.vb.fundraiser.model.entity.Currency;
 import com.vb.fundraiser.model.entity.FundraisingEvent;
+import com.vb.fundraiser.model.entity.PendingTransfer;
+import com.vb.fundraiser.model.entity.TransferAmount;
+import com.vb.fundraiser.repository.BoxCurrencyAmountRepository;
 import com.vb.fundraiser.repository.CollectionBoxRepository;
-import com.vb.fundraiser.repository.CurrencyRepository;
+import com.vb.fundraiser.repository.ConversionAuditRepository;
 import com.vb.fundraiser.repository.FundraisingEventRepository;
+import com.vb.fundraiser.repository.PendingTransferRepository;
+import com.vb.fundraiser.service.ConversionPlan.PendingAmount;
+import com.vb.fundraiser.util.PageCursor;
 import com.vb.fundraiser.util.PaginationValidator;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
-import java.util.Optional;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CollectionBoxService {
     private final CollectionBoxRepository boxRepository;
+    private final BoxCurrencyAmountRepository amountRepository;
     private final FundraisingEventRepository eventRepository;
-    private final CurrencyRepository currencyRepository;
+    private final CurrencyRegistry currencyRegistry;
 
     private final CurrencyConversionClient conversionClient;
+    private final TransactionTemplate transactionTemplate;
+    private final ConflictRetryExecutor retryExecutor;
+    private final EventBalanceLedger balanceLedger;
+    private final ConversionAuditRepository auditRepository;
+    private final DepositPricer depositPricer;
+    private final PendingTransferRepository transferRepository;
+    private final BalanceOutbox balanceOutbox;
 
     public CollectionBoxDTO registerNewBox() {
         CollectionBox saved = boxRepository.save(CollectionBox.builder().event(null).build());
@@ -52,20 +77,41 @@ public class CollectionBoxService {
         PaginationValidator.validate(pageNumber, pageSize, sortDirection);
         Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by(PaginationValidator.parseDirection(sortDirection), sortBy));
 
-        Page<CollectionBox> boxes = boxRepository.findByIsDeletedFalse(pageable);
-
-        Page<CollectionBoxDTO> dtos = boxes
-                .map(box -> new CollectionBoxDTO(
-                        box.getId(),
-                        box.getEvent() != null,
-                        isBoxEmpty(box))
-                );
+        Page<CollectionBoxDTO> dtos = boxRepository.findBoxSummaries(pageable);
 
         log.info("Boxes page retrieved: page {}, size {}, totalElements {}",
                 dtos.getNumber(), dtos.getSize(), dtos.getTotalElements());
         return dtos;
     }
 
+    /**
+     * Keyset variant of {@link #getAllBoxes}: continues after the box ID carried by the cursor instead of skipping an
+     * offset, and fetches one extra row to tell whether another slice follows instead of counting all boxes.
+     */
+    public CursorSlice<CollectionBoxDTO> getBoxesAfter(
+            String cursor,
+            int pageSize,
+            String sortDirection
+    ) {
+        String sortBy = "id";
+        PaginationValidator.validate(0, pageSize, sortDirection);
+        Sort.Direction direction = PaginationValidator.parseDirection(sortDirection);
+        PageCursor position = PaginationValidator.parseCursor(cursor);
+        PaginationValidator.validateCursor(position, sortBy, direction);
+
+        Limit limit = Limit.of(pageSize + 1);
+        List<CollectionBoxDTO> rows = direction.isAscending()
+                ? boxRepository.findBoxSummariesAfter(position == null ? Long.MIN_VALUE : position.id(), limit)
+                : boxRepository.findBoxSummariesBefore(position == null ? Long.MAX_VALUE : position.id(), limit);
+
+        boolean hasNext = rows.size() > pageSize;
+        List<CollectionBoxDTO> content = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext ? new PageCursor(sortBy, direction, content.getLast().id(), "").encode() : null;
+
+        log.info("Boxes slice retrieved: size {}, hasNext {}", content.size(), hasNext);
+        return new CursorSlice<>(content, pageSize, hasNext, nextCursor);
+    }
+
     public void unregisterBox(Long boxId) {
         CollectionBox box = boxRepository.findByIdAndIsDeletedFalse(boxId)
                 .orElseThrow(() -> {
@@ -110,60 +156,194 @@ public class CollectionBoxService {
         return new CollectionBoxDTO(box.getId(), true, false);
     }
 
-    @Transactional
+    /**
+     * Adds the amount with a single {@code UPDATE ... SET amount = amount + ?} after a light box state check, with the
+     * currency resolved in memory; the row is inserted on the first
+     * donation in a currency. If a concurrent first donation inserted it meanwhile, the unique (box, currency)
+     * constraint rejects ours and the donation is replayed once as an update. In convert-at-deposit mode the
+     * event-currency value is priced before the transaction and added alongside the amount.
+     */
     public void addMoney(Long boxId, String currencyCode, BigDecimal amount) {
         if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
             log.warn("Invalid money amount {} for box {}", amount, boxId);
             throw new InvalidMoneyAmountException(amount);
         }
 
-        CollectionBox box = boxRepository.findByIdAndIsDeletedFalse(boxId)
+        BigDecimal convertedAmount = depositPricer.price(boxId, currencyCode, amount);
+        retryExecutor.run("addMoney", () -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> depositMoney(boxId, currencyCode, amount, convertedAmount));
+            } catch (DataIntegrityViolationException e) {
+                log.info("Concurrent first deposit of {} into box {}, retrying as an update", currencyCode, boxId);
+                transactionTemplate.executeWithoutResult(status -> depositMoney(boxId, currencyCode, amount, convertedAmount));
+            }
+        });
+        log.info("Added {} {} to box {}", amount, currencyCode, boxId);
+    }
+
+    private void depositMoney(Long boxId, String currencyCode, BigDecimal amount, BigDecimal convertedAmount) {
+        boolean assigned = boxRepository.findAssignedById(boxId)
                 .orElseThrow(() -> {
                     log.warn("Box with ID {} not found for adding money", boxId);
                     return new BoxNotFoundException(boxId);
                 });
 
-        if (box.getEvent() == null) {
+        if (!assigned) {
             log.warn("Attempt to add money to box {} which is not assigned to an event", boxId);
             throw new BoxNotAssignedException(boxId);
         }
 
-        Currency currency = currencyRepository.findByCode(currencyCode)
+        Currency currency = currencyRegistry.findByCode(currencyCode)
                 .orElseThrow(() -> {
                     log.warn("Currency '{}' not found when adding money to box {}", currencyCode, boxId);
                     return new CurrencyNotFoundException(currencyCode);
                 });
 
-        Optional<BoxCurrencyAmount> existing = box.getAmounts().stream()
-                .filter(e -> e.getCurrency().getCode().equals(currencyCode))
-                .findFirst();
+        if (amountRepository.addToAmount(boxId, currency.getId(), amount, convertedAmount) > 0) {
+            return;
+        }
+
+        amountRepository.saveAndFlush(BoxCurrencyAmount.builder()
+                .box(boxRepository.getReferenceById(boxId))
+                .currency(currency)
+                .amount(amount)
+                .convertedAmount(convertedAmount)
+                .build());
+    }
+
+    /**
+     * Empties the box in two phases so that no database connection is held while exchange rates are fetched:
+     * the rates needed for the box are resolved first, then the amounts are zeroed and the event is credited
+     * in a short transaction. Each currency held is converted once as a whole (see {@link ConversionPlan}); the
+     * rate applied is recorded for audit, and the balance change in the outbox, in the same transaction. If the box
+     * gained a currency or a rate expired in between, the transfer is aborted. In convert-at-deposit mode a box whose
+     * deposits are all priced is emptied by adding up their stored event-currency values, without resolving any
+     * rate; the rates were applied at deposit time, so that path writes no ConversionAudit row and has no rate audit.
+     * A transfer that loses an optimistic race on the box amounts or the event balance is re-run with the same rates.
+     */
+    public void emptyBox(Long boxId) {
+        EmptyingSnapshot snapshot = transactionTemplate.execute(status -> snapshotForEmptying(boxId));
+        Map<String, ExchangeRate> rates = resolveRates(snapshot);
+        retryExecutor.execute("emptyBox", () -> transactionTemplate.execute(status -> transferToEvent(boxId, rates)));
+    }
+
+    /**
+     * Deferred variant of {@link #emptyBox}: zeroes the box and records what it held as a pending transfer in one
+     * short transaction, without resolving any rate. {@link TransferSettlementService} converts and credits it later.
+     */
+    public PendingTransferDTO emptyBoxDeferred(Long boxId) {
+        PendingTransferDTO transfer = retryExecutor.execute("emptyBoxDeferred",
+                () -> transactionTemplate.execute(status -> enqueueTransfer(boxId)));
+
+        log.info("Emptied box {} into pending transfer {} for event {}", boxId, transfer.transferId(), transfer.eventId());
+        return transfer;
+    }
+
+    private PendingTransferDTO enqueueTransfer(Long boxId) {
+        CollectionBox box = findBoxForEmptying(boxId);
+        FundraisingEvent event = box.getEvent();
+
+        List<TransferAmount> amounts = new ArrayList<>();
+        box.getAmounts().stream()
+                .filter(a -> a.getAmount().compareTo(BigDecimal.ZERO) > 0)
+                .forEach(a -> {
+                    amounts.add(new TransferAmount(a.getCurrency().getCode(), a.getAmount()));
+                    a.setAmount(BigDecimal.ZERO);
+                    a.setConvertedAmount(BigDecimal.ZERO);
+                });
+        boxRepository.save(box);
+
+        Instant now = Instant.now();
+        PendingTransfer transfer = transferRepository.save(PendingTransfer.builder()
+                .box(box)
+                .event(event)
+                .status(PendingTransfer.Status.PENDING)
+                .amounts(amounts)
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build());
+
+        return new PendingTransferDTO(transfer.getId(), boxId, event.getId(), transfer.getStatus(),
+                event.getCurrency().getCode(), null, 0, null, transfer.getCreatedAt(), null);
+    }
+
+    private EmptyingSnapshot snapshotForEmptying(Long boxId) {
+        CollectionBox box = findBoxForEmptying(boxId);
+        if (isPricedAtDeposit(box)) {
+            return new EmptyingSnapshot(box.getEvent().getCurrency().getCode(), Set.of());
+        }
+
+        Set<String> sourceCurrencies = box.getAmounts().stream()
+                .filter(a -> a.getAmount().compareTo(BigDecimal.ZERO) > 0)
+                .map(a -> a.getCurrency().getCode())
+                .collect(Collectors.toSet());
+
+        return new EmptyingSnapshot(box.getEvent().getCurrency().getCode(), sourceCurrencies);
+    }
 
-        if (existing.isPresent()) {
-            BoxCurrencyAmount entry = existing.get();
-            entry.setAmount(entry.getAmount().add(amount));
+    private Map<String, ExchangeRate> resolveRates(EmptyingSnapshot snapshot) {
+        if (snapshot.sourceCurrencies().isEmpty()) {
+            return Map.of();
+        }
+        Set<String> foreignCurrencies = snapshot.sourceCurrencies().stream()
+                .filter(code -> !code.equals(snapshot.targetCurrency()))
+                .collect(Collectors.toSet());
+        return conversionClient.getExchangeRates(foreignCurrencies, snapshot.targetCurrency());
+    }
+
+    private BigDecimal transferToEvent(Long boxId, Map<String, ExchangeRate> rates) {
+        CollectionBox box = findBoxForEmptying(boxId);
+        FundraisingEvent event = box.getEvent();
+        String targetCurrency = event.getCurrency().getCode();
+
+        ConversionPlan plan = null;
+        BigDecimal totalTransferred;
+        if (isPricedAtDeposit(box)) {
+            totalTransferred = box.getAmounts().stream()
+                    .filter(a -> a.getAmount().compareTo(BigDecimal.ZERO) > 0)
+                    .map(BoxCurrencyAmount::getConvertedAmount)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
         } else {
-            BoxCurrencyAmount newEntry = BoxCurrencyAmount.builder()
-                    .box(box)
-                    .currency(currency)
-                    .amount(amount)
-                    .build();
-            box.getAmounts().add(newEntry);
+            List<PendingAmount> pending = box.getAmounts().stream()
+                    .map(a -> new PendingAmount(boxId, a.getCurrency().getCode(), a.getAmount()))
+                    .toList();
+            try {
+                plan = ConversionPlan.of(targetCurrency, pending, rates, conversionClient::isStale);
+            } catch (StaleExchangeRateException e) {
+                log.warn("Aborting transfer from box {}: {}", boxId, e.getMessage());
+                throw e;
+            }
+            totalTransferred = plan.total();
         }
 
+        box.getAmounts().stream()
+                .filter(a -> a.getAmount().compareTo(BigDecimal.ZERO) > 0)
+                .forEach(a -> {
+                    a.setAmount(BigDecimal.ZERO);
+                    a.setConvertedAmount(BigDecimal.ZERO);
+                });
+
+        balanceLedger.credit(event, totalTransferred);
+        balanceOutbox.recordCredit(event.getId(), targetCurrency, totalTransferred, "emptyBox");
         boxRepository.save(box);
-        log.info("Added {} {} to box {}", amount, currencyCode, boxId);
+        eventRepository.save(event);
+        if (plan != null) {
+            auditRepository.saveAll(plan.auditRecords(event, "emptyBox", Instant.now()));
+        }
+
+        log.info("Emptied box {}. Transferred total {} {} to event '{}'",
+                boxId, totalTransferred, targetCurrency, event.getName());
+        return totalTransferred;
     }
 
-    @Transactional
-    public void emptyBox(Long boxId) {
+    private CollectionBox findBoxForEmptying(Long boxId) {
         CollectionBox box = boxRepository.findByIdAndIsDeletedFalse(boxId)
                 .orElseThrow(() -> {
                     log.warn("Box with ID {} not found for emptying", boxId);
                     return new BoxNotFoundException(boxId);
                 });
 
-        FundraisingEvent event = box.getEvent();
-        if (event == null) {
+        if (box.getEvent() == null) {
             log.warn("Attempted to empty box {} not assigned to any event", boxId);
             throw new BoxNotAssignedException(boxId);
         }
@@ -172,27 +352,13 @@ public class CollectionBoxService {
             log.warn("Attempt to transfer money from box {} which is empty", boxId);
             throw new EmptyBoxMoneyTransferException(boxId);
         }
+        return box;
+    }
 
-        Currency targetCurrency = event.getCurrency();
-        BigDecimal totalTransferred = BigDecimal.ZERO;
-
-        for (BoxCurrencyAmount amount : box.getAmounts()) {
-            if (amount.getAmount().compareTo(BigDecimal.ZERO) <= 0) continue;
-
-            BigDecimal converted = amount.getCurrency().getCode().equals(targetCurrency.getCode())
-                    ? amount.getAmount()
-                    : conversionClient.convert(amount.getAmount(), amount.getCurrency().getCode(), targetCurrency.getCode());
-
-            totalTransferred = totalTransferred.add(converted);
-            amount.setAmount(BigDecimal.ZERO);
-        }
-
-        event.setAccountBalance(event.getAccountBalance().add(totalTransferred));
-        boxRepository.save(box);
-        eventRepository.save(event);
-
-        log.info("Emptied box {}. Transferred total {} {} to event '{}'",
-                boxId, totalTransferred, targetCurrency.getCode(), event.getName());
+    private boolean isPricedAtDeposit(CollectionBox box) {
+        return depositPricer.isEnabled() && box.getAmounts().stream()
+                .filter(a -> a.getAmount().compareTo(BigDecimal.ZERO) > 0)
+                .allMatch(a -> a.getConvertedAmount() != null);
     }
 
     private boolean isBoxEmpty(CollectionBox box) {
@@ -200,4 +366,6 @@ public class CollectionBoxService {
                 .map(BoxCurrencyAmount::getAmount)
                 .allMatch(a -> a == null || a.compareTo(BigDecimal.ZERO) <= 0);
     }
+
+    private record EmptyingSnapshot(String targetCurrency, Set<String> sourceCurrencies) {}
 }
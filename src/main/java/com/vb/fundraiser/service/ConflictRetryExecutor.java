@@ -0,0 +1,111 @@
+package com.vb.fundraiser.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a transactional action that lost an optimistic (or lock) race, with exponential backoff and full jitter.
+ * Retries are bounded per call by {@code maxAttempts} and globally by a budget: every call earns
+ * {@code budgetRatio} retry tokens up to {@code budgetCapacity}, and every retry spends one. Under sustained
+ * contention the budget runs dry and conflicts surface to the client instead of multiplying the load.
+ * The action must open its own transaction so each attempt starts from fresh state.
+ */
+@Slf4j
+@Component
+public class ConflictRetryExecutor {
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final double budgetRatio;
+    private final double budgetCapacity;
+    private final MeterRegistry meterRegistry;
+
+    private double budgetTokens;
+
+    public ConflictRetryExecutor(
+            @Value("${fundraiser.retry.max-attempts}") int maxAttempts,
+            @Value("${fundraiser.retry.initial-backoff}") Duration initialBackoff,
+            @Value("${fundraiser.retry.max-backoff}") Duration maxBackoff,
+            @Value("${fundraiser.retry.budget.ratio}") double budgetRatio,
+            @Value("${fundraiser.retry.budget.capacity}") int budgetCapacity,
+            MeterRegistry meterRegistry
+    ) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Max attempts must be at least 1");
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.budgetRatio = budgetRatio;
+        this.budgetCapacity = budgetCapacity;
+        this.budgetTokens = budgetCapacity;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void run(String operation, Runnable action) {
+        execute(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public <T> T execute(String operation, Supplier<T> action) {
+        depositBudget();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (ConcurrencyFailureException e) {
+                meterRegistry.counter("fundraiser.concurrency.conflicts", "operation", operation).increment();
+
+                if (attempt >= maxAttempts) {
+                    giveUp(operation, "attempts", attempt, e);
+                }
+                if (!withdrawBudget()) {
+                    giveUp(operation, "budget", attempt, e);
+                }
+
+                meterRegistry.counter("fundraiser.concurrency.retries", "operation", operation).increment();
+                log.info("Concurrent update conflict in {} (attempt {}/{}), retrying", operation, attempt, maxAttempts);
+                backoff(attempt, e);
+            }
+        }
+    }
+
+    private void backoff(int attempt, ConcurrencyFailureException conflict) {
+        long ceiling = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempt - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+
+    private void giveUp(String operation, String reason, int attempts, ConcurrencyFailureException conflict) {
+        meterRegistry.counter("fundraiser.concurrency.retries.exhausted", "operation", operation, "reason", reason)
+                .increment();
+        log.warn("Giving up {} after {} attempt(s), retry {} exhausted", operation, attempts, reason);
+        throw conflict;
+    }
+
+    private synchronized void depositBudget() {
+        budgetTokens = Math.min(budgetCapacity, budgetTokens + budgetRatio);
+    }
+
+    private synchronized boolean withdrawBudget() {
+        if (budgetTokens < 1) {
+            return false;
+        }
+        budgetTokens--;
+        return true;
+    }
+}
@@ -0,0 +1,181 @@
+package com.vb.fundraiser.service;
+
+import com.vb.fundraiser.client.ExchangeRate;
+import com.vb.fundraiser.exception.currency.StaleExchangeRateException;
+import com.vb.fundraiser.model.entity.ConversionAudit;
+import com.vb.fundraiser.model.entity.FundraisingEvent;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Plans the conversion of amounts pending transfer to an event's currency. The amounts are grouped by source
+ * currency and each group total is converted once, with the rate resolved for that currency, and rounded once to
+ * the ledger scale. Callers that must know what each source (box, or deferred transfer) contributed ask for
+ * {@link #allocations()}, which shares each converted total out in proportion to what the sources held, the last
+ * units going to the largest remainders, so the allocations of a group add up exactly to its converted total.
+ */
+public final class ConversionPlan {
+    static final int SCALE = 6;
+    // Scale of ConversionAudit.rate; rates are rounded to it before they are applied, so the audit holds the exact
+    // rate used whatever precision the rate source computes with
+    static final int RATE_SCALE = 20;
+    private static final BigDecimal UNIT = BigDecimal.ONE.movePointLeft(SCALE);
+
+    private final String targetCurrency;
+    private final List<Group> groups;
+
+    private ConversionPlan(String targetCurrency, List<Group> groups) {
+        this.targetCurrency = targetCurrency;
+        this.groups = groups;
+    }
+
+    /**
+     * Builds the plan for the positive amounts given. A foreign currency without a rate, or whose rate
+     * {@code isStale} rejects, aborts the whole plan with a {@link StaleExchangeRateException} naming the first
+     * source that holds it.
+     */
+    public static ConversionPlan of(String targetCurrency, Collection<PendingAmount> amounts,
+                                    Map<String, ExchangeRate> rates, Predicate<ExchangeRate> isStale) {
+        Map<String, List<PendingAmount>> bySource = new LinkedHashMap<>();
+        for (PendingAmount amount : amounts) {
+            if (amount.amount().compareTo(BigDecimal.ZERO) > 0) {
+                bySource.computeIfAbsent(amount.currencyCode(), code -> new ArrayList<>()).add(amount);
+            }
+        }
+
+        List<Group> groups = new ArrayList<>(bySource.size());
+        bySource.forEach((sourceCurrency, pending) -> {
+            BigDecimal sourceTotal = pending.stream().map(PendingAmount::amount).reduce(BigDecimal.ZERO, BigDecimal::add);
+            ExchangeRate rate = null;
+            BigDecimal converted = sourceTotal;
+            if (!targetCurrency.equals(sourceCurrency)) {
+                rate = sourceCurrency == null ? null : rates.get(sourceCurrency);
+                if (rate == null || isStale.test(rate)) {
+                    throw new StaleExchangeRateException(pending.getFirst().sourceId(), sourceCurrency, targetCurrency);
+                }
+                rate = new ExchangeRate(rate.from(), rate.to(), rate.rate().setScale(RATE_SCALE, RoundingMode.HALF_EVEN),
+                        rate.fetchedAt());
+                converted = sourceTotal.multiply(rate.rate());
+            }
+            converted = converted.setScale(SCALE, RoundingMode.HALF_EVEN);
+            Map<Long, BigDecimal> held = new LinkedHashMap<>();
+            pending.forEach(amount -> held.merge(amount.sourceId(), amount.amount(), BigDecimal::add));
+            groups.add(new Group(sourceCurrency, sourceTotal, rate, converted, held));
+        });
+        return new ConversionPlan(targetCurrency, List.copyOf(groups));
+    }
+
+    private static Map<Long, BigDecimal> allocate(Group group) {
+        Map<Long, BigDecimal> held = group.held();
+        BigDecimal converted = group.converted();
+        if (held.size() == 1) {
+            return Map.of(held.keySet().iterator().next(), converted);
+        }
+
+        Map<Long, BigDecimal> allocations = new LinkedHashMap<>();
+        Map<Long, BigDecimal> remainders = new LinkedHashMap<>();
+        BigDecimal allocated = BigDecimal.ZERO;
+        for (Map.Entry<Long, BigDecimal> source : held.entrySet()) {
+            BigDecimal exact = converted.multiply(source.getValue()).divide(group.sourceTotal(), MathContext.DECIMAL128);
+            BigDecimal share = exact.setScale(SCALE, RoundingMode.DOWN);
+            allocations.put(source.getKey(), share);
+            remainders.put(source.getKey(), exact.subtract(share));
+            allocated = allocated.add(share);
+        }
+
+        long leftoverUnits = converted.subtract(allocated).movePointRight(SCALE).longValueExact();
+        remainders.entrySet().stream()
+                .sorted(Map.Entry.<Long, BigDecimal>comparingByValue(Comparator.reverseOrder()))
+                .limit(leftoverUnits)
+                .forEach(source -> allocations.merge(source.getKey(), UNIT, BigDecimal::add));
+        return allocations;
+    }
+
+    public String targetCurrency() {
+        return targetCurrency;
+    }
+
+    public List<Group> groups() {
+        return groups;
+    }
+
+    public BigDecimal total() {
+        return groups.stream().map(Group::converted).reduce(BigDecimal.ZERO.setScale(SCALE), BigDecimal::add);
+    }
+
+    /**
+     * Number of distinct sources holding a positive amount.
+     */
+    public int sourceCount() {
+        return (int) groups.stream().flatMap(group -> group.held().keySet().stream()).distinct().count();
+    }
+
+    /**
+     * The credit each source contributes to {@link #total()}, summed over its currencies. Computed on each call.
+     */
+    public Map<Long, BigDecimal> allocations() {
+        Map<Long, BigDecimal> bySource = new LinkedHashMap<>();
+        groups.forEach(group -> group.allocations().forEach((sourceId, credit) -> bySource.merge(sourceId, credit, BigDecimal::add)));
+        return bySource;
+    }
+
+    /**
+     * One audit row per converted group; amounts already in the target currency need no rate and are not recorded.
+     */
+    public List<ConversionAudit> auditRecords(FundraisingEvent event, String operation, Instant createdAt) {
+        return groups.stream()
+                .filter(Group::isConverted)
+                .map(group -> ConversionAudit.builder()
+                        .event(event)
+                        .operation(operation)
+                        .sourceCurrency(group.sourceCurrency())
+                        .targetCurrency(targetCurrency)
+                        .sourceTotal(group.sourceTotal())
+                        .rate(group.rate().rate())
+                        .convertedTotal(group.converted())
+                        .boxes(group.held().size())
+                        .rateFetchedAt(group.rate().fetchedAt())
+                        .createdAt(createdAt)
+                        .build())
+                .toList();
+    }
+
+    /**
+     * @param sourceId what the amount is taken from, a box or a deferred transfer; allocations are keyed by it
+     */
+    public record PendingAmount(Long sourceId, String currencyCode, BigDecimal amount) {}
+
+    /**
+     * @param rate the rate applied, rounded to {@link #RATE_SCALE}, or {@code null} when the group is already in the
+     *             target currency
+     * @param held what each source holds in the source currency
+     */
+    public record Group(
+            String sourceCurrency,
+            BigDecimal sourceTotal,
+            ExchangeRate rate,
+            BigDecimal converted,
+            Map<Long, BigDecimal> held
+    ) {
+        public boolean isConverted() {
+            return rate != null;
+        }
+
+        /**
+         * The share of {@link #converted()} each source contributes. Computed on each call.
+         */
+        public Map<Long, BigDecimal> allocations() {
+            return allocate(this);
+        }
+    }
+}
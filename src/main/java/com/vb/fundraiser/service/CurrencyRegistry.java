@@ -0,0 +1,50 @@
+package com.vb.fundraiser.service;
+
+import com.vb.fundraiser.model.entity.Currency;
+import com.vb.fundraiser.repository.CurrencyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory view of the currency table, keyed by code so a lookup needs no database round trip. The table only
+ * changes at startup, so the registry is rebuilt as a whole by {@link #refresh()} and swapped in atomically; the
+ * returned {@link Currency} instances are detached and only used as references.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CurrencyRegistry {
+    private final CurrencyRepository currencyRepository;
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), List.of());
+
+    public void refresh() {
+        Map<String, Currency> byCode = new HashMap<>();
+        for (Currency currency : currencyRepository.findAll()) {
+            byCode.put(currency.getCode(), currency);
+        }
+
+        List<String> codes = byCode.keySet().stream().sorted().toList();
+        snapshot = new Snapshot(Map.copyOf(byCode), codes);
+        log.info("Currency registry loaded with {} currencies", codes.size());
+    }
+
+    public Optional<Currency> findByCode(String code) {
+        return code == null ? Optional.empty() : Optional.ofNullable(snapshot.byCode().get(code));
+    }
+
+    /**
+     * All known currency codes in alphabetical order.
+     */
+    public List<String> codes() {
+        return snapshot.codes();
+    }
+
+    private record Snapshot(Map<String, Currency> byCode, List<String> codes) {}
+}
@@ -1,10 +1,7 @@
 package com.vb.fundraiser.service;
 
-import com.vb.fundraiser.model.entity.Currency;
-import com.vb.fundraiser.repository.CurrencyRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -13,16 +10,12 @@ import java.util.List;
 @Service
 @RequiredArgsConstructor
 public class CurrencyService {
-    private final CurrencyRepository currencyRepository;
+    private final CurrencyRegistry currencyRegistry;
 
-    @Cacheable("currencies")
     public List<String> getAllCurrencies() {
-        var currencies = currencyRepository.findAll()
-                .stream()
-                .map(Currency::getCode)
-                .toList();
+        var currencies = currencyRegistry.codes();
 
         log.info("Fetched {} currencies", currencies.size());
         return currencies;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,74 @@
+package com.vb.fundraiser.service;
+
+import com.vb.fundraiser.client.CurrencyConversionClient;
+import com.vb.fundraiser.model.entity.Currency;
+import com.vb.fundraiser.repository.CollectionBoxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Optional;
+
+/**
+ * Prices deposits in the currency of the box's event as they arrive, when convert-at-deposit mode is enabled, so
+ * that emptying a box only has to add up the stored values. Pricing is best effort: a deposit whose rate cannot be
+ * resolved is still accepted and left unpriced, and emptying falls back to converting that box at current rates
+ * until the revaluation job prices it.
+ */
+@Slf4j
+@Component
+public class DepositPricer {
+    private final boolean enabled;
+    private final CollectionBoxRepository boxRepository;
+    private final CurrencyRegistry currencyRegistry;
+    private final CurrencyConversionClient conversionClient;
+
+    public DepositPricer(
+            @Value("${fundraiser.conversion.at-deposit.enabled}") boolean enabled,
+            CollectionBoxRepository boxRepository,
+            CurrencyRegistry currencyRegistry,
+            CurrencyConversionClient conversionClient
+    ) {
+        this.enabled = enabled;
+        this.boxRepository = boxRepository;
+        this.currencyRegistry = currencyRegistry;
+        this.conversionClient = conversionClient;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the value of the deposit in the event's currency at the current (usually cached) rate, or {@code null}
+     * when the mode is off, the box or currency is unknown, or the rate lookup fails.
+     */
+    public BigDecimal price(Long boxId, String currencyCode, BigDecimal amount) {
+        if (!enabled) {
+            return null;
+        }
+
+        Optional<String> sourceCurrency = currencyRegistry.findByCode(currencyCode).map(Currency::getCode);
+        Optional<String> targetCurrency = boxRepository.findEventCurrencyCode(boxId);
+        if (sourceCurrency.isEmpty() || targetCurrency.isEmpty()) {
+            return null;
+        }
+        if (sourceCurrency.get().equals(targetCurrency.get())) {
+            return amount;
+        }
+
+        try {
+            return convert(amount, conversionClient.getRate(sourceCurrency.get(), targetCurrency.get()));
+        } catch (RuntimeException e) {
+            log.warn("Could not price deposit of {} {} into box {}, leaving it for revaluation: {}",
+                    amount, currencyCode, boxId, e.getMessage());
+            return null;
+        }
+    }
+
+    static BigDecimal convert(BigDecimal amount, BigDecimal rate) {
+        return amount.multiply(rate).setScale(ConversionPlan.SCALE, RoundingMode.HALF_EVEN);
+    }
+}
@@ -0,0 +1,217 @@
+package com.vb.fundraiser.service;
+
+import com.vb.fundraiser.exception.box.BoxNotAssignedException;
+import com.vb.fundraiser.exception.box.BoxNotFoundException;
+import com.vb.fundraiser.exception.currency.CurrencyNotFoundException;
+import com.vb.fundraiser.exception.currency.InvalidMoneyAmountException;
+import com.vb.fundraiser.model.dto.BoxAssignment;
+import com.vb.fundraiser.model.dto.DonationBatchResultDTO;
+import com.vb.fundraiser.model.dto.DonationOutcomeDTO;
+import com.vb.fundraiser.model.dto.DonationOutcomeDTO.Status;
+import com.vb.fundraiser.model.entity.BoxCurrencyAmount;
+import com.vb.fundraiser.model.entity.Currency;
+import com.vb.fundraiser.model.request.DonationRecord;
+import com.vb.fundraiser.repository.BoxCurrencyAmountBatchRepository.AmountIncrement;
+import com.vb.fundraiser.repository.BoxCurrencyAmountRepository;
+import com.vb.fundraiser.repository.CollectionBoxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Applies donation batches from counting stations. Every record is validated on its own against the in-memory
+ * currency registry. Valid records are summed per box and currency and applied in chunks of about
+ * {@code chunkSize} records, one short transaction per chunk: the chunk's boxes are checked to still be assigned,
+ * then every sum is added with an atomic {@code amount = amount + ?} sent as one JDBC batch, and only the rows that
+ * did not exist yet are inserted. Concurrent single deposits therefore never invalidate a chunk. A chunk that cannot
+ * be applied fails only its own records.
+ */
+@Slf4j
+@Service
+public class DonationBatchService {
+    private final int chunkSize;
+    private final int maxRecords;
+    private final CollectionBoxRepository boxRepository;
+    private final BoxCurrencyAmountRepository amountRepository;
+    private final CurrencyRegistry currencyRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final ConflictRetryExecutor retryExecutor;
+
+    public DonationBatchService(
+            @Value("${fundraiser.donations.batch.chunk-size}") int chunkSize,
+            @Value("${fundraiser.donations.batch.max-records}") int maxRecords,
+            CollectionBoxRepository boxRepository,
+            BoxCurrencyAmountRepository amountRepository,
+            CurrencyRegistry currencyRegistry,
+            TransactionTemplate transactionTemplate,
+            ConflictRetryExecutor retryExecutor
+    ) {
+        this.chunkSize = chunkSize;
+        this.maxRecords = maxRecords;
+        this.boxRepository = boxRepository;
+        this.amountRepository = amountRepository;
+        this.currencyRegistry = currencyRegistry;
+        this.transactionTemplate = transactionTemplate;
+        this.retryExecutor = retryExecutor;
+    }
+
+    public DonationBatchResultDTO addMoneyBatch(List<DonationRecord> records) {
+        if (records.size() > maxRecords) {
+            throw new IllegalArgumentException("A donation batch may contain at most " + maxRecords + " records");
+        }
+
+        DonationOutcomeDTO[] outcomes = new DonationOutcomeDTO[records.size()];
+
+        Map<Long, List<Deposit>> depositsByBox = new LinkedHashMap<>();
+        for (int index = 0; index < records.size(); index++) {
+            DonationRecord record = records.get(index);
+            String error = validate(record);
+            if (error != null) {
+                outcomes[index] = new DonationOutcomeDTO(index, Status.REJECTED, error);
+                continue;
+            }
+            Currency currency = currencyRegistry.findByCode(record.currencyCode().toUpperCase()).orElseThrow();
+            depositsByBox.computeIfAbsent(record.boxId(), boxId -> new ArrayList<>())
+                    .add(new Deposit(index, record.boxId(), currency, record.amount()));
+        }
+
+        for (List<Deposit> chunk : chunksOfWholeBoxes(depositsByBox.values())) {
+            Map<Long, String> rejectedBoxes;
+            try {
+                rejectedBoxes = applyChunk(chunk);
+            } catch (RuntimeException e) {
+                log.warn("Could not apply {} donation(s) to boxes {}: {}",
+                        chunk.size(), chunk.stream().map(Deposit::boxId).distinct().toList(), e.getMessage());
+                for (Deposit deposit : chunk) {
+                    outcomes[deposit.index()] = new DonationOutcomeDTO(deposit.index(), Status.FAILED,
+                            "Donation could not be applied, please resubmit it");
+                }
+                continue;
+            }
+            for (Deposit deposit : chunk) {
+                String error = rejectedBoxes.get(deposit.boxId());
+                outcomes[deposit.index()] = new DonationOutcomeDTO(deposit.index(),
+                        error == null ? Status.ACCEPTED : Status.REJECTED, error);
+            }
+        }
+
+        List<DonationOutcomeDTO> results = List.of(outcomes);
+        Map<Status, Long> counts = results.stream()
+                .collect(Collectors.groupingBy(DonationOutcomeDTO::status, Collectors.counting()));
+        DonationBatchResultDTO result = new DonationBatchResultDTO(
+                counts.getOrDefault(Status.ACCEPTED, 0L).intValue(),
+                counts.getOrDefault(Status.REJECTED, 0L).intValue(),
+                counts.getOrDefault(Status.FAILED, 0L).intValue(),
+                results);
+
+        log.info("Donation batch of {} record(s) processed: {} accepted, {} rejected, {} failed",
+                records.size(), result.accepted(), result.rejected(), result.failed());
+        return result;
+    }
+
+    private String validate(DonationRecord record) {
+        if (record.boxId() == null) {
+            return "Box ID must not be null";
+        }
+        if (record.amount() == null || record.amount().compareTo(BigDecimal.ZERO) <= 0) {
+            return new InvalidMoneyAmountException(record.amount()).getMessage();
+        }
+        if (record.currencyCode() == null || currencyRegistry.findByCode(record.currencyCode().toUpperCase()).isEmpty()) {
+            return new CurrencyNotFoundException(record.currencyCode()).getMessage();
+        }
+        return null;
+    }
+
+    // A box never spans two chunks, so each box's amount rows are updated by exactly one transaction
+    private List<List<Deposit>> chunksOfWholeBoxes(Collection<List<Deposit>> depositsByBox) {
+        List<List<Deposit>> chunks = new ArrayList<>();
+        List<Deposit> current = new ArrayList<>();
+        for (List<Deposit> boxDeposits : depositsByBox) {
+            if (!current.isEmpty() && current.size() + boxDeposits.size() > chunkSize) {
+                chunks.add(current);
+                current = new ArrayList<>();
+            }
+            current.addAll(boxDeposits);
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    // Returns the rejection message of each box in the chunk that is gone or no longer assigned
+    private Map<Long, String> applyChunk(List<Deposit> chunk) {
+        return retryExecutor.execute("addMoneyBatch", () -> {
+            try {
+                return transactionTemplate.execute(status -> depositChunk(chunk));
+            } catch (DataIntegrityViolationException e) {
+                log.info("Concurrent first deposit into one of {} boxes, retrying the chunk", chunk.size());
+                return transactionTemplate.execute(status -> depositChunk(chunk));
+            }
+        });
+    }
+
+    private Map<Long, String> depositChunk(List<Deposit> chunk) {
+        // Checked in the chunk transaction, like a single deposit, so a box unassigned during the batch gets nothing
+        List<Long> boxIds = chunk.stream().map(Deposit::boxId).distinct().toList();
+        Map<Long, Boolean> assignments = boxRepository.findAssignments(boxIds).stream()
+                .collect(Collectors.toMap(BoxAssignment::boxId, BoxAssignment::assigned));
+        Map<Long, String> rejectedBoxes = new HashMap<>();
+        for (Long boxId : boxIds) {
+            Boolean assigned = assignments.get(boxId);
+            if (assigned == null) {
+                rejectedBoxes.put(boxId, new BoxNotFoundException(boxId).getMessage());
+            } else if (!assigned) {
+                rejectedBoxes.put(boxId, new BoxNotAssignedException(boxId).getMessage());
+            }
+        }
+
+        // Sorted so that concurrent chunks touching the same rows lock them in the same order
+        Map<AmountKey, BigDecimal> totals = chunk.stream()
+                .filter(deposit -> !rejectedBoxes.containsKey(deposit.boxId()))
+                .collect(Collectors.toMap(
+                        deposit -> new AmountKey(deposit.boxId(), deposit.currency().getId()),
+                        Deposit::amount,
+                        BigDecimal::add,
+                        () -> new TreeMap<>(Comparator.comparing(AmountKey::boxId).thenComparing(AmountKey::currencyId))));
+        if (totals.isEmpty()) {
+            return rejectedBoxes;
+        }
+        Map<Long, Currency> currencies = chunk.stream()
+                .collect(Collectors.toMap(deposit -> deposit.currency().getId(), Deposit::currency, (a, b) -> a));
+
+        // Batched deposits are not priced; in convert-at-deposit mode the revaluation job prices the rows they touch
+        List<AmountKey> keys = List.copyOf(totals.keySet());
+        int[] updated = amountRepository.addToAmounts(keys.stream()
+                .map(key -> new AmountIncrement(key.boxId(), key.currencyId(), totals.get(key)))
+                .toList());
+        for (int i = 0; i < keys.size(); i++) {
+            if (updated[i] == 0) {
+                AmountKey key = keys.get(i);
+                amountRepository.save(BoxCurrencyAmount.builder()
+                        .box(boxRepository.getReferenceById(key.boxId()))
+                        .currency(currencies.get(key.currencyId()))
+                        .amount(totals.get(key))
+                        .build());
+            }
+        }
+        return rejectedBoxes;
+    }
+
+    private record Deposit(int index, Long boxId, Currency currency, BigDecimal amount) {}
+
+    private record AmountKey(Long boxId, Long currencyId) {}
+}
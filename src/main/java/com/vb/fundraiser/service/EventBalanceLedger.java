@@ -0,0 +1,127 @@
+package com.vb.fundraiser.service;
+
+import com.vb.fundraiser.model.dto.EventBalance;
+import com.vb.fundraiser.model.entity.EventBalanceShard;
+import com.vb.fundraiser.model.entity.FundraisingEvent;
+import com.vb.fundraiser.repository.EventBalanceShardRepository;
+import com.vb.fundraiser.repository.FundraisingEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Single place where event balances are credited and read. With sharding enabled, a credit goes to one of
+ * {@code shards} counter rows picked at random, so concurrent transfers into the same event rarely wait on one
+ * row lock. Reads fold the shards into the balance, and a scheduled compaction moves shard totals back into
+ * {@link FundraisingEvent#getAccountBalance()}. With sharding disabled the event row is updated directly.
+ */
+@Slf4j
+@Component
+public class EventBalanceLedger {
+    private final boolean shardingEnabled;
+    private final int shards;
+    private final EventBalanceShardRepository shardRepository;
+    private final FundraisingEventRepository eventRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public EventBalanceLedger(
+            @Value("${fundraiser.balance.sharding.enabled}") boolean shardingEnabled,
+            @Value("${fundraiser.balance.sharding.shards}") int shards,
+            EventBalanceShardRepository shardRepository,
+            FundraisingEventRepository eventRepository,
+            TransactionTemplate transactionTemplate
+    ) {
+        this.shardingEnabled = shardingEnabled;
+        this.shards = shards;
+        this.shardRepository = shardRepository;
+        this.eventRepository = eventRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Creates the shard rows of a newly saved event so that credits never have to insert them.
+     */
+    public void initialize(FundraisingEvent event) {
+        if (!shardingEnabled) {
+            return;
+        }
+        shardRepository.saveAll(IntStream.range(0, shards)
+                .mapToObj(index -> EventBalanceShard.builder().event(event).shardIndex(index).amount(BigDecimal.ZERO).build())
+                .toList());
+    }
+
+    /**
+     * Credits the event within the caller's transaction. Events created before sharding was enabled have no
+     * shard rows; they are credited on the event row until created anew.
+     */
+    public void credit(FundraisingEvent event, BigDecimal amount) {
+        if (shardingEnabled) {
+            int shard = ThreadLocalRandom.current().nextInt(shards);
+            if (shardRepository.addToShard(event.getId(), shard, amount) > 0) {
+                return;
+            }
+            log.debug("Event {} has no balance shards, crediting the event row", event.getId());
+        }
+        event.setAccountBalance(event.getAccountBalance().add(amount));
+    }
+
+    /**
+     * Credits the event by ID with an atomic increment within the caller's transaction, for callers that do not
+     * hold the event entity and may run concurrently with each other.
+     */
+    public void credit(Long eventId, BigDecimal amount) {
+        if (shardingEnabled && shardRepository.addToShard(eventId, ThreadLocalRandom.current().nextInt(shards), amount) > 0) {
+            return;
+        }
+        eventRepository.addToBalance(eventId, amount);
+    }
+
+    public BigDecimal balanceOf(FundraisingEvent event) {
+        return balancesOf(List.of(event)).get(event.getId());
+    }
+
+    /**
+     * Current balances keyed by event ID; with sharding enabled this costs one query for the whole collection.
+     */
+    public Map<Long, BigDecimal> balancesOf(Collection<FundraisingEvent> events) {
+        if (!shardingEnabled || events.isEmpty()) {
+            return events.stream().collect(Collectors.toMap(FundraisingEvent::getId, FundraisingEvent::getAccountBalance));
+        }
+        List<Long> ids = events.stream().map(FundraisingEvent::getId).toList();
+        return shardRepository.findFoldedBalances(ids).stream()
+                .collect(Collectors.toMap(EventBalance::eventId, EventBalance::balance));
+    }
+
+    @Scheduled(fixedDelayString = "${fundraiser.balance.sharding.compaction-interval}")
+    public void compact() {
+        if (!shardingEnabled) {
+            return;
+        }
+        for (Long eventId : shardRepository.findEventIdsWithPendingCredits()) {
+            BigDecimal moved = transactionTemplate.execute(status -> compactEvent(eventId));
+            log.info("Compacted balance shards of event {}: moved {}", eventId, moved);
+        }
+    }
+
+    private BigDecimal compactEvent(Long eventId) {
+        // Locking the shards holds back credits to this event only for the duration of this short transaction
+        List<EventBalanceShard> eventShards = shardRepository.findByEventId(eventId);
+        BigDecimal total = eventShards.stream()
+                .map(EventBalanceShard::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        eventShards.forEach(shard -> shard.setAmount(BigDecimal.ZERO));
+        eventRepository.addToBalance(eventId, total);
+        return total;
+    }
+}
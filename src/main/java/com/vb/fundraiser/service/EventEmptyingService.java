@@ -0,0 +1,295 @@
+package com.vb.fundraiser.service;
+
+import com.vb.fundraiser.client.CurrencyConversionClient;
+import com.vb.fundraiser.client.ExchangeRate;
+import com.vb.fundraiser.exception.currency.StaleExchangeRateException;
+import com.vb.fundraiser.exception.event.FundraisingEventNotFoundException;
+import com.vb.fundraiser.model.dto.EventEmptyingDTO;
+import com.vb.fundraiser.model.dto.HeldAmount;
+import com.vb.fundraiser.model.entity.BoxCurrencyAmount;
+import com.vb.fundraiser.model.entity.ConversionAudit;
+import com.vb.fundraiser.model.entity.FundraisingEvent;
+import com.vb.fundraiser.repository.BoxCurrencyAmountRepository;
+import com.vb.fundraiser.repository.ConversionAuditRepository;
+import com.vb.fundraiser.repository.FundraisingEventRepository;
+import com.vb.fundraiser.service.ConversionPlan.PendingAmount;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+/**
+ * Empties every box assigned to an event in one operation. The event's non-empty amounts are read and planned once,
+ * outside any transaction: each currency is summed across all boxes, converted once with its rate and rounded once
+ * (see {@link ConversionPlan}), and the converted totals are shared out to the boxes. The boxes are then emptied in
+ * chunks of {@code chunkSize}, up to {@code parallelism} chunks at a time, each in its own transaction: the chunk's
+ * amount rows are locked, zeroed with one set-based update, and the planned credit of its boxes is added to the
+ * event with one atomic increment. Since the credits come from one plan, the total does not depend on the chunk size.
+ * <p>
+ * The event gets one audit row per converted currency, opened with zero totals before the first chunk; each chunk adds
+ * what it converted in the transaction that credits the event, so the audit always matches the credits committed.
+ * A box whose amounts changed after planning is left untouched, and a chunk that fails does not affect the others;
+ * both are reported as failed.
+ * <p>
+ * In convert-at-deposit mode a box whose amounts are all priced is credited the sum of its stored values, like
+ * {@link CollectionBoxService#emptyBox}, and only boxes with an unpriced amount are converted at current rates. When
+ * every box is priced, no rate is resolved at all.
+ */
+@Slf4j
+@Service
+public class EventEmptyingService {
+    private static final String OPERATION = "emptyEventBoxes";
+
+    private final int chunkSize;
+    private final int parallelism;
+    private final FundraisingEventRepository eventRepository;
+    private final BoxCurrencyAmountRepository amountRepository;
+    private final CurrencyConversionClient conversionClient;
+    private final EventBalanceLedger balanceLedger;
+    private final BalanceOutbox balanceOutbox;
+    private final ConversionAuditRepository auditRepository;
+    private final DepositPricer depositPricer;
+    private final TransactionTemplate transactionTemplate;
+    private final ConflictRetryExecutor retryExecutor;
+
+    public EventEmptyingService(
+            @Value("${fundraiser.boxes.bulk-empty.chunk-size}") int chunkSize,
+            @Value("${fundraiser.boxes.bulk-empty.parallelism}") int parallelism,
+            FundraisingEventRepository eventRepository,
+            BoxCurrencyAmountRepository amountRepository,
+            CurrencyConversionClient conversionClient,
+            EventBalanceLedger balanceLedger,
+            BalanceOutbox balanceOutbox,
+            ConversionAuditRepository auditRepository,
+            DepositPricer depositPricer,
+            TransactionTemplate transactionTemplate,
+            ConflictRetryExecutor retryExecutor
+    ) {
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.eventRepository = eventRepository;
+        this.amountRepository = amountRepository;
+        this.conversionClient = conversionClient;
+        this.balanceLedger = balanceLedger;
+        this.balanceOutbox = balanceOutbox;
+        this.auditRepository = auditRepository;
+        this.depositPricer = depositPricer;
+        this.transactionTemplate = transactionTemplate;
+        this.retryExecutor = retryExecutor;
+    }
+
+    public EventEmptyingDTO emptyEventBoxes(Long eventId) {
+        FundraisingEvent event = eventRepository.findById(eventId)
+                .orElseThrow(() -> {
+                    log.warn("Event with ID {} not found for emptying its boxes", eventId);
+                    return new FundraisingEventNotFoundException(eventId);
+                });
+        String targetCurrency = event.getCurrency().getCode();
+
+        List<HeldAmount> held = amountRepository.findHeldAmounts(eventId);
+        if (held.isEmpty()) {
+            log.info("Event {} has no boxes with money to empty", eventId);
+            return new EventEmptyingDTO(eventId, targetCurrency, 0, 0, BigDecimal.ZERO.setScale(2));
+        }
+
+        Set<Long> pricedBoxes = pricedAtDeposit(held);
+        List<HeldAmount> unpriced = held.stream().filter(amount -> !pricedBoxes.contains(amount.boxId())).toList();
+        Map<String, ExchangeRate> rates = unpriced.isEmpty() ? Map.of() : conversionClient.getExchangeRates(unpriced.stream()
+                .map(HeldAmount::currencyCode)
+                .filter(code -> !code.equals(targetCurrency))
+                .distinct()
+                .toList(), targetCurrency);
+        ConversionPlan plan;
+        try {
+            plan = ConversionPlan.of(targetCurrency, unpriced.stream()
+                    .map(amount -> new PendingAmount(amount.boxId(), amount.currencyCode(), amount.amount()))
+                    .toList(), rates, conversionClient::isStale);
+        } catch (StaleExchangeRateException e) {
+            log.warn("Aborting emptying of event {}: {}", eventId, e.getMessage());
+            throw e;
+        }
+
+        Map<Long, PlannedBox> planned = planBoxes(held, pricedBoxes, plan);
+        Map<String, Long> auditIds = plan.groups().stream().anyMatch(ConversionPlan.Group::isConverted)
+                ? transactionTemplate.execute(status -> openAudits(eventId, plan))
+                : Map.of();
+
+        List<Long> boxIds = List.copyOf(planned.keySet());
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < boxIds.size(); from += chunkSize) {
+            chunks.add(boxIds.subList(from, Math.min(from + chunkSize, boxIds.size())));
+        }
+
+        int boxesEmptied = 0;
+        int boxesFailed = 0;
+        BigDecimal transferred = BigDecimal.ZERO;
+        Semaphore permits = new Semaphore(parallelism);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<ChunkResult>> results = chunks.stream()
+                    .map(chunk -> executor.submit(() -> {
+                        permits.acquire();
+                        try {
+                            return retryExecutor.execute(OPERATION, () -> transactionTemplate.execute(
+                                    status -> emptyChunk(eventId, chunk, targetCurrency, planned, auditIds)));
+                        } finally {
+                            permits.release();
+                        }
+                    }))
+                    .toList();
+
+            for (int i = 0; i < chunks.size(); i++) {
+                try {
+                    ChunkResult result = results.get(i).get();
+                    boxesEmptied += result.boxes();
+                    boxesFailed += chunks.get(i).size() - result.boxes();
+                    transferred = transferred.add(result.credited());
+                } catch (ExecutionException e) {
+                    boxesFailed += chunks.get(i).size();
+                    log.warn("Could not empty {} box(es) of event {}: {}", chunks.get(i).size(), eventId, e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while emptying the boxes of event " + eventId, e);
+                }
+            }
+        }
+
+        if (!auditIds.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> auditRepository.deleteUnused(auditIds.values()));
+        }
+
+        log.info("Emptied {} box(es) of event {} in {} chunk(s), {} failed. Transferred total {} {}",
+                boxesEmptied, eventId, chunks.size(), boxesFailed, transferred, targetCurrency);
+        return new EventEmptyingDTO(eventId, targetCurrency, boxesEmptied, boxesFailed,
+                transferred.setScale(2, RoundingMode.HALF_UP));
+    }
+
+    /**
+     * Boxes whose non-empty amounts all carry a stored value; none while convert-at-deposit mode is off.
+     */
+    private Set<Long> pricedAtDeposit(List<HeldAmount> held) {
+        if (!depositPricer.isEnabled()) {
+            return Set.of();
+        }
+        Set<Long> unpriced = held.stream()
+                .filter(amount -> amount.convertedAmount() == null)
+                .map(HeldAmount::boxId)
+                .collect(Collectors.toSet());
+        return held.stream()
+                .map(HeldAmount::boxId)
+                .filter(boxId -> !unpriced.contains(boxId))
+                .collect(Collectors.toSet());
+    }
+
+    private Map<Long, PlannedBox> planBoxes(List<HeldAmount> held, Set<Long> pricedBoxes, ConversionPlan plan) {
+        Map<Long, PlannedBox> planned = new LinkedHashMap<>();
+        held.forEach(amount -> planned.computeIfAbsent(amount.boxId(), boxId -> new PlannedBox(new HashMap<>(), new ArrayList<>()))
+                .rows().put(amount.id(), amount));
+        held.stream()
+                .filter(amount -> pricedBoxes.contains(amount.boxId()))
+                .forEach(amount -> planned.get(amount.boxId()).shares().add(new Share(null, amount.amount(), amount.convertedAmount())));
+        for (ConversionPlan.Group group : plan.groups()) {
+            group.allocations().forEach((boxId, credit) -> planned.get(boxId).shares()
+                    .add(new Share(group.sourceCurrency(), group.held().get(boxId), credit)));
+        }
+        return planned;
+    }
+
+    private Map<String, Long> openAudits(Long eventId, ConversionPlan plan) {
+        List<ConversionAudit> audits = plan.auditRecords(eventRepository.getReferenceById(eventId), OPERATION, Instant.now());
+        audits.forEach(audit -> {
+            audit.setSourceTotal(BigDecimal.ZERO);
+            audit.setConvertedTotal(BigDecimal.ZERO);
+            audit.setBoxes(0);
+        });
+        return auditRepository.saveAll(audits).stream()
+                .collect(Collectors.toMap(ConversionAudit::getSourceCurrency, ConversionAudit::getId));
+    }
+
+    private ChunkResult emptyChunk(Long eventId, List<Long> boxIds, String targetCurrency,
+                                   Map<Long, PlannedBox> planned, Map<String, Long> auditIds) {
+        Map<Long, Map<Long, BoxCurrencyAmount>> locked = amountRepository.lockNonEmptyAmounts(eventId, boxIds).stream()
+                .collect(Collectors.groupingBy(row -> row.getBox().getId(),
+                        Collectors.toMap(BoxCurrencyAmount::getId, row -> row)));
+        List<Long> emptied = boxIds.stream()
+                .filter(boxId -> planned.get(boxId).matches(locked.get(boxId)))
+                .toList();
+        if (emptied.size() < boxIds.size()) {
+            log.warn("Skipping {} box(es) of event {} that were emptied, removed or funded after planning",
+                    boxIds.size() - emptied.size(), eventId);
+        }
+        if (emptied.isEmpty()) {
+            return new ChunkResult(0, BigDecimal.ZERO);
+        }
+
+        amountRepository.zeroAmounts(emptied.stream().flatMap(boxId -> planned.get(boxId).rows().keySet().stream()).toList());
+
+        Map<String, Share> converted = new HashMap<>();
+        Map<String, Integer> boxes = new HashMap<>();
+        BigDecimal credited = BigDecimal.ZERO;
+        for (Long boxId : emptied) {
+            for (Share share : planned.get(boxId).shares()) {
+                credited = credited.add(share.credit());
+                if (share.currencyCode() != null) {
+                    converted.merge(share.currencyCode(), share, Share::plus);
+                    boxes.merge(share.currencyCode(), 1, Integer::sum);
+                }
+            }
+        }
+
+        balanceLedger.credit(eventId, credited);
+        balanceOutbox.recordCredit(eventId, targetCurrency, credited, OPERATION);
+        converted.forEach((currency, total) -> {
+            Long auditId = auditIds.get(currency);
+            if (auditId != null) {
+                auditRepository.addToTotals(auditId, total.amount(), total.credit(), boxes.get(currency));
+            }
+        });
+
+        return new ChunkResult(emptied.size(), credited);
+    }
+
+    /**
+     * @param rows   the box's non-empty amount rows as planned, by row ID
+     * @param shares what the box holds and is credited, per converted currency or per stored price
+     */
+    private record PlannedBox(Map<Long, HeldAmount> rows, List<Share> shares) {
+        boolean matches(Map<Long, BoxCurrencyAmount> lockedRows) {
+            return lockedRows != null && lockedRows.size() == rows.size() && rows.values().stream().allMatch(row -> {
+                BoxCurrencyAmount locked = lockedRows.get(row.id());
+                return locked != null && locked.getAmount().compareTo(row.amount()) == 0
+                        && sameValue(locked.getConvertedAmount(), row.convertedAmount());
+            });
+        }
+
+        private static boolean sameValue(BigDecimal first, BigDecimal second) {
+            return first == null ? second == null : second != null && first.compareTo(second) == 0;
+        }
+    }
+
+    /**
+     * @param currencyCode the converted currency audited, or {@code null} for an amount priced at deposit
+     */
+    private record Share(String currencyCode, BigDecimal amount, BigDecimal credit) {
+        Share plus(Share other) {
+            return new Share(currencyCode, amount.add(other.amount), credit.add(other.credit));
+        }
+    }
+
+    private record ChunkResult(int boxes, BigDecimal credited) {}
+}
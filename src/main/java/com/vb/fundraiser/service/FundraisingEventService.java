@@ -1,38 +1,58 @@
 package com.vb.fundraiser.service;
 
 import com.vb.fundraiser.exception.event.FundraisingEventAlreadyExistsException;
+import com.vb.fundraiser.model.dto.CursorSlice;
 import com.vb.fundraiser.model.dto.FundraisingEventDTO;
 import com.vb.fundraiser.exception.currency.CurrencyNotFoundException;
 import com.vb.fundraiser.model.entity.Currency;
 import com.vb.fundraiser.model.entity.FundraisingEvent;
-import com.vb.fundraiser.repository.CurrencyRepository;
 import com.vb.fundraiser.repository.FundraisingEventRepository;
+import com.vb.fundraiser.util.EventSortField;
+import com.vb.fundraiser.util.PageCursor;
 import com.vb.fundraiser.util.PaginationValidator;
+import com.vb.fundraiser.util.ReportFormat;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class FundraisingEventService {
     private final FundraisingEventRepository eventRepository;
-    private final CurrencyRepository currencyRepository;
+    private final CurrencyRegistry currencyRegistry;
+    private final EventBalanceLedger balanceLedger;
+    private final BalanceOutbox balanceOutbox;
 
+    @Transactional
     public FundraisingEventDTO createEvent(String name, String currencyCode) {
         if (eventRepository.existsByName(name)) {
             log.warn("Attempted to create duplicate event with name '{}'", name);
             throw new FundraisingEventAlreadyExistsException(name);
         }
 
-        Currency currency = currencyRepository.findByCode(currencyCode)
+        Currency currency = currencyRegistry.findByCode(currencyCode)
                 .orElseThrow(() -> {
                     log.warn("Currency '{}' not found when creating event '{}'", currencyCode, name);
                     return new CurrencyNotFoundException(currencyCode);
@@ -44,9 +64,11 @@ public class FundraisingEventService {
                 .accountBalance(BigDecimal.ZERO)
                 .build();
         FundraisingEvent saved = eventRepository.save(event);
+        balanceLedger.initialize(saved);
+        balanceOutbox.recordCreated(saved);
 
         log.info("Created fundraising event '{}' in {} with ID {}", name, currency.getCode(), saved.getId());
-        return toDTO(saved);
+        return toDTO(saved, saved.getAccountBalance());
     }
 
     public Page<FundraisingEventDTO> getFinancialReport(
@@ -56,60 +78,89 @@ public class FundraisingEventService {
             String sortDirection
     ) {
         PaginationValidator.validate(pageNumber, pageSize, sortDirection);
-        Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by(PaginationValidator.parseDirection(sortDirection), sortField));
+        Sort sort = EventSortField.of(sortField).sort(PaginationValidator.parseDirection(sortDirection));
+        Pageable pageable = PageRequest.of(pageNumber, pageSize, sort);
 
-        Page<FundraisingEvent> events = eventRepository.findAll(pageable);
-
-        Page<FundraisingEventDTO> report = events.map(this::toDTO);
+        Page<FundraisingEventDTO> report = eventRepository.findReportPage(pageable).map(this::rounded);
 
         log.info("Financial report page retrieved: page {}, size {}, totalElements {}",
                 report.getNumber(), report.getSize(), report.getTotalElements());
         return report;
     }
 
-    public String generateHtmlReport(String sortField, String sortDirection) {
-        Pageable pageable = Pageable.unpaged(Sort.by(PaginationValidator.parseDirection(sortDirection), sortField));
-        Page<FundraisingEvent> events = eventRepository.findAll(pageable);
-
-        StringBuilder html = new StringBuilder();
-        html.append("<html><head><title>Fundraising Report</title>");
-        html.append("""
-                <style>
-                    body { font-family: Arial, sans-serif; margin: 20px; }
-                    h1 { color: #333; }
-                    table { border-collapse: collapse; width: 100%; }
-                    th, td { border: 1px solid #ccc; padding: 8px; text-align: left; }
-                    th { background-color: #f2f2f2; }
-                    tr:nth-child(even) { background-color: #fafafa; }
-                </style>
-                </head><body>
-                <h1>Fundraising Events Report</h1>
-                <table>
-                <tr>
-                    <th>Fundraising event name</th>
-                    <th>Amount</th>
-                    <th>Currency</th>
-                </tr>
-        """);
-
-        for (FundraisingEvent event : events) {
-            html.append("<tr>")
-                    .append("<td>").append(event.getName()).append("</td>")
-                    .append("<td>").append(event.getAccountBalance().setScale(2, RoundingMode.HALF_UP)).append("</td>")
-                    .append("<td>").append(event.getCurrency().getCode()).append("</td>")
-                    .append("</tr>");
+    /**
+     * Keyset variant of {@link #getFinancialReport}: seeks past the (sort key, ID) pair carried by the cursor and
+     * reports whether more events follow without counting them.
+     */
+    public CursorSlice<FundraisingEventDTO> getFinancialReportAfter(
+            String cursor,
+            int pageSize,
+            String sortField,
+            String sortDirection
+    ) {
+        PaginationValidator.validate(0, pageSize, sortDirection);
+        EventSortField field = EventSortField.of(sortField);
+        Sort.Direction direction = PaginationValidator.parseDirection(sortDirection);
+        PageCursor position = PaginationValidator.parseCursor(cursor);
+        PaginationValidator.validateCursor(position, sortField, direction);
+
+        Sort sort = field.sort(direction);
+        ScrollPosition scrollPosition = position == null ? ScrollPosition.keyset() : field.positionAfter(position);
+
+        Window<FundraisingEvent> events = eventRepository.findBy(scrollPosition, sort, Limit.of(pageSize));
+
+        Map<Long, BigDecimal> balances = balanceLedger.balancesOf(events.getContent());
+        List<FundraisingEventDTO> content = events.stream()
+                .map(event -> toDTO(event, balances.get(event.getId())))
+                .toList();
+        String nextCursor = events.hasNext() && !events.isEmpty()
+                ? field.cursorAt(events.getContent().getLast(), direction).encode()
+                : null;
+
+        log.info("Financial report slice retrieved: size {}, hasNext {}", content.size(), events.hasNext());
+        return new CursorSlice<>(content, pageSize, events.hasNext(), nextCursor);
+    }
+
+    /**
+     * Validates the report ordering up front, so that a bad request is rejected before any report output starts.
+     */
+    public Sort reportSort(String sortField, String sortDirection) {
+        PaginationValidator.validate(0, 1, sortDirection);
+        return EventSortField.of(sortField).sort(PaginationValidator.parseDirection(sortDirection));
+    }
+
+    /**
+     * Writes the report of all events as rows come out of the database. Rows are DTO projections, so neither the
+     * persistence context nor the output buffer grows with the number of events.
+     */
+    @Transactional(readOnly = true)
+    public void writeReport(ReportFormat format, Sort sort, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        long rows = 0;
+
+        try (Stream<FundraisingEventDTO> events = eventRepository.streamReport(sort)) {
+            format.writeHeader(writer);
+            for (Iterator<FundraisingEventDTO> it = events.iterator(); it.hasNext(); rows++) {
+                format.writeRow(writer, rounded(it.next()));
+            }
+            format.writeFooter(writer);
         }
+        writer.flush();
 
-        html.append("</table></body></html>");
-        return html.toString();
+        log.info("{} report streamed: {} events, sort {}", format, rows, sort);
     }
 
-    private FundraisingEventDTO toDTO(FundraisingEvent event) {
+    private FundraisingEventDTO toDTO(FundraisingEvent event, BigDecimal balance) {
         return new FundraisingEventDTO(
                 event.getId(),
                 event.getName(),
                 event.getCurrency().getCode(),
-                event.getAccountBalance().setScale(2, RoundingMode.HALF_UP)
+                balance.setScale(2, RoundingMode.HALF_UP)
         );
     }
-}
\ No newline at end of file
+
+    private FundraisingEventDTO rounded(FundraisingEventDTO row) {
+        return new FundraisingEventDTO(row.id(), row.name(), row.currencyCode(),
+                row.accountBalance().setScale(2, RoundingMode.HALF_UP));
+    }
+}
@@ -0,0 +1,113 @@
+package com.vb.fundraiser.service;
+
+import com.vb.fundraiser.client.OutboxSink;
+import com.vb.fundraiser.model.dto.BalanceChangeMessage;
+import com.vb.fundraiser.repository.OutboxMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Relays the outbox written by {@link BalanceOutbox} to the active {@link OutboxSink}. Every {@code interval} the
+ * oldest messages are read in batches of {@code batchSize}, published, and deleted once the sink has accepted them,
+ * until the outbox is drained. Delivery is at least once: a crash between publishing and deleting publishes the
+ * batch again. When the sink fails, relaying pauses with exponential backoff from {@code initialBackoff} up to
+ * {@code maxBackoff}, and the failed batch is retried first once it resumes.
+ */
+@Slf4j
+@Service
+public class OutboxRelay {
+    private final int batchSize;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final OutboxMessageRepository outboxRepository;
+    private final OutboxSink sink;
+
+    private final Counter published;
+    private final Counter failures;
+    private final Timer publishTimer;
+    private final DistributionSummary batchSizes;
+
+    private int consecutiveFailures;
+    private Instant pausedUntil = Instant.MIN;
+
+    public OutboxRelay(
+            @Value("${fundraiser.outbox.relay.batch-size}") int batchSize,
+            @Value("${fundraiser.outbox.relay.initial-backoff}") Duration initialBackoff,
+            @Value("${fundraiser.outbox.relay.max-backoff}") Duration maxBackoff,
+            OutboxMessageRepository outboxRepository,
+            OutboxSink sink,
+            MeterRegistry meterRegistry
+    ) {
+        this.batchSize = batchSize;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.outboxRepository = outboxRepository;
+        this.sink = sink;
+        this.published = meterRegistry.counter("fundraiser.outbox.published");
+        this.failures = meterRegistry.counter("fundraiser.outbox.failures");
+        this.publishTimer = meterRegistry.timer("fundraiser.outbox.publish");
+        this.batchSizes = meterRegistry.summary("fundraiser.outbox.batch.size");
+    }
+
+    @Scheduled(fixedDelayString = "${fundraiser.outbox.relay.interval}")
+    public void relayOnSchedule() {
+        relayPending();
+    }
+
+    /**
+     * Publishes pending messages until the outbox is drained or the sink fails; returns how many were published.
+     * Does nothing while paused after a failure.
+     */
+    public synchronized int relayPending() {
+        if (Instant.now().isBefore(pausedUntil)) {
+            return 0;
+        }
+
+        int relayed = 0;
+        while (true) {
+            List<BalanceChangeMessage> batch = outboxRepository.findOldest(Limit.of(batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            try {
+                publishTimer.record(() -> sink.publish(batch));
+                outboxRepository.deleteAllByIdInBatch(batch.stream().map(BalanceChangeMessage::messageId).toList());
+            } catch (RuntimeException e) {
+                pause(batch.size(), e);
+                break;
+            }
+            consecutiveFailures = 0;
+            published.increment(batch.size());
+            batchSizes.record(batch.size());
+            relayed += batch.size();
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+
+        if (relayed > 0) {
+            log.info("Relayed {} balance change message(s)", relayed);
+        }
+        return relayed;
+    }
+
+    private void pause(int batch, RuntimeException cause) {
+        consecutiveFailures++;
+        failures.increment();
+        long backoff = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(consecutiveFailures - 1, 20));
+        pausedUntil = Instant.now().plusMillis(backoff);
+        log.warn("Could not relay {} balance change message(s) (failure {}), pausing for {} ms: {}",
+                batch, consecutiveFailures, backoff, cause.getMessage());
+    }
+}
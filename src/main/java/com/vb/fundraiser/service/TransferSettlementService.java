@@ -0,0 +1,192 @@
+package com.vb.fundraiser.service;
+
+import com.vb.fundraiser.client.CurrencyConversionClient;
+import com.vb.fundraiser.client.ExchangeRate;
+import com.vb.fundraiser.exception.box.TransferNotFoundException;
+import com.vb.fundraiser.model.dto.DueTransfer;
+import com.vb.fundraiser.model.dto.PendingTransferDTO;
+import com.vb.fundraiser.model.entity.PendingTransfer;
+import com.vb.fundraiser.repository.ConversionAuditRepository;
+import com.vb.fundraiser.repository.FundraisingEventRepository;
+import com.vb.fundraiser.repository.PendingTransferRepository;
+import com.vb.fundraiser.service.ConversionPlan.PendingAmount;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+/**
+ * Settles the pending transfers left by deferred box emptying. Every {@code interval} the due transfers are read
+ * from the database in batches of {@code batchSize} and grouped by event; up to {@code parallelism} events are
+ * settled at a time on virtual threads. For each event the rates of the currencies held are resolved through the
+ * rate cache outside any transaction, then one short transaction converts the transfers with a
+ * {@link ConversionPlan}, marks them settled and credits the event once. A group that cannot be settled stays
+ * pending and is retried after {@code retryDelay}; since the queue lives in the database, it also survives restarts.
+ */
+@Slf4j
+@Service
+public class TransferSettlementService {
+    private final int batchSize;
+    private final int parallelism;
+    private final Duration retryDelay;
+    private final PendingTransferRepository transferRepository;
+    private final FundraisingEventRepository eventRepository;
+    private final ConversionAuditRepository auditRepository;
+    private final CurrencyConversionClient conversionClient;
+    private final EventBalanceLedger balanceLedger;
+    private final BalanceOutbox balanceOutbox;
+    private final TransactionTemplate transactionTemplate;
+
+    public TransferSettlementService(
+            @Value("${fundraiser.boxes.deferred-empty.batch-size}") int batchSize,
+            @Value("${fundraiser.boxes.deferred-empty.parallelism}") int parallelism,
+            @Value("${fundraiser.boxes.deferred-empty.retry-delay}") Duration retryDelay,
+            PendingTransferRepository transferRepository,
+            FundraisingEventRepository eventRepository,
+            ConversionAuditRepository auditRepository,
+            CurrencyConversionClient conversionClient,
+            EventBalanceLedger balanceLedger,
+            BalanceOutbox balanceOutbox,
+            TransactionTemplate transactionTemplate
+    ) {
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.retryDelay = retryDelay;
+        this.transferRepository = transferRepository;
+        this.eventRepository = eventRepository;
+        this.auditRepository = auditRepository;
+        this.conversionClient = conversionClient;
+        this.balanceLedger = balanceLedger;
+        this.balanceOutbox = balanceOutbox;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public PendingTransferDTO getTransfer(Long transferId) {
+        return transferRepository.findTransfer(transferId)
+                .orElseThrow(() -> {
+                    log.warn("Transfer with ID {} not found", transferId);
+                    return new TransferNotFoundException(transferId);
+                });
+    }
+
+    @Scheduled(fixedDelayString = "${fundraiser.boxes.deferred-empty.interval}")
+    public void settleOnSchedule() {
+        settleDueTransfers();
+    }
+
+    /**
+     * Settles due transfers until none are left; returns how many were settled.
+     */
+    public int settleDueTransfers() {
+        int settled = 0;
+        while (true) {
+            List<DueTransfer> batch = transferRepository.findDue(Instant.now(), Limit.of(batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            settled += settleBatch(batch);
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        return settled;
+    }
+
+    private int settleBatch(List<DueTransfer> batch) {
+        Map<Long, List<DueTransfer>> byEvent = batch.stream()
+                .collect(Collectors.groupingBy(DueTransfer::eventId, LinkedHashMap::new, Collectors.toList()));
+
+        int settled = 0;
+        int failed = 0;
+        Semaphore permits = new Semaphore(parallelism);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Map<Long, Future<Integer>> results = new LinkedHashMap<>();
+            byEvent.forEach((eventId, transfers) -> results.put(eventId, executor.submit(() -> {
+                permits.acquire();
+                try {
+                    return settleEvent(eventId, transfers);
+                } finally {
+                    permits.release();
+                }
+            })));
+
+            for (Map.Entry<Long, Future<Integer>> result : results.entrySet()) {
+                List<Long> ids = byEvent.get(result.getKey()).stream().map(DueTransfer::id).toList();
+                try {
+                    settled += result.getValue().get();
+                } catch (ExecutionException e) {
+                    failed += ids.size();
+                    String error = e.getCause().getMessage();
+                    log.warn("Could not settle {} transfer(s) of event {}, retrying in {}: {}",
+                            ids.size(), result.getKey(), retryDelay, error);
+                    recordFailure(ids, error);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while settling pending transfers", e);
+                }
+            }
+        }
+
+        log.info("Settled {} pending transfer(s) for {} event(s), {} left for retry", settled, byEvent.size(), failed);
+        return settled;
+    }
+
+    private int settleEvent(Long eventId, List<DueTransfer> transfers) {
+        String targetCurrency = transfers.getFirst().currencyCode();
+        List<Long> ids = transfers.stream().map(DueTransfer::id).toList();
+        List<String> foreign = transferRepository.findCurrencyCodes(ids).stream()
+                .filter(code -> !code.equals(targetCurrency))
+                .toList();
+        Map<String, ExchangeRate> rates = conversionClient.getExchangeRates(foreign, targetCurrency);
+
+        return transactionTemplate.execute(status -> creditTransfers(eventId, ids, targetCurrency, rates));
+    }
+
+    private int creditTransfers(Long eventId, List<Long> ids, String targetCurrency, Map<String, ExchangeRate> rates) {
+        List<PendingTransfer> transfers = transferRepository.findPendingWithAmounts(ids);
+        if (transfers.isEmpty()) {
+            return 0;
+        }
+
+        List<PendingAmount> pending = transfers.stream()
+                .flatMap(t -> t.getAmounts().stream().map(a -> new PendingAmount(t.getId(), a.getCurrencyCode(), a.getAmount())))
+                .toList();
+        ConversionPlan plan = ConversionPlan.of(targetCurrency, pending, rates, conversionClient::isStale);
+
+        Instant now = Instant.now();
+        Map<Long, BigDecimal> credits = plan.allocations();
+        for (PendingTransfer transfer : transfers) {
+            transfer.setStatus(PendingTransfer.Status.SETTLED);
+            transfer.setTransferred(credits.getOrDefault(transfer.getId(), BigDecimal.ZERO));
+            transfer.setSettledAt(now);
+            transfer.setLastError(null);
+        }
+        balanceLedger.credit(eventId, plan.total());
+        balanceOutbox.recordCredit(eventId, targetCurrency, plan.total(), "settleTransfers");
+        auditRepository.saveAll(plan.auditRecords(eventRepository.getReferenceById(eventId), "settleTransfers", now));
+
+        log.info("Settled {} transfer(s) of event {}: credited {} {}", transfers.size(), eventId, plan.total(), targetCurrency);
+        return transfers.size();
+    }
+
+    private void recordFailure(List<Long> ids, String error) {
+        String truncated = error != null && error.length() > 500 ? error.substring(0, 500) : error;
+        transactionTemplate.executeWithoutResult(
+                status -> transferRepository.recordFailure(ids, truncated, Instant.now().plus(retryDelay)));
+    }
+}
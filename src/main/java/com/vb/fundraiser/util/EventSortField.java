@@ -0,0 +1,69 @@
+package com.vb.fundraiser.util;
+
+import com.vb.fundraiser.model.entity.FundraisingEvent;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Fields the events report can be sorted by, for both offset and cursor pagination. Every field except the ID is
+ * followed by the event ID as tie-breaker, and each is backed by an index ending with the ID, so the database can
+ * read a page in index order. Currency sorts on the code copied onto the event, which its index covers.
+ * <p>
+ * The balance order follows the stored {@code accountBalance}. With balance sharding enabled, credits not yet
+ * compacted into it are shown in the report but do not move the event, so the order may lag the displayed
+ * balances by up to one compaction interval.
+ */
+public enum EventSortField {
+    ID("id", "id", event -> event.getId().toString(), Long::valueOf),
+    NAME("name", "name", FundraisingEvent::getName, value -> value),
+    ACCOUNT_BALANCE("accountBalance", "accountBalance", event -> event.getAccountBalance().toPlainString(), BigDecimal::new),
+    CURRENCY("currency", "currencyCode", FundraisingEvent::getCurrencyCode, value -> value);
+
+    private final String parameter;
+    private final String property;
+    private final Function<FundraisingEvent, String> cursorWriter;
+    private final Function<String, Object> cursorReader;
+
+    EventSortField(String parameter, String property,
+                   Function<FundraisingEvent, String> cursorWriter, Function<String, Object> cursorReader) {
+        this.parameter = parameter;
+        this.property = property;
+        this.cursorWriter = cursorWriter;
+        this.cursorReader = cursorReader;
+    }
+
+    public static EventSortField of(String parameter) {
+        return Arrays.stream(values())
+                .filter(field -> field.parameter.equals(parameter))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Sort field must be one of: " + Arrays.stream(values())
+                        .map(field -> field.parameter)
+                        .collect(Collectors.joining(", "))));
+    }
+
+    public Sort sort(Sort.Direction direction) {
+        Sort sort = Sort.by(direction, property);
+        return this == ID ? sort : sort.and(Sort.by(direction, "id"));
+    }
+
+    public PageCursor cursorAt(FundraisingEvent event, Sort.Direction direction) {
+        return new PageCursor(parameter, direction, event.getId(), cursorWriter.apply(event));
+    }
+
+    public ScrollPosition positionAfter(PageCursor cursor) {
+        if (this == ID) {
+            return ScrollPosition.forward(Map.of("id", cursor.id()));
+        }
+        try {
+            return ScrollPosition.forward(Map.of(property, cursorReader.apply(cursor.sortValue()), "id", cursor.id()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid pagination cursor");
+        }
+    }
+}
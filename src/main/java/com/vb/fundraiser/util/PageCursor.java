@@ -0,0 +1,32 @@
+package com.vb.fundraiser.util;
+
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Continuation point of a keyset-paginated listing: the sort key and id of the last row returned, together with
+ * the ordering they belong to. Clients only see it as an opaque URL-safe token.
+ */
+public record PageCursor(String sortField, Sort.Direction direction, long id, String sortValue) {
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = sortField + SEPARATOR + direction + SEPARATOR + id + SEPARATOR + sortValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static PageCursor decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        // The sort value goes last so that it may itself contain the separator
+        String[] parts = raw.split("\\|", 4);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        return new PageCursor(parts[0], Sort.Direction.valueOf(parts[1]), Long.parseLong(parts[2]), parts[3]);
+    }
+}
@@ -26,4 +26,27 @@ public class PaginationValidator {
         }
         return direction;
     }
+
+    /**
+     * Decodes a continuation token; a blank token starts from the first page and yields {@code null}.
+     */
+    public static PageCursor parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid pagination cursor");
+        }
+    }
+
+    /**
+     * A cursor only continues the listing it was issued for, so the sort field and direction must not change.
+     */
+    public static void validateCursor(PageCursor cursor, String sortField, Sort.Direction direction) {
+        if (cursor != null && (!cursor.sortField().equals(sortField) || cursor.direction() != direction)) {
+            throw new IllegalArgumentException("Pagination cursor was issued for a different sort order");
+        }
+    }
 }
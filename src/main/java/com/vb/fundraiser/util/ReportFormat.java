@@ -0,0 +1,103 @@
+package com.vb.fundraiser.util;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.vb.fundraiser.model.dto.FundraisingEventDTO;
+import org.springframework.http.MediaType;
+import org.springframework.web.util.HtmlUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Renders the fundraising events report one row at a time, so a report can be written straight to the response
+ * while the rows are still being read from the database.
+ */
+public enum ReportFormat {
+    HTML(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8)) {
+        @Override
+        public void writeHeader(Writer writer) throws IOException {
+            writer.write("<html><head><title>Fundraising Report</title>");
+            writer.write("""
+                    <style>
+                        body { font-family: Arial, sans-serif; margin: 20px; }
+                        h1 { color: #333; }
+                        table { border-collapse: collapse; width: 100%; }
+                        th, td { border: 1px solid #ccc; padding: 8px; text-align: left; }
+                        th { background-color: #f2f2f2; }
+                        tr:nth-child(even) { background-color: #fafafa; }
+                    </style>
+                    </head><body>
+                    <h1>Fundraising Events Report</h1>
+                    <table>
+                    <tr>
+                        <th>Fundraising event name</th>
+                        <th>Amount</th>
+                        <th>Currency</th>
+                    </tr>
+            """);
+        }
+
+        @Override
+        public void writeRow(Writer writer, FundraisingEventDTO event) throws IOException {
+            writer.write("<tr><td>" + HtmlUtils.htmlEscape(event.name()) + "</td>"
+                    + "<td>" + event.accountBalance().toPlainString() + "</td>"
+                    + "<td>" + event.currencyCode() + "</td></tr>\n");
+        }
+
+        @Override
+        public void writeFooter(Writer writer) throws IOException {
+            writer.write("</table></body></html>");
+        }
+    },
+
+    CSV(new MediaType("text", "csv", StandardCharsets.UTF_8)) {
+        @Override
+        public void writeHeader(Writer writer) throws IOException {
+            writer.write("id,name,currencyCode,accountBalance\r\n");
+        }
+
+        @Override
+        public void writeRow(Writer writer, FundraisingEventDTO event) throws IOException {
+            writer.write(event.id() + "," + quote(event.name()) + "," + event.currencyCode() + ","
+                    + event.accountBalance().toPlainString() + "\r\n");
+        }
+
+        // RFC 4180: fields containing a delimiter, quote or line break are quoted, quotes are doubled
+        private String quote(String value) {
+            if (value.chars().noneMatch(c -> c == ',' || c == '"' || c == '\r' || c == '\n')) {
+                return value;
+            }
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+    },
+
+    NDJSON(MediaType.APPLICATION_NDJSON) {
+        private static final ObjectWriter JSON = JsonMapper.builder().build().writerFor(FundraisingEventDTO.class);
+
+        @Override
+        public void writeRow(Writer writer, FundraisingEventDTO event) throws IOException {
+            writer.write(JSON.writeValueAsString(event));
+            writer.write('\n');
+        }
+    };
+
+    private final MediaType mediaType;
+
+    ReportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public void writeHeader(Writer writer) throws IOException {
+    }
+
+    public abstract void writeRow(Writer writer, FundraisingEventDTO event) throws IOException;
+
+    public void writeFooter(Writer writer) throws IOException {
+    }
+}
@@ -0,0 +1,126 @@
+package com.vb.fundraiser.client;
+
+import com.vb.fundraiser.exception.currency.ExchangeRateServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CircuitBreakerTest {
+    private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+
+    private final MutableClock clock = new MutableClock();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CircuitBreaker breaker = new CircuitBreaker("unirate", 3, OPEN_DURATION, 2,
+            ex -> !(ex instanceof HttpClientErrorException), clock, meterRegistry);
+
+    @Test
+    void givenConsecutiveFailuresReachThreshold_whenExecute_thenOpenAndRejectCalls() {
+        // given
+        failTimes(3);
+
+        // when / then
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> breaker.execute(() -> "rate"))
+                .isInstanceOf(ExchangeRateServiceUnavailableException.class)
+                .hasMessage("Exchange rate service 'unirate' is failing; calls are suspended until it recovers");
+        assertThat(meterRegistry.get("circuit.breaker.rejected").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("circuit.breaker.transitions").tag("to", "OPEN").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void givenSuccessBetweenFailures_whenExecute_thenStayClosed() {
+        // given
+        failTimes(2);
+        breaker.execute(() -> "rate");
+        failTimes(2);
+
+        // when / then
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void givenOpenDurationElapsedAndTrialsSucceed_whenExecute_thenClose() {
+        // given
+        failTimes(3);
+        clock.advance(OPEN_DURATION);
+
+        // when
+        breaker.execute(() -> "trial 1");
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        breaker.execute(() -> "trial 2");
+
+        // then
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(meterRegistry.get("circuit.breaker.state").gauge().value()).isZero();
+    }
+
+    @Test
+    void givenHalfOpenTrialFails_whenExecute_thenReopen() {
+        // given
+        failTimes(3);
+        clock.advance(OPEN_DURATION);
+
+        // when
+        failTimes(1);
+
+        // then
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(meterRegistry.get("circuit.breaker.transitions").tag("from", "HALF_OPEN").tag("to", "OPEN")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void givenClientErrors_whenExecute_thenDoNotCountAsFailures() {
+        // given
+        HttpClientErrorException unauthorized = HttpClientErrorException.create("", HttpStatusCode.valueOf(401), null, null, null, null);
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> breaker.execute(() -> { throw unauthorized; }))
+                    .isSameAs(unauthorized);
+        }
+
+        // then
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private void failTimes(int times) {
+        for (int i = 0; i < times; i++) {
+            assertThatThrownBy(() -> breaker.execute(() -> { throw new ResourceAccessException("Read timed out"); }))
+                    .isInstanceOf(ResourceAccessException.class);
+        }
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -1,17 +1,34 @@
 package com.vb.fundraiser.client;
 
+import com.vb.fundraiser.config.CacheConfig;
 import com.vb.fundraiser.exception.currency.CurrencyConversionException;
+import com.vb.fundraiser.exception.currency.ExchangeRateServiceUnavailableException;
 import com.vb.fundraiser.client.response.CurrencyConversionResponse;
+import com.vb.fundraiser.client.response.ExchangeRatesResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -25,41 +42,234 @@ class CurrencyConversionClientTest {
     private CurrencyConversionClient client;
 
     private static final String BASE_URL = "https://api.unirateapi.com/api/convert";
+    private static final String RATES_URL = "https://api.unirateapi.com/api/rates";
     private static final String API_KEY = "TEST_KEY";
 
     private static final BigDecimal AMOUNT = new BigDecimal("12.99");
     private static final String FROM = "EUR";
     private static final String TO = "USD";
+    private static final BigDecimal RATE = new BigDecimal("1.1363");
+    private static final Duration RATE_TTL = Duration.ofMinutes(10);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @BeforeEach
     void setUp() {
-        client = new CurrencyConversionClient(mockRestTemplate, BASE_URL, API_KEY);
+        client = pairClient(RATE_TTL, false);
+    }
+
+    private CurrencyConversionClient pairClient(Duration cacheTtl, boolean fallbackEnabled) {
+        CacheManager cacheManager = new CacheConfig().cacheManager(cacheTtl, 100);
+        UniRatePairRateProvider pairProvider = new UniRatePairRateProvider(mockRestTemplate, cacheManager, BASE_URL, API_KEY,
+                cacheTtl, circuitBreaker(), new RateFallbackPolicy(fallbackEnabled, Duration.ofHours(1), meterRegistry));
+        return new CurrencyConversionClient(pairProvider, meterRegistry);
+    }
+
+    private CircuitBreaker circuitBreaker() {
+        return new CircuitBreaker("unirate-" + System.nanoTime(), 2, Duration.ofMinutes(1), 1,
+                ex -> !(ex instanceof HttpClientErrorException), Clock.systemUTC(), meterRegistry);
+    }
+
+    private String rateUrl(String from, String to) {
+        return BASE_URL +
+                "?api_key=" + API_KEY +
+                "&amount=1" +
+                "&from=" + from +
+                "&to=" + to;
     }
 
     @Test
-    void givenValidInput_whenConvert_thenReturnConvertedResult() {
+    void givenValidInput_whenConvert_thenReturnAmountMultipliedByRate() {
         // given
-        CurrencyConversionResponse resp = new CurrencyConversionResponse(
-                AMOUNT,
-                FROM,
-                TO,
-                new BigDecimal("49.16947748517189")
-        );
-
-        String expectedUrl = BASE_URL +
-                "?api_key=" + API_KEY +
-                "&amount=" + AMOUNT +
-                "&from=" + FROM +
-                "&to=" + TO;
+        CurrencyConversionResponse resp = new CurrencyConversionResponse(BigDecimal.ONE, FROM, TO, RATE);
 
-        when(mockRestTemplate.getForObject(eq(expectedUrl), eq(CurrencyConversionResponse.class)))
+        when(mockRestTemplate.getForObject(eq(rateUrl(FROM, TO)), eq(CurrencyConversionResponse.class)))
                 .thenReturn(resp);
 
         // when
         BigDecimal result = client.convert(AMOUNT, FROM, TO);
 
         // then
-        assertThat(result).isEqualByComparingTo(resp.result());
+        assertThat(result).isEqualByComparingTo(AMOUNT.multiply(RATE));
+    }
+
+    @Test
+    void givenRateAlreadyFetched_whenConvert_thenServeRateFromCache() {
+        // given
+        CurrencyConversionResponse resp = new CurrencyConversionResponse(BigDecimal.ONE, FROM, TO, RATE);
+        when(mockRestTemplate.getForObject(eq(rateUrl(FROM, TO)), eq(CurrencyConversionResponse.class)))
+                .thenReturn(resp);
+
+        // when
+        client.convert(AMOUNT, FROM, TO);
+        BigDecimal result = client.convert(BigDecimal.TEN, FROM, TO);
+
+        // then
+        assertThat(result).isEqualByComparingTo(BigDecimal.TEN.multiply(RATE));
+        verify(mockRestTemplate, times(1)).getForObject(anyString(), eq(CurrencyConversionResponse.class));
+    }
+
+    @Test
+    void givenDifferentPairs_whenConvert_thenCacheRatePerPair() {
+        // given
+        when(mockRestTemplate.getForObject(eq(rateUrl(FROM, TO)), eq(CurrencyConversionResponse.class)))
+                .thenReturn(new CurrencyConversionResponse(BigDecimal.ONE, FROM, TO, RATE));
+        when(mockRestTemplate.getForObject(eq(rateUrl(TO, FROM)), eq(CurrencyConversionResponse.class)))
+                .thenReturn(new CurrencyConversionResponse(BigDecimal.ONE, TO, FROM, new BigDecimal("0.88")));
+
+        // when
+        BigDecimal eurToUsd = client.getRate(FROM, TO);
+        BigDecimal usdToEur = client.getRate(TO, FROM);
+
+        // then
+        assertThat(eurToUsd).isEqualByComparingTo(RATE);
+        assertThat(usdToEur).isEqualByComparingTo("0.88");
+        verify(mockRestTemplate, times(2)).getForObject(anyString(), eq(CurrencyConversionResponse.class));
+    }
+
+    @Test
+    void givenSeveralSourceCurrencies_whenGetExchangeRates_thenLookupsRunConcurrently() {
+        // given
+        CountDownLatch bothInFlight = new CountDownLatch(2);
+        when(mockRestTemplate.getForObject(anyString(), eq(CurrencyConversionResponse.class)))
+                .thenAnswer(inv -> {
+                    bothInFlight.countDown();
+                    if (!bothInFlight.await(5, TimeUnit.SECONDS)) {
+                        throw new IllegalStateException("Lookups were not issued concurrently");
+                    }
+                    return new CurrencyConversionResponse(BigDecimal.ONE, "", TO, RATE);
+                });
+
+        // when
+        Map<String, ExchangeRate> rates = client.getExchangeRates(List.of("EUR", "GBP"), TO);
+
+        // then
+        assertThat(rates).containsOnlyKeys("EUR", "GBP");
+        assertThat(rates.get("GBP").rate()).isEqualByComparingTo(RATE);
+    }
+
+    @Test
+    void givenOneLookupFails_whenGetExchangeRates_thenPropagateFailure() {
+        // given
+        lenient().when(mockRestTemplate.getForObject(eq(rateUrl("EUR", TO)), eq(CurrencyConversionResponse.class)))
+                .thenReturn(new CurrencyConversionResponse(BigDecimal.ONE, "EUR", TO, RATE));
+        when(mockRestTemplate.getForObject(eq(rateUrl("GBP", TO)), eq(CurrencyConversionResponse.class)))
+                .thenReturn(null);
+
+        // when / then
+        assertThatThrownBy(() -> client.getExchangeRates(List.of("EUR", "GBP"), TO))
+                .isInstanceOf(CurrencyConversionException.class)
+                .hasMessage("Exchange rate lookup from GBP to " + TO + " failed");
+    }
+
+    @Test
+    void givenConcurrentMissesForSamePair_whenGetRate_thenIssueSingleRemoteCall() throws Exception {
+        // given
+        CountDownLatch release = new CountDownLatch(1);
+        when(mockRestTemplate.getForObject(eq(rateUrl(FROM, TO)), eq(CurrencyConversionResponse.class)))
+                .thenAnswer(inv -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    return new CurrencyConversionResponse(BigDecimal.ONE, FROM, TO, RATE);
+                });
+
+        // when
+        List<Future<BigDecimal>> results;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            results = IntStream.range(0, 10)
+                    .mapToObj(i -> executor.submit(() -> client.getRate(FROM, TO)))
+                    .toList();
+            Thread.sleep(200);
+            release.countDown();
+        }
+
+        // then
+        for (Future<BigDecimal> result : results) {
+            assertThat(result.get()).isEqualByComparingTo(RATE);
+        }
+        verify(mockRestTemplate, times(1)).getForObject(anyString(), eq(CurrencyConversionResponse.class));
+    }
+
+    @Test
+    void givenTableMode_whenConvertBetweenSeveralPairs_thenLoadTableOnceAndDeriveCrossRates() {
+        // given
+        CacheManager cacheManager = new CacheConfig().cacheManager(RATE_TTL, 100);
+        UniRateTableRateProvider tableProvider = new UniRateTableRateProvider(
+                mockRestTemplate, cacheManager, RATES_URL, API_KEY, "USD", 20, RATE_TTL,
+                circuitBreaker(), new RateFallbackPolicy(false, Duration.ofHours(1), meterRegistry));
+        CurrencyConversionClient tableClient = new CurrencyConversionClient(tableProvider, meterRegistry);
+
+        when(mockRestTemplate.getForObject(eq(RATES_URL + "?api_key=" + API_KEY + "&from=USD"), eq(ExchangeRatesResponse.class)))
+                .thenReturn(new ExchangeRatesResponse("USD", Map.of("EUR", new BigDecimal("0.8"), "PLN", new BigDecimal("4"))));
+
+        // when
+        BigDecimal eurToPln = tableClient.getRate("EUR", "PLN");
+        BigDecimal plnToUsd = tableClient.getRate("PLN", "USD");
+        BigDecimal converted = tableClient.convert(BigDecimal.TEN, "USD", "EUR");
+
+        // then
+        assertThat(eurToPln).isEqualByComparingTo("5");
+        assertThat(plnToUsd).isEqualByComparingTo("0.25");
+        assertThat(converted).isEqualByComparingTo("8");
+        verify(mockRestTemplate, times(1)).getForObject(anyString(), eq(ExchangeRatesResponse.class));
+    }
+
+    @Test
+    void givenRemoteKeepsFailing_whenGetRate_thenOpenCircuitAndRejectWithoutRemoteCall() {
+        // given
+        when(mockRestTemplate.getForObject(anyString(), eq(CurrencyConversionResponse.class)))
+                .thenThrow(new ResourceAccessException("Read timed out"));
+
+        // when
+        assertThatThrownBy(() -> client.getRate(FROM, TO)).isInstanceOf(ResourceAccessException.class);
+        assertThatThrownBy(() -> client.getRate(FROM, TO)).isInstanceOf(ResourceAccessException.class);
+
+        // then
+        assertThatThrownBy(() -> client.getRate(FROM, TO))
+                .isInstanceOf(ExchangeRateServiceUnavailableException.class);
+        verify(mockRestTemplate, times(2)).getForObject(anyString(), eq(CurrencyConversionResponse.class));
+    }
+
+    @Test
+    void givenFallbackEnabledAndRemoteFails_whenGetExchangeRate_thenServeLastKnownRate() {
+        // given
+        CurrencyConversionClient fallbackClient = pairClient(Duration.ZERO, true);
+        when(mockRestTemplate.getForObject(eq(rateUrl(FROM, TO)), eq(CurrencyConversionResponse.class)))
+                .thenReturn(new CurrencyConversionResponse(BigDecimal.ONE, FROM, TO, RATE))
+                .thenThrow(new ResourceAccessException("Read timed out"));
+        ExchangeRate fetched = fallbackClient.getExchangeRate(FROM, TO);
+
+        // when
+        ExchangeRate served = fallbackClient.getExchangeRate(FROM, TO);
+
+        // then
+        assertThat(served).isEqualTo(fetched);
+        assertThat(fallbackClient.isStale(served)).isFalse();
+        assertThat(meterRegistry.get("currency.rates.fallback.served").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void givenFallbackDisabledAndRemoteFails_whenGetExchangeRate_thenPropagateFailure() {
+        // given
+        CurrencyConversionClient noFallbackClient = pairClient(Duration.ZERO, false);
+        when(mockRestTemplate.getForObject(eq(rateUrl(FROM, TO)), eq(CurrencyConversionResponse.class)))
+                .thenReturn(new CurrencyConversionResponse(BigDecimal.ONE, FROM, TO, RATE))
+                .thenThrow(new ResourceAccessException("Read timed out"));
+        noFallbackClient.getExchangeRate(FROM, TO);
+
+        // when / then
+        assertThatThrownBy(() -> noFallbackClient.getExchangeRate(FROM, TO))
+                .isInstanceOf(ResourceAccessException.class);
+    }
+
+    @Test
+    void givenRateOlderThanTtl_whenIsStale_thenReturnTrue() {
+        // given
+        ExchangeRate fresh = new ExchangeRate(FROM, TO, RATE, Instant.now());
+        ExchangeRate expired = new ExchangeRate(FROM, TO, RATE, Instant.now().minus(RATE_TTL).minusSeconds(1));
+
+        // when / then
+        assertThat(client.isStale(fresh)).isFalse();
+        assertThat(client.isStale(expired)).isTrue();
     }
 
     @Test
@@ -71,20 +281,20 @@ class CurrencyConversionClientTest {
         // when / then
         assertThatThrownBy(() -> client.convert(AMOUNT, FROM, TO))
                 .isInstanceOf(CurrencyConversionException.class)
-                .hasMessage("Currency conversion for amount " + AMOUNT + " from " + FROM + " to " + TO + " failed");
+                .hasMessage("Exchange rate lookup from " + FROM + " to " + TO + " failed");
     }
 
     @Test
     void givenNullResultInResponse_whenConvert_thenThrowCurrencyConversionException() {
         // given
-        CurrencyConversionResponse resp = new CurrencyConversionResponse(AMOUNT, FROM, TO, null);
+        CurrencyConversionResponse resp = new CurrencyConversionResponse(BigDecimal.ONE, FROM, TO, null);
         when(mockRestTemplate.getForObject(anyString(), eq(CurrencyConversionResponse.class)))
                 .thenReturn(resp);
 
         // when / then
         assertThatThrownBy(() -> client.convert(AMOUNT, FROM, TO))
                 .isInstanceOf(CurrencyConversionException.class)
-                .hasMessage("Currency conversion for amount " + AMOUNT + " from " + FROM + " to " + TO + " failed");
+                .hasMessage("Exchange rate lookup from " + FROM + " to " + TO + " failed");
     }
 
     @Test
@@ -0,0 +1,64 @@
+package com.vb.fundraiser.client;
+
+import com.vb.fundraiser.exception.currency.CurrencyConversionException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ExchangeRateTableTest {
+    private static final Instant FETCHED_AT = Instant.parse("2025-05-01T10:00:00Z");
+
+    private final ExchangeRateTable table = new ExchangeRateTable(
+            "USD",
+            Map.of(
+                    "EUR", new BigDecimal("0.88"),
+                    "PLN", new BigDecimal("3.76"),
+                    "JPY", new BigDecimal("143.5")
+            ),
+            FETCHED_AT,
+            new MathContext(10, RoundingMode.HALF_EVEN)
+    );
+
+    @Test
+    void givenBaseAsSource_whenCrossRate_thenReturnTableRate() {
+        // when
+        ExchangeRate rate = table.crossRate("USD", "PLN");
+
+        // then
+        assertThat(rate.rate()).isEqualByComparingTo("3.76");
+        assertThat(rate.fetchedAt()).isEqualTo(FETCHED_AT);
+    }
+
+    @Test
+    void givenBaseAsTarget_whenCrossRate_thenReturnInverseRate() {
+        // when / then
+        assertThat(table.crossRate("EUR", "USD").rate()).isEqualByComparingTo("1.136363636");
+    }
+
+    @Test
+    void givenTwoNonBaseCurrencies_whenCrossRate_thenDivideTheirBaseRatesWithConfiguredPrecision() {
+        // when / then
+        assertThat(table.crossRate("EUR", "PLN").rate()).isEqualByComparingTo("4.272727273");
+        assertThat(table.crossRate("PLN", "JPY").rate()).isEqualByComparingTo("38.16489362");
+    }
+
+    @Test
+    void givenSameCurrency_whenCrossRate_thenReturnOne() {
+        // when / then
+        assertThat(table.crossRate("JPY", "JPY").rate()).isEqualByComparingTo(BigDecimal.ONE);
+    }
+
+    @Test
+    void givenUnknownCurrency_whenCrossRate_thenThrowCurrencyConversionException() {
+        // when / then
+        assertThatThrownBy(() -> table.crossRate("EUR", "XYZ"))
+                .isInstanceOf(CurrencyConversionException.class)
+                .hasMessage("Exchange rate lookup from USD to XYZ failed");
+    }
+}
@@ -0,0 +1,56 @@
+package com.vb.fundraiser.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.vb.fundraiser.model.dto.BalanceChangeMessage;
+import com.vb.fundraiser.model.entity.OutboxMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NdjsonFileOutboxSinkTest {
+    @TempDir
+    Path dir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private Path file;
+    private NdjsonFileOutboxSink sink;
+
+    @BeforeEach
+    void setUp() {
+        file = dir.resolve("balance-changes.ndjson");
+        sink = new NdjsonFileOutboxSink(objectMapper, file);
+    }
+
+    @Test
+    void givenSeveralBatches_whenPublish_thenAppendOneJsonObjectPerLine() throws IOException {
+        // when
+        sink.publish(List.of(message(1L, OutboxMessage.Type.EVENT_CREATED, "0"), message(2L, OutboxMessage.Type.BALANCE_CREDITED, "12.5")));
+        sink.publish(List.of(message(3L, OutboxMessage.Type.BALANCE_CREDITED, "3")));
+
+        // then
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(3);
+        BalanceChangeMessage second = objectMapper.readValue(lines.get(1), BalanceChangeMessage.class);
+        assertThat(second).isEqualTo(message(2L, OutboxMessage.Type.BALANCE_CREDITED, "12.5"));
+        assertThat(lines.getFirst()).contains("\"type\":\"EVENT_CREATED\"", "\"occurredAt\":\"2026-01-01T12:00:00Z\"");
+        assertThat(objectMapper.readValue(lines.get(2), BalanceChangeMessage.class).messageId()).isEqualTo(3L);
+    }
+
+    private BalanceChangeMessage message(Long id, OutboxMessage.Type type, String amount) {
+        return new BalanceChangeMessage(id, type, 10L, "EUR", new BigDecimal(amount), "emptyBox",
+                Instant.parse("2026-01-01T12:00:00Z"));
+    }
+}
@@ -0,0 +1,88 @@
+package com.vb.fundraiser.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SingleFlightTest {
+    private static final int CALLERS = 8;
+
+    private final SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+
+    @Test
+    void givenConcurrentCallsForSameKey_whenExecute_thenRunOnceAndShareResult() throws Exception {
+        // given
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        // when
+        List<Future<Integer>> results = runConcurrently(() -> singleFlight.execute("PLN:EUR", () -> {
+            executions.incrementAndGet();
+            await(release);
+            return 42;
+        }), release);
+
+        // then
+        for (Future<Integer> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+        }
+        assertThat(executions).hasValue(1);
+        assertThat(singleFlight.inFlightCount()).isZero();
+    }
+
+    @Test
+    void givenSharedCallFails_whenExecute_thenEveryWaiterGetsErrorAndNextCallRetries() throws Exception {
+        // given
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        // when
+        List<Future<Integer>> results = runConcurrently(() -> singleFlight.execute("PLN:EUR", () -> {
+            executions.incrementAndGet();
+            await(release);
+            throw new IllegalStateException("remote failure");
+        }), release);
+
+        // then
+        for (Future<Integer> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasRootCauseMessage("remote failure");
+        }
+        assertThat(executions).hasValue(1);
+        assertThat(singleFlight.execute("PLN:EUR", () -> 7)).isEqualTo(7);
+    }
+
+    @Test
+    void givenDifferentKeys_whenExecute_thenRunIndependently() {
+        // when / then
+        assertThat(singleFlight.execute("PLN:EUR", () -> 1)).isEqualTo(1);
+        assertThat(singleFlight.execute("USD:EUR", () -> 2)).isEqualTo(2);
+    }
+
+    private List<Future<Integer>> runConcurrently(Callable<Integer> call, CountDownLatch release) throws InterruptedException {
+        List<Future<Integer>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(call));
+            }
+            // give every caller the chance to join the in-flight call before it completes
+            Thread.sleep(200);
+            release.countDown();
+        }
+        return results;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.vb.fundraiser.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vb.fundraiser.exception.currency.CurrencyConversionException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SnapshotRateProviderTest {
+    @TempDir
+    private Path dir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void givenJsonSnapshot_whenGetExchangeRate_thenDeriveCrossRate() throws IOException {
+        // given
+        Path file = Files.writeString(dir.resolve("rates.json"), """
+                {"base": "USD", "rates": {"EUR": 0.8, "PLN": 4}}
+                """);
+        SnapshotRateProvider provider = new SnapshotRateProvider(objectMapper, file, "USD", 20);
+
+        // when / then
+        assertThat(provider.getExchangeRate("EUR", "PLN").rate()).isEqualByComparingTo("5");
+        assertThat(provider.getExchangeRate("USD", "EUR").rate()).isEqualByComparingTo("0.8");
+    }
+
+    @Test
+    void givenCsvSnapshot_whenGetExchangeRate_thenDeriveCrossRate() throws IOException {
+        // given
+        Path file = Files.writeString(dir.resolve("rates.csv"), """
+                currency,rate
+                # rates against USD
+                EUR,0.8
+                gbp,0.75
+                """);
+        SnapshotRateProvider provider = new SnapshotRateProvider(objectMapper, file, "USD", 20);
+
+        // when / then
+        assertThat(provider.getExchangeRate("GBP", "EUR").rate()).isEqualByComparingTo("1.0666666666666666667");
+        assertThatThrownBy(() -> provider.getExchangeRate("EUR", "JPY"))
+                .isInstanceOf(CurrencyConversionException.class);
+    }
+
+    @Test
+    void givenSnapshotChangedOnDisk_whenReloadIfChanged_thenServeNewRatesAndMarkOldOnesStale() throws IOException {
+        // given
+        Path file = Files.writeString(dir.resolve("rates.csv"), "EUR,0.8\n");
+        SnapshotRateProvider provider = new SnapshotRateProvider(objectMapper, file, "USD", 20);
+        ExchangeRate before = provider.getExchangeRate("USD", "EUR");
+
+        Files.writeString(file, "EUR,0.9\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(60)));
+
+        // when
+        provider.reloadIfChanged();
+
+        // then
+        assertThat(provider.getExchangeRate("USD", "EUR").rate()).isEqualByComparingTo("0.9");
+        assertThat(provider.isStale(before)).isTrue();
+        assertThat(provider.isStale(provider.getExchangeRate("USD", "EUR"))).isFalse();
+    }
+
+    @Test
+    void givenMalformedSnapshotOnReload_whenReloadIfChanged_thenKeepPreviousRates() throws IOException {
+        // given
+        Path file = Files.writeString(dir.resolve("rates.csv"), "EUR,0.8\n");
+        SnapshotRateProvider provider = new SnapshotRateProvider(objectMapper, file, "USD", 20);
+
+        Files.writeString(file, "EUR;broken\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(60)));
+
+        // when
+        provider.reloadIfChanged();
+
+        // then
+        assertThat(provider.getExchangeRate("USD", "EUR").rate()).isEqualByComparingTo("0.8");
+    }
+}
@@ -5,9 +5,24 @@ import com.vb.fundraiser.exception.box.*;
 import com.vb.fundraiser.exception.currency.CurrencyNotFoundException;
 import com.vb.fundraiser.exception.currency.InvalidMoneyAmountException;
 import com.vb.fundraiser.exception.event.FundraisingEventNotFoundException;
+import com.vb.fundraiser.model.dto.BoxRegistrationDTO;
 import com.vb.fundraiser.model.dto.CollectionBoxDTO;
+import com.vb.fundraiser.model.dto.CursorSlice;
+import com.vb.fundraiser.model.dto.DonationBatchResultDTO;
+import com.vb.fundraiser.model.dto.DonationOutcomeDTO;
+import com.vb.fundraiser.model.dto.IdRange;
+import com.vb.fundraiser.model.dto.PendingTransferDTO;
+import com.vb.fundraiser.model.dto.RevaluationDTO;
+import com.vb.fundraiser.model.entity.PendingTransfer;
+import com.vb.fundraiser.model.request.AddMoneyBatchRequest;
 import com.vb.fundraiser.model.request.AddMoneyRequest;
+import com.vb.fundraiser.model.request.DonationRecord;
+import com.vb.fundraiser.model.request.RegisterBoxesRequest;
+import com.vb.fundraiser.service.BalanceRevaluationService;
+import com.vb.fundraiser.service.BoxRegistrationService;
 import com.vb.fundraiser.service.CollectionBoxService;
+import com.vb.fundraiser.service.DonationBatchService;
+import com.vb.fundraiser.service.TransferSettlementService;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,6 +34,7 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 
 import static org.hamcrest.Matchers.containsString;
@@ -39,6 +55,18 @@ class CollectionBoxControllerTest {
     @MockitoBean
     private CollectionBoxService boxService;
 
+    @MockitoBean
+    private BoxRegistrationService registrationService;
+
+    @MockitoBean
+    private DonationBatchService donationBatchService;
+
+    @MockitoBean
+    private BalanceRevaluationService revaluationService;
+
+    @MockitoBean
+    private TransferSettlementService settlementService;
+
     private static final Long BOX_ID = 1L;
     private static final Long EVENT_ID = 100L;
 
@@ -57,6 +85,42 @@ class CollectionBoxControllerTest {
                     .andExpect(jsonPath("$.assigned").value(false))
                     .andExpect(jsonPath("$.empty").value(true));
         }
+
+        @Test
+        void givenBoxCount_whenRegisterBoxes_thenReturnIdRanges() throws Exception {
+            // given
+            when(registrationService.registerBoxes(3, null))
+                    .thenReturn(new BoxRegistrationDTO(3, 3, List.of(new IdRange(51, 52), new IdRange(101, 101)), null, null));
+
+            // when / then
+            mockMvc.perform(post("/api/v1/boxes/bulk")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new RegisterBoxesRequest(3, null))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.registered").value(3))
+                    .andExpect(jsonPath("$.ids[0].first").value(51))
+                    .andExpect(jsonPath("$.ids[0].last").value(52))
+                    .andExpect(jsonPath("$.ids[1].first").value(101));
+        }
+
+        @Test
+        void givenBlankLabelOrTakenLabel_whenRegisterBoxes_thenReturnBadRequest() throws Exception {
+            // given
+            when(registrationService.registerBoxes(null, List.of("WAW-1")))
+                    .thenThrow(new BoxLabelAlreadyExistsException(List.of("WAW-1")));
+
+            // when / then
+            mockMvc.perform(post("/api/v1/boxes/bulk")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new RegisterBoxesRequest(null, List.of(" ")))))
+                    .andExpect(status().isBadRequest());
+
+            mockMvc.perform(post("/api/v1/boxes/bulk")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new RegisterBoxesRequest(null, List.of("WAW-1")))))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value(containsString("WAW-1")));
+        }
     }
 
     @Nested
@@ -87,6 +151,33 @@ class CollectionBoxControllerTest {
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$.content.length()").value(0));
         }
+
+        @Test
+        void givenCursorParameter_whenGetBoxes_thenReturnCursorSlice() throws Exception {
+            // given
+            CursorSlice<CollectionBoxDTO> slice = new CursorSlice<>(List.of(new CollectionBoxDTO(3L, true, false)), 1, true, "next");
+            when(boxService.getBoxesAfter("abc", 1, "desc")).thenReturn(slice);
+
+            // when / then
+            mockMvc.perform(get("/api/v1/boxes").param("cursor", "abc").param("size", "1").param("direction", "desc"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content[0].id").value(3))
+                    .andExpect(jsonPath("$.hasNext").value(true))
+                    .andExpect(jsonPath("$.nextCursor").value("next"))
+                    .andExpect(jsonPath("$.totalElements").doesNotExist());
+        }
+
+        @Test
+        void givenInvalidCursor_whenGetBoxes_thenReturnBadRequest() throws Exception {
+            // given
+            when(boxService.getBoxesAfter("garbage", 10, "asc"))
+                    .thenThrow(new IllegalArgumentException("Invalid pagination cursor"));
+
+            // when / then
+            mockMvc.perform(get("/api/v1/boxes").param("cursor", "garbage"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value("Invalid pagination cursor"));
+        }
     }
 
     @Nested
@@ -210,6 +301,39 @@ class CollectionBoxControllerTest {
         }
     }
 
+    @Nested
+    class AddMoneyBatch {
+        @Test
+        void givenMixedRecords_whenAddMoneyBatch_thenReturnOutcomePerRecord() throws Exception {
+            // given
+            List<DonationRecord> records = List.of(
+                    new DonationRecord(BOX_ID, "EUR", BigDecimal.TEN),
+                    new DonationRecord(BOX_ID, "ZZZ", BigDecimal.ONE));
+            when(donationBatchService.addMoneyBatch(records)).thenReturn(new DonationBatchResultDTO(1, 1, 0, List.of(
+                    new DonationOutcomeDTO(0, DonationOutcomeDTO.Status.ACCEPTED, null),
+                    new DonationOutcomeDTO(1, DonationOutcomeDTO.Status.REJECTED, "Currency 'ZZZ' not found or unsupported"))));
+
+            // when / then
+            mockMvc.perform(post("/api/v1/boxes/donations")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new AddMoneyBatchRequest(records))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.accepted").value(1))
+                    .andExpect(jsonPath("$.rejected").value(1))
+                    .andExpect(jsonPath("$.outcomes[1].status").value("REJECTED"))
+                    .andExpect(jsonPath("$.outcomes[1].error").value("Currency 'ZZZ' not found or unsupported"));
+        }
+
+        @Test
+        void givenEmptyBatch_whenAddMoneyBatch_thenReturnBadRequest() throws Exception {
+            // when / then
+            mockMvc.perform(post("/api/v1/boxes/donations")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new AddMoneyBatchRequest(List.of()))))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
     @Nested
     class EmptyBox {
         @Test
@@ -232,4 +356,49 @@ class CollectionBoxControllerTest {
                     .andExpect(jsonPath("$.message").exists());
         }
     }
+
+    @Nested
+    class EmptyBoxDeferred {
+        @Test
+        void givenBoxIsValid_whenEmptyBoxAsync_thenReturnAcceptedWithTransferLocation() throws Exception {
+            // given
+            PendingTransferDTO transfer = new PendingTransferDTO(77L, BOX_ID, EVENT_ID, PendingTransfer.Status.PENDING,
+                    "EUR", null, 0, null, Instant.now(), null);
+            when(boxService.emptyBoxDeferred(BOX_ID)).thenReturn(transfer);
+
+            // when / then
+            mockMvc.perform(post("/api/v1/boxes/{id}/empty", BOX_ID).param("async", "true"))
+                    .andExpect(status().isAccepted())
+                    .andExpect(header().string("Location", "/api/v1/boxes/transfers/77"))
+                    .andExpect(jsonPath("$.transferId").value(77))
+                    .andExpect(jsonPath("$.status").value("PENDING"));
+        }
+
+        @Test
+        void givenUnknownTransfer_whenGetTransfer_thenReturnNotFound() throws Exception {
+            // given
+            when(settlementService.getTransfer(5L)).thenThrow(new TransferNotFoundException(5L));
+
+            // when / then
+            mockMvc.perform(get("/api/v1/boxes/transfers/{id}", 5L))
+                    .andExpect(status().isNotFound())
+                    .andExpect(jsonPath("$.message").value("Transfer with ID 5 not found"));
+        }
+    }
+
+    @Nested
+    class RevalueBalances {
+        @Test
+        void givenOutstandingBalances_whenRevalueBalances_thenReturnCounts() throws Exception {
+            // given
+            when(revaluationService.revalue()).thenReturn(new RevaluationDTO(12, 5, 1));
+
+            // when / then
+            mockMvc.perform(post("/api/v1/boxes/revaluation"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.checked").value(12))
+                    .andExpect(jsonPath("$.repriced").value(5))
+                    .andExpect(jsonPath("$.skipped").value(1));
+        }
+    }
 }
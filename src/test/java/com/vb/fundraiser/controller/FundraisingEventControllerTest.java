@@ -2,9 +2,14 @@ package com.vb.fundraiser.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.vb.fundraiser.exception.currency.CurrencyNotFoundException;
+import com.vb.fundraiser.exception.event.FundraisingEventNotFoundException;
+import com.vb.fundraiser.model.dto.CursorSlice;
+import com.vb.fundraiser.model.dto.EventEmptyingDTO;
 import com.vb.fundraiser.model.dto.FundraisingEventDTO;
 import com.vb.fundraiser.model.request.CreateEventRequest;
+import com.vb.fundraiser.service.EventEmptyingService;
 import com.vb.fundraiser.service.FundraisingEventService;
+import com.vb.fundraiser.util.ReportFormat;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -13,17 +18,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -40,6 +50,9 @@ class FundraisingEventControllerTest {
     @MockitoBean
     private FundraisingEventService eventService;
 
+    @MockitoBean
+    private EventEmptyingService emptyingService;
+
     private static final String EVENT_NAME = "Charity";
     private static final String CURRENCY_CODE = "EUR";
     private static final BigDecimal AMOUNT = BigDecimal.ZERO;
@@ -111,6 +124,32 @@ class FundraisingEventControllerTest {
         }
     }
 
+    @Nested
+    class EmptyEventBoxes {
+        @Test
+        void givenEventWithBoxes_whenEmptyEventBoxes_thenReturnSummary() throws Exception {
+            // given
+            when(emptyingService.emptyEventBoxes(1L))
+                    .thenReturn(new EventEmptyingDTO(1L, CURRENCY_CODE, 120, 0, new BigDecimal("845.10")));
+
+            // when / then
+            mockMvc.perform(post("/api/v1/events/{eventId}/empty-boxes", 1L))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.boxesEmptied").value(120))
+                    .andExpect(jsonPath("$.transferred").value(845.10));
+        }
+
+        @Test
+        void givenUnknownEvent_whenEmptyEventBoxes_thenReturnNotFound() throws Exception {
+            // given
+            when(emptyingService.emptyEventBoxes(99L)).thenThrow(new FundraisingEventNotFoundException(99L));
+
+            // when / then
+            mockMvc.perform(post("/api/v1/events/{eventId}/empty-boxes", 99L))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
     @Nested
     class GetFinancialReport {
         @Test
@@ -139,19 +178,80 @@ class FundraisingEventControllerTest {
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$.content.length()").value(0));
         }
+
+        @Test
+        void givenEmptyCursor_whenGetFinancialReport_thenReturnFirstCursorSlice() throws Exception {
+            // given
+            CursorSlice<FundraisingEventDTO> slice = new CursorSlice<>(List.of(eventDto), 10, false, null);
+            when(eventService.getFinancialReportAfter("", 10, "accountBalance", "asc")).thenReturn(slice);
+
+            // when / then
+            mockMvc.perform(get("/api/v1/events").param("cursor", "").param("sort", "accountBalance"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content[0].name").value(EVENT_NAME))
+                    .andExpect(jsonPath("$.hasNext").value(false))
+                    .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        }
     }
 
     @Nested
-    class GenerateHtmlReport {
+    class StreamReport {
         @Test
-        void givenDefaultParameters_whenGenerateHtmlReport_thenReturnHtml() throws Exception {
+        void givenDefaultParameters_whenGetHtmlReport_thenStreamHtml() throws Exception {
+            // given
+            Sort sort = Sort.by("name");
+            when(eventService.reportSort("name", "asc")).thenReturn(sort);
+            doAnswer(invocation -> {
+                invocation.getArgument(2, OutputStream.class).write("<html>ok</html>".getBytes(StandardCharsets.UTF_8));
+                return null;
+            }).when(eventService).writeReport(eq(ReportFormat.HTML), eq(sort), any());
+
             // when
-            when(eventService.generateHtmlReport("name", "asc")).thenReturn("<html>ok</html>");
+            MvcResult result = mockMvc.perform(get("/api/v1/events/table"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
 
             // then
-            mockMvc.perform(get("/api/v1/events/table"))
+            mockMvc.perform(asyncDispatch(result))
                     .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_HTML))
                     .andExpect(content().string(containsString("<html>")));
         }
+
+        @Test
+        void givenCsvAndNdjsonEndpoints_whenGetReport_thenStreamInRequestedFormat() throws Exception {
+            // given
+            when(eventService.reportSort("accountBalance", "desc")).thenReturn(Sort.by(Sort.Direction.DESC, "accountBalance"));
+
+            // when
+            MvcResult csv = mockMvc.perform(get("/api/v1/events/csv").param("sort", "accountBalance").param("direction", "desc"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            MvcResult ndjson = mockMvc.perform(get("/api/v1/events/ndjson").param("sort", "accountBalance").param("direction", "desc"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            // then
+            mockMvc.perform(asyncDispatch(csv))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith("text/csv"));
+            mockMvc.perform(asyncDispatch(ndjson))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON));
+            verify(eventService).writeReport(eq(ReportFormat.CSV), any(), any());
+            verify(eventService).writeReport(eq(ReportFormat.NDJSON), any(), any());
+        }
+
+        @Test
+        void givenInvalidDirection_whenGetCsvReport_thenReturnBadRequestWithoutStreaming() throws Exception {
+            // given
+            when(eventService.reportSort("name", "sideways"))
+                    .thenThrow(new IllegalArgumentException("Sort direction must be 'asc' or 'desc'"));
+
+            // when / then
+            mockMvc.perform(get("/api/v1/events/csv").param("direction", "sideways"))
+                    .andExpect(status().isBadRequest());
+            verify(eventService, never()).writeReport(any(), any(), any());
+        }
     }
 }
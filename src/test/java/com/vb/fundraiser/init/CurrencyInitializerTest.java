@@ -2,6 +2,7 @@ package com.vb.fundraiser.init;
 
 import com.vb.fundraiser.model.entity.Currency;
 import com.vb.fundraiser.repository.CurrencyRepository;
+import com.vb.fundraiser.service.CurrencyRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
@@ -19,6 +20,9 @@ class CurrencyInitializerTest {
     @Mock
     private CurrencyRepository currencyRepository;
 
+    @Mock
+    private CurrencyRegistry currencyRegistry;
+
     @InjectMocks
     private CurrencyInitializer initializer;
 
@@ -59,6 +63,7 @@ class CurrencyInitializerTest {
 
         // then
         verify(currencyRepository, never()).saveAll(any());
+        verify(currencyRegistry).refresh();
     }
 
     @Test
@@ -0,0 +1,183 @@
+package com.vb.fundraiser.repository;
+
+import com.vb.fundraiser.model.dto.AmountPricing;
+import com.vb.fundraiser.model.dto.HeldAmount;
+import com.vb.fundraiser.model.entity.BoxCurrencyAmount;
+import com.vb.fundraiser.model.entity.CollectionBox;
+import com.vb.fundraiser.model.entity.Currency;
+import com.vb.fundraiser.model.entity.FundraisingEvent;
+import com.vb.fundraiser.repository.BoxCurrencyAmountBatchRepository.AmountIncrement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+class BoxCurrencyAmountRepositoryTest {
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BoxCurrencyAmountRepository amountRepository;
+
+    private CollectionBox box;
+    private Currency eur;
+    private Currency usd;
+    private BoxCurrencyAmount eurAmount;
+
+    @BeforeEach
+    void setUp() {
+        eur = entityManager.persist(Currency.builder().code("EUR").build());
+        usd = entityManager.persist(Currency.builder().code("USD").build());
+        box = entityManager.persist(CollectionBox.builder().build());
+        eurAmount = entityManager.persist(BoxCurrencyAmount.builder().box(box).currency(eur).amount(new BigDecimal("10.50")).build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void givenExistingEntry_whenAddToAmount_thenIncrementInDatabase() {
+        // when
+        int updated = amountRepository.addToAmount(box.getId(), eur.getId(), new BigDecimal("2.25"), null);
+
+        // then
+        BoxCurrencyAmount reloaded = entityManager.find(BoxCurrencyAmount.class, eurAmount.getId());
+        assertThat(updated).isEqualTo(1);
+        assertThat(reloaded.getAmount()).isEqualByComparingTo("12.75");
+        assertThat(reloaded.getVersion()).isEqualTo(eurAmount.getVersion() + 1);
+    }
+
+    @Test
+    void givenExistingAndMissingEntries_whenAddToAmounts_thenIncrementInOneBatchAndReportMissingRows() {
+        // given
+        BoxCurrencyAmount priced = entityManager.persist(BoxCurrencyAmount.builder()
+                .box(box).currency(usd).amount(BigDecimal.TEN).convertedAmount(new BigDecimal("9")).build());
+        CollectionBox other = entityManager.persist(CollectionBox.builder().build());
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        int[] updated = amountRepository.addToAmounts(List.of(
+                new AmountIncrement(box.getId(), eur.getId(), new BigDecimal("2.25")),
+                new AmountIncrement(box.getId(), usd.getId(), BigDecimal.ONE),
+                new AmountIncrement(other.getId(), eur.getId(), BigDecimal.ONE)));
+
+        // then
+        assertThat(updated).containsExactly(1, 1, 0);
+        BoxCurrencyAmount reloadedEur = entityManager.find(BoxCurrencyAmount.class, eurAmount.getId());
+        assertThat(reloadedEur.getAmount()).isEqualByComparingTo("12.75");
+        assertThat(reloadedEur.getVersion()).isEqualTo(eurAmount.getVersion() + 1);
+        BoxCurrencyAmount reloadedUsd = entityManager.find(BoxCurrencyAmount.class, priced.getId());
+        assertThat(reloadedUsd.getAmount()).isEqualByComparingTo("11");
+        assertThat(reloadedUsd.getConvertedAmount()).isNull();
+    }
+
+    @Test
+    void givenPricedEntry_whenAddToAmount_thenAddConvertedValueOrLeaveRowUnpriced() {
+        // given
+        BoxCurrencyAmount priced = entityManager.persist(BoxCurrencyAmount.builder()
+                .box(box).currency(usd).amount(BigDecimal.TEN).convertedAmount(new BigDecimal("9")).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        amountRepository.addToAmount(box.getId(), usd.getId(), BigDecimal.ONE, new BigDecimal("0.9"));
+        BigDecimal afterPricedDeposit = entityManager.find(BoxCurrencyAmount.class, priced.getId()).getConvertedAmount();
+        entityManager.clear();
+        amountRepository.addToAmount(box.getId(), usd.getId(), BigDecimal.ONE, null);
+
+        // then
+        assertThat(afterPricedDeposit).isEqualByComparingTo("9.9");
+        assertThat(entityManager.find(BoxCurrencyAmount.class, priced.getId()).getConvertedAmount()).isNull();
+    }
+
+    @Test
+    void givenAmountsOfSeveralEvents_whenFindPricingAfter_thenPageNonEmptyAssignedRowsById() {
+        // given
+        FundraisingEvent event = entityManager.persist(FundraisingEvent.builder()
+                .name("Charity").currency(eur).accountBalance(BigDecimal.ZERO).build());
+        CollectionBox assigned = entityManager.persist(CollectionBox.builder().event(event).build());
+        BoxCurrencyAmount usdAmount = entityManager.persist(BoxCurrencyAmount.builder().box(assigned).currency(usd).amount(BigDecimal.TEN).build());
+        BoxCurrencyAmount eurHeld = entityManager.persist(BoxCurrencyAmount.builder()
+                .box(entityManager.persist(CollectionBox.builder().event(event).build())).currency(eur).amount(BigDecimal.ONE).build());
+        Currency pln = entityManager.persist(Currency.builder().code("PLN").build());
+        entityManager.persist(BoxCurrencyAmount.builder().box(assigned).currency(pln).amount(BigDecimal.ZERO).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        List<AmountPricing> first = amountRepository.findPricingAfter(0L, Limit.of(1));
+        List<AmountPricing> rest = amountRepository.findPricingAfter(first.getLast().id(), Limit.of(10));
+
+        // then
+        assertThat(first).containsExactly(new AmountPricing(usdAmount.getId(), "USD", "EUR"));
+        assertThat(rest).containsExactly(new AmountPricing(eurHeld.getId(), "EUR", "EUR"));
+    }
+
+    @Test
+    void givenNoEntryForCurrency_whenAddToAmount_thenUpdateNothing() {
+        // when / then
+        assertThat(amountRepository.addToAmount(box.getId(), usd.getId(), BigDecimal.ONE, null)).isZero();
+    }
+
+    @Test
+    void givenBoxesOfEvent_whenLockingAndZeroingAmounts_thenOnlyNonEmptyRowsAreZeroed() {
+        // given
+        Currency pln = entityManager.persist(Currency.builder().code("PLN").build());
+        FundraisingEvent event = entityManager.persist(FundraisingEvent.builder()
+                .name("Charity").currency(pln).accountBalance(BigDecimal.ZERO).build());
+        CollectionBox assigned = entityManager.persist(CollectionBox.builder().event(event).build());
+        BoxCurrencyAmount usdAmount = entityManager.persist(BoxCurrencyAmount.builder().box(assigned).currency(usd).amount(BigDecimal.TEN).build());
+        entityManager.persist(BoxCurrencyAmount.builder().box(assigned).currency(pln).amount(BigDecimal.ZERO).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        List<HeldAmount> held = amountRepository.findHeldAmounts(event.getId());
+        List<BoxCurrencyAmount> locked = amountRepository.lockNonEmptyAmounts(event.getId(), List.of(assigned.getId(), box.getId()));
+        int zeroed = amountRepository.zeroAmounts(locked.stream().map(BoxCurrencyAmount::getId).toList());
+
+        // then
+        assertThat(held).containsExactly(new HeldAmount(usdAmount.getId(), assigned.getId(), "USD", new BigDecimal("10.000000"), null));
+        assertThat(locked).extracting(BoxCurrencyAmount::getId).containsExactly(usdAmount.getId());
+        assertThat(zeroed).isEqualTo(1);
+        BoxCurrencyAmount reloaded = entityManager.find(BoxCurrencyAmount.class, usdAmount.getId());
+        assertThat(reloaded.getAmount()).isZero();
+        assertThat(reloaded.getVersion()).isEqualTo(usdAmount.getVersion() + 1);
+        assertThat(entityManager.find(BoxCurrencyAmount.class, eurAmount.getId()).getAmount()).isEqualByComparingTo("10.50");
+    }
+
+    @Test
+    void givenBoxUnregisteredAfterIdsWereRead_whenLockNonEmptyAmounts_thenSkipIt() {
+        // given
+        FundraisingEvent event = entityManager.persist(FundraisingEvent.builder()
+                .name("Charity").currency(eur).accountBalance(BigDecimal.ZERO).build());
+        CollectionBox kept = entityManager.persist(CollectionBox.builder().event(event).build());
+        CollectionBox unregistered = entityManager.persist(CollectionBox.builder().event(event).build());
+        BoxCurrencyAmount keptAmount = entityManager.persist(BoxCurrencyAmount.builder().box(kept).currency(usd).amount(BigDecimal.TEN).build());
+        entityManager.persist(BoxCurrencyAmount.builder().box(unregistered).currency(usd).amount(BigDecimal.ONE).build());
+        entityManager.flush();
+        entityManager.clear();
+        List<Long> boxIds = amountRepository.findHeldAmounts(event.getId()).stream().map(HeldAmount::boxId).toList();
+
+        CollectionBox removed = entityManager.find(CollectionBox.class, unregistered.getId());
+        removed.setDeleted(true);
+        removed.getAmounts().forEach(a -> a.setDeleted(true));
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        List<BoxCurrencyAmount> locked = amountRepository.lockNonEmptyAmounts(event.getId(), boxIds);
+
+        // then
+        assertThat(boxIds).containsExactly(kept.getId(), unregistered.getId());
+        assertThat(locked).extracting(BoxCurrencyAmount::getId).containsExactly(keptAmount.getId());
+    }
+}
@@ -0,0 +1,111 @@
+package com.vb.fundraiser.repository;
+
+import com.vb.fundraiser.model.dto.CollectionBoxDTO;
+import com.vb.fundraiser.model.entity.BoxCurrencyAmount;
+import com.vb.fundraiser.model.entity.CollectionBox;
+import com.vb.fundraiser.model.entity.Currency;
+import com.vb.fundraiser.model.entity.FundraisingEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+class CollectionBoxRepositoryTest {
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CollectionBoxRepository boxRepository;
+
+    private Currency usd;
+    private FundraisingEvent event;
+
+    @BeforeEach
+    void setUp() {
+        usd = entityManager.persist(Currency.builder().code("USD").build());
+        event = entityManager.persist(FundraisingEvent.builder()
+                .name("Charity")
+                .currency(usd)
+                .accountBalance(BigDecimal.ZERO)
+                .build());
+    }
+
+    @Test
+    void givenBoxesInDifferentStates_whenFindBoxSummaries_thenComputeAssignedAndEmptyFlags() {
+        // given
+        Long unassignedEmpty = persistBox(null, null);
+        Long assignedEmptied = persistBox(event, BigDecimal.ZERO);
+        Long unassignedFunded = persistBox(null, new BigDecimal("12.50"));
+        persistDeletedBox();
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        Page<CollectionBoxDTO> page = boxRepository.findBoxSummaries(PageRequest.of(0, 10, Sort.by("id")));
+
+        // then
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getContent()).containsExactly(
+                new CollectionBoxDTO(unassignedEmpty, false, true),
+                new CollectionBoxDTO(assignedEmptied, true, true),
+                new CollectionBoxDTO(unassignedFunded, false, false));
+    }
+
+    @Test
+    void givenMoreBoxesThanPageSize_whenFindBoxSummaries_thenCountOnlyNonDeletedBoxes() {
+        // given
+        persistBox(null, null);
+        persistBox(null, null);
+        Long last = persistBox(event, BigDecimal.ONE);
+        persistDeletedBox();
+
+        // when
+        Page<CollectionBoxDTO> page = boxRepository.findBoxSummaries(PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "id")));
+
+        // then
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getContent()).containsExactly(new CollectionBoxDTO(last, true, false));
+    }
+
+    @Test
+    void givenCursorId_whenSeekingBoxSummaries_thenSkipDeletedBoxesAndStartPastCursor() {
+        // given
+        Long first = persistBox(null, null);
+        Long second = persistBox(event, BigDecimal.ONE);
+        persistDeletedBox();
+        Long third = persistBox(null, null);
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        List<CollectionBoxDTO> after = boxRepository.findBoxSummariesAfter(first, Limit.of(10));
+        List<CollectionBoxDTO> before = boxRepository.findBoxSummariesBefore(third, Limit.of(1));
+
+        // then
+        assertThat(after).extracting(CollectionBoxDTO::id).containsExactly(second, third);
+        assertThat(before).containsExactly(new CollectionBoxDTO(second, true, false));
+    }
+
+    private Long persistBox(FundraisingEvent assignedEvent, BigDecimal amount) {
+        CollectionBox box = entityManager.persist(CollectionBox.builder().event(assignedEvent).build());
+        if (amount != null) {
+            entityManager.persist(BoxCurrencyAmount.builder().box(box).currency(usd).amount(amount).build());
+        }
+        return box.getId();
+    }
+
+    private void persistDeletedBox() {
+        entityManager.persist(CollectionBox.builder().isDeleted(true).build());
+    }
+}
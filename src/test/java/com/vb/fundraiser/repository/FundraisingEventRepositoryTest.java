@@ -0,0 +1,176 @@
+package com.vb.fundraiser.repository;
+
+import com.vb.fundraiser.model.dto.FundraisingEventDTO;
+import com.vb.fundraiser.model.entity.Currency;
+import com.vb.fundraiser.model.entity.EventBalanceShard;
+import com.vb.fundraiser.model.entity.FundraisingEvent;
+import com.vb.fundraiser.util.EventSortField;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class FundraisingEventRepositoryTest {
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private FundraisingEventRepository eventRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Currency eur;
+    private Currency usd;
+
+    @BeforeEach
+    void setUp() {
+        eur = entityManager.persist(Currency.builder().code("EUR").build());
+        usd = entityManager.persist(Currency.builder().code("USD").build());
+    }
+
+    @Test
+    void givenEventsWithPendingShardCredits_whenStreamReport_thenFoldShardsIntoSortedRows() {
+        // given
+        FundraisingEvent sharded = persistEvent("Shelter", usd, new BigDecimal("10"));
+        persistEvent("Animals", eur, new BigDecimal("2.5"));
+        entityManager.persist(EventBalanceShard.builder().event(sharded).shardIndex(0).amount(new BigDecimal("1.25")).build());
+        entityManager.persist(EventBalanceShard.builder().event(sharded).shardIndex(1).amount(new BigDecimal("0.75")).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        List<FundraisingEventDTO> rows;
+        try (Stream<FundraisingEventDTO> report = eventRepository.streamReport(Sort.by(Sort.Direction.DESC, "name"))) {
+            rows = report.toList();
+        }
+
+        // then
+        assertThat(rows).extracting(FundraisingEventDTO::name, FundraisingEventDTO::currencyCode)
+                .containsExactly(
+                        tuple("Shelter", "USD"),
+                        tuple("Animals", "EUR"));
+        assertThat(rows.get(0).accountBalance()).isEqualByComparingTo("12");
+        assertThat(rows.get(1).accountBalance()).isEqualByComparingTo("2.5");
+    }
+
+    @Test
+    void givenEventsInDifferentCurrencies_whenFindReportPage_thenLoadPageInOneStatement() {
+        // given
+        persistEvent("Animals", eur, BigDecimal.ONE);
+        persistEvent("Shelter", usd, BigDecimal.TEN);
+        persistEvent("Water", eur, BigDecimal.ZERO);
+        Statistics statistics = freshStatistics();
+
+        // when
+        Page<FundraisingEventDTO> page = eventRepository.findReportPage(PageRequest.of(0, 10, Sort.by("name")));
+
+        // then
+        assertThat(page.getContent()).extracting(FundraisingEventDTO::currencyCode).containsExactly("EUR", "USD", "EUR");
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void givenFullPage_whenFindReportPage_thenOnlyAddCountStatement() {
+        // given
+        persistEvent("Animals", eur, BigDecimal.ONE);
+        persistEvent("Shelter", usd, BigDecimal.TEN);
+        persistEvent("Water", eur, BigDecimal.ZERO);
+        Statistics statistics = freshStatistics();
+
+        // when
+        Page<FundraisingEventDTO> page = eventRepository.findReportPage(PageRequest.of(0, 2, Sort.by("name")));
+
+        // then
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void givenEventsInDifferentCurrencies_whenScrollingWindow_thenCurrencyIsFetchedWithEvents() {
+        // given
+        persistEvent("Animals", eur, BigDecimal.ONE);
+        persistEvent("Shelter", usd, BigDecimal.TEN);
+        Statistics statistics = freshStatistics();
+
+        // when
+        Window<FundraisingEvent> window = eventRepository.findBy(ScrollPosition.keyset(), Sort.by("name", "id"), Limit.of(10));
+        List<String> codes = window.stream().map(event -> event.getCurrency().getCode()).toList();
+
+        // then
+        assertThat(codes).containsExactly("EUR", "USD");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void givenCurrencySortField_whenFindReportPage_thenOrderByCurrencyCodeAndIdInOneStatement() {
+        // given
+        FundraisingEvent firstUsd = persistEvent("Shelter", usd, BigDecimal.ONE);
+        persistEvent("Animals", eur, BigDecimal.ONE);
+        FundraisingEvent secondUsd = persistEvent("Water", usd, BigDecimal.ONE);
+        Statistics statistics = freshStatistics();
+
+        // when
+        Page<FundraisingEventDTO> page = eventRepository.findReportPage(
+                PageRequest.of(0, 10, EventSortField.CURRENCY.sort(Sort.Direction.DESC)));
+
+        // then
+        assertThat(page.getContent()).extracting(FundraisingEventDTO::id)
+                .containsExactly(secondUsd.getId(), firstUsd.getId(), page.getContent().get(2).id());
+        assertThat(page.getContent().get(2).currencyCode()).isEqualTo("EUR");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void givenSortFields_whenSchemaIsCreated_thenEachHasAnIndexEndingWithId() {
+        // when
+        @SuppressWarnings("unchecked")
+        List<Object> indexedColumns = entityManager.getEntityManager().createNativeQuery("""
+                        select c.index_name || ':' || string_agg(c.column_name, ',' order by c.ordinal_position)
+                        from information_schema.index_columns c
+                        where c.table_name = 'FUNDRAISING_EVENT' and c.index_name like 'IDX_%'
+                        group by c.index_name
+                        """)
+                .getResultList();
+
+        // then
+        assertThat(indexedColumns).containsExactlyInAnyOrder(
+                "IDX_FUNDRAISING_EVENT_BALANCE:ACCOUNT_BALANCE,ID",
+                "IDX_FUNDRAISING_EVENT_CURRENCY_CODE:CURRENCY_CODE,ID");
+    }
+
+    private Statistics freshStatistics() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private FundraisingEvent persistEvent(String name, Currency currency, BigDecimal balance) {
+        return entityManager.persist(FundraisingEvent.builder()
+                .name(name)
+                .currency(currency)
+                .accountBalance(balance)
+                .build());
+    }
+}
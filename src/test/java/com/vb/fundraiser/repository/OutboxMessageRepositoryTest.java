@@ -0,0 +1,54 @@
+package com.vb.fundraiser.repository;
+
+import com.vb.fundraiser.model.dto.BalanceChangeMessage;
+import com.vb.fundraiser.model.entity.OutboxMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class OutboxMessageRepositoryTest {
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OutboxMessageRepository outboxRepository;
+
+    @Test
+    void givenMessages_whenFindOldest_thenReturnUpToLimitInIdOrder() {
+        // given
+        Long first = persist(OutboxMessage.Type.EVENT_CREATED, "0");
+        Long second = persist(OutboxMessage.Type.BALANCE_CREDITED, "12.5");
+        persist(OutboxMessage.Type.BALANCE_CREDITED, "3");
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        List<BalanceChangeMessage> result = outboxRepository.findOldest(Limit.of(2));
+
+        // then
+        assertThat(result).extracting(BalanceChangeMessage::messageId).containsExactly(first, second);
+        assertThat(result.get(1).type()).isEqualTo(OutboxMessage.Type.BALANCE_CREDITED);
+        assertThat(result.get(1).amount()).isEqualByComparingTo("12.5");
+        assertThat(result.get(1).operation()).isEqualTo("emptyBox");
+    }
+
+    private Long persist(OutboxMessage.Type type, String amount) {
+        return entityManager.persist(OutboxMessage.builder()
+                .type(type)
+                .eventId(10L)
+                .currencyCode("EUR")
+                .amount(new BigDecimal(amount))
+                .operation("emptyBox")
+                .occurredAt(Instant.parse("2026-01-01T12:00:00Z"))
+                .build()).getId();
+    }
+}
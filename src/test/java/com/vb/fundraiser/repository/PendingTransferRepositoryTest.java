@@ -0,0 +1,119 @@
+package com.vb.fundraiser.repository;
+
+import com.vb.fundraiser.model.dto.DueTransfer;
+import com.vb.fundraiser.model.dto.PendingTransferDTO;
+import com.vb.fundraiser.model.entity.CollectionBox;
+import com.vb.fundraiser.model.entity.Currency;
+import com.vb.fundraiser.model.entity.FundraisingEvent;
+import com.vb.fundraiser.model.entity.PendingTransfer;
+import com.vb.fundraiser.model.entity.PendingTransfer.Status;
+import com.vb.fundraiser.model.entity.TransferAmount;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+class PendingTransferRepositoryTest {
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PendingTransferRepository transferRepository;
+
+    private FundraisingEvent event;
+    private CollectionBox box;
+    private final Instant now = Instant.parse("2026-01-01T12:00:00Z");
+
+    @BeforeEach
+    void setUp() {
+        Currency eur = entityManager.persist(Currency.builder().code("EUR").build());
+        event = entityManager.persist(FundraisingEvent.builder()
+                .name("Charity")
+                .currency(eur)
+                .accountBalance(BigDecimal.ZERO)
+                .build());
+        box = entityManager.persist(CollectionBox.builder().event(event).build());
+    }
+
+    @Test
+    void givenTransfersInDifferentStates_whenFindDue_thenReturnPendingDueOnesInIdOrder() {
+        // given
+        Long due = persist(Status.PENDING, now.minusSeconds(5), "USD", "3");
+        persist(Status.PENDING, now.plusSeconds(30), "USD", "1");
+        persist(Status.SETTLED, now.minusSeconds(5), "EUR", "2");
+        Long alsoDue = persist(Status.PENDING, now, "GBP", "4");
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        List<DueTransfer> result = transferRepository.findDue(now, Limit.of(10));
+
+        // then
+        assertThat(result).containsExactly(
+                new DueTransfer(due, event.getId(), "EUR"),
+                new DueTransfer(alsoDue, event.getId(), "EUR"));
+        assertThat(transferRepository.findCurrencyCodes(List.of(due, alsoDue))).containsExactlyInAnyOrder("USD", "GBP");
+    }
+
+    @Test
+    void givenSettledTransfer_whenFindPendingWithAmounts_thenLeaveItOut() {
+        // given
+        Long pending = persist(Status.PENDING, now, "USD", "3", "EUR", "1");
+        Long settled = persist(Status.SETTLED, now, "USD", "2");
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        List<PendingTransfer> result = transferRepository.findPendingWithAmounts(List.of(pending, settled));
+
+        // then
+        assertThat(result).singleElement().satisfies(transfer -> {
+            assertThat(transfer.getId()).isEqualTo(pending);
+            assertThat(transfer.getAmounts()).extracting(TransferAmount::getCurrencyCode).containsExactlyInAnyOrder("USD", "EUR");
+        });
+    }
+
+    @Test
+    void givenPendingTransfer_whenRecordFailure_thenCountAttemptAndPostponeIt() {
+        // given
+        Long pending = persist(Status.PENDING, now, "USD", "3");
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        int updated = transferRepository.recordFailure(List.of(pending), "UniRate unavailable", now.plusSeconds(30));
+        entityManager.clear();
+
+        // then
+        assertThat(updated).isEqualTo(1);
+        PendingTransferDTO transfer = transferRepository.findTransfer(pending).orElseThrow();
+        assertThat(transfer.attempts()).isEqualTo(1);
+        assertThat(transfer.lastError()).isEqualTo("UniRate unavailable");
+        assertThat(transfer.boxId()).isEqualTo(box.getId());
+        assertThat(transfer.currencyCode()).isEqualTo("EUR");
+        assertThat(transferRepository.findDue(now, Limit.of(10))).isEmpty();
+    }
+
+    private Long persist(Status status, Instant nextAttemptAt, String... currencyAmounts) {
+        PendingTransfer transfer = PendingTransfer.builder()
+                .box(box)
+                .event(event)
+                .status(status)
+                .createdAt(now)
+                .nextAttemptAt(nextAttemptAt)
+                .build();
+        for (int i = 0; i < currencyAmounts.length; i += 2) {
+            transfer.getAmounts().add(new TransferAmount(currencyAmounts[i], new BigDecimal(currencyAmounts[i + 1])));
+        }
+        return entityManager.persist(transfer).getId();
+    }
+}
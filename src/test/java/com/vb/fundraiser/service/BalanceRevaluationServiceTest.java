@@ -0,0 +1,126 @@
+package com.vb.fundraiser.service;
+
+import com.vb.fundraiser.client.CurrencyConversionClient;
+import com.vb.fundraiser.client.ExchangeRate;
+import com.vb.fundraiser.model.dto.RevaluationDTO;
+import com.vb.fundraiser.model.entity.BoxCurrencyAmount;
+import com.vb.fundraiser.model.entity.CollectionBox;
+import com.vb.fundraiser.model.entity.Currency;
+import com.vb.fundraiser.model.entity.FundraisingEvent;
+import com.vb.fundraiser.repository.BoxCurrencyAmountRepository;
+import com.vb.fundraiser.repository.CollectionBoxRepository;
+import com.vb.fundraiser.repository.CurrencyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+class BalanceRevaluationServiceTest {
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private CollectionBoxRepository boxRepository;
+    @Autowired
+    private BoxCurrencyAmountRepository amountRepository;
+    @Autowired
+    private CurrencyRepository currencyRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final CurrencyConversionClient conversionClient = mock(CurrencyConversionClient.class);
+
+    private BalanceRevaluationService revaluationService;
+    private Currency eur;
+    private Currency usd;
+    private Currency gbp;
+    private FundraisingEvent event;
+
+    @BeforeEach
+    void setUp() {
+        eur = entityManager.persist(Currency.builder().code("EUR").build());
+        usd = entityManager.persist(Currency.builder().code("USD").build());
+        gbp = entityManager.persist(Currency.builder().code("GBP").build());
+        event = entityManager.persist(FundraisingEvent.builder()
+                .name("Charity")
+                .currency(eur)
+                .accountBalance(BigDecimal.ZERO)
+                .build());
+        entityManager.flush();
+
+        CurrencyRegistry registry = new CurrencyRegistry(currencyRepository);
+        registry.refresh();
+        DepositPricer depositPricer = new DepositPricer(true, boxRepository, registry, conversionClient);
+        revaluationService = new BalanceRevaluationService(2, amountRepository, depositPricer, conversionClient,
+                new TransactionTemplate(transactionManager), entityManager.getEntityManager());
+    }
+
+    @Test
+    void givenOutstandingBalances_whenRevalue_thenRepriceEveryRowInBatches() {
+        // given
+        Long usdRow = persistAmount(usd, "10", null);
+        Long eurRow = persistAmount(eur, "4", "4");
+        Long stalePrice = persistAmount(usd, "2", "1.5");
+        when(conversionClient.getExchangeRates(anyCollection(), eq("EUR")))
+                .thenReturn(Map.of("USD", new ExchangeRate("USD", "EUR", new BigDecimal("0.9"), Instant.now())));
+
+        // when
+        RevaluationDTO result = revaluationService.revalue();
+        entityManager.flush();
+        entityManager.clear();
+
+        // then
+        assertThat(result).isEqualTo(new RevaluationDTO(3, 2, 0));
+        assertThat(convertedAmount(usdRow)).isEqualByComparingTo("9");
+        assertThat(convertedAmount(eurRow)).isEqualByComparingTo("4");
+        assertThat(convertedAmount(stalePrice)).isEqualByComparingTo("1.8");
+        verify(conversionClient, times(2)).getExchangeRates(anyCollection(), eq("EUR"));
+    }
+
+    @Test
+    void givenRateUnavailable_whenRevalue_thenSkipRowsOfThatCurrencyOnly() {
+        // given
+        Long gbpRow = persistAmount(gbp, "5", null);
+        Long eurRow = persistAmount(eur, "3", null);
+        when(conversionClient.getExchangeRates(List.of("GBP"), "EUR"))
+                .thenThrow(new IllegalStateException("UniRate unavailable"));
+
+        // when
+        RevaluationDTO result = revaluationService.revalue();
+        entityManager.flush();
+        entityManager.clear();
+
+        // then
+        assertThat(result.skipped()).isEqualTo(1);
+        assertThat(convertedAmount(gbpRow)).isNull();
+        assertThat(convertedAmount(eurRow)).isEqualByComparingTo("3");
+    }
+
+    private Long persistAmount(Currency currency, String amount, String converted) {
+        CollectionBox box = entityManager.persist(CollectionBox.builder().event(event).build());
+        BoxCurrencyAmount row = entityManager.persist(BoxCurrencyAmount.builder()
+                .box(box)
+                .currency(currency)
+                .amount(new BigDecimal(amount))
+                .convertedAmount(converted == null ? null : new BigDecimal(converted))
+                .build());
+        entityManager.flush();
+        return row.getId();
+    }
+
+    private BigDecimal convertedAmount(Long id) {
+        return entityManager.find(BoxCurrencyAmount.class, id).getConvertedAmount();
+    }
+}
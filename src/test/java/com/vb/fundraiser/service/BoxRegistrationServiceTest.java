@@ -0,0 +1,163 @@
+package com.vb.fundraiser.service;
+
+import com.vb.fundraiser.exception.box.BoxLabelAlreadyExistsException;
+import com.vb.fundraiser.model.dto.BoxRegistrationDTO;
+import com.vb.fundraiser.model.dto.IdRange;
+import com.vb.fundraiser.model.entity.CollectionBox;
+import com.vb.fundraiser.repository.CollectionBoxRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BoxRegistrationServiceTest {
+    @Mock
+    private CollectionBoxRepository boxRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private EntityManager entityManager;
+
+    private BoxRegistrationService registrationService;
+
+    private final AtomicLong sequence = new AtomicLong(100);
+
+    @BeforeEach
+    void setUp() {
+        registrationService = new BoxRegistrationService(2, 5, boxRepository, transactionTemplate, entityManager);
+
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(boxRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<CollectionBox> boxes = inv.getArgument(0);
+            boxes.forEach(box -> box.setId(sequence.incrementAndGet()));
+            return boxes;
+        });
+    }
+
+    @Test
+    void givenBoxCount_whenRegisterBoxes_thenPersistInChunksAndReturnIdRanges() {
+        // given
+        sequence.set(50);
+
+        // when
+        BoxRegistrationDTO result = registrationService.registerBoxes(5, null);
+
+        // then
+        assertThat(result.registered()).isEqualTo(5);
+        assertThat(result.ids()).containsExactly(new IdRange(51, 55));
+        assertThat(result.stoppedAt()).isNull();
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void givenLabels_whenRegisterBoxes_thenLabelBoxesInOrder() {
+        // given
+        when(boxRepository.findExistingLabels(anyList())).thenReturn(List.of());
+        ArgumentCaptor<List<CollectionBox>> saved = ArgumentCaptor.forClass(List.class);
+
+        // when
+        BoxRegistrationDTO result = registrationService.registerBoxes(null, List.of("A-1", "A-2", "A-3"));
+
+        // then
+        verify(boxRepository, times(2)).saveAll(saved.capture());
+        assertThat(saved.getAllValues()).flatExtracting(boxes -> boxes).extracting(CollectionBox::getLabel)
+                .containsExactly("A-1", "A-2", "A-3");
+        assertThat(result.ids()).containsExactly(new IdRange(101, 103));
+    }
+
+    @Test
+    void givenTakenLabel_whenRegisterBoxes_thenRejectBeforePersistingAnything() {
+        // given
+        when(boxRepository.findExistingLabels(List.of("A-1", "A-2"))).thenReturn(List.of("A-2"));
+        when(boxRepository.findExistingLabels(List.of("A-3"))).thenReturn(List.of());
+
+        // when / then
+        assertThatThrownBy(() -> registrationService.registerBoxes(null, List.of("A-1", "A-2", "A-3")))
+                .isInstanceOf(BoxLabelAlreadyExistsException.class)
+                .hasMessage("Boxes with labels [A-2] are already registered");
+        verify(boxRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void givenLabelTakenConcurrentlyInLaterChunk_whenRegisterBoxes_thenReturnCommittedBoxesAndWhereItStopped() {
+        // given
+        when(boxRepository.findExistingLabels(anyList())).thenReturn(List.of(), List.of(), List.of("A-4"));
+        when(boxRepository.saveAll(anyList()))
+                .thenAnswer(inv -> {
+                    List<CollectionBox> boxes = inv.getArgument(0);
+                    boxes.forEach(box -> box.setId(sequence.incrementAndGet()));
+                    return boxes;
+                })
+                .thenThrow(new DataIntegrityViolationException("unique label"));
+
+        // when
+        BoxRegistrationDTO result = registrationService.registerBoxes(null, List.of("A-1", "A-2", "A-3", "A-4"));
+
+        // then
+        assertThat(result.requested()).isEqualTo(4);
+        assertThat(result.registered()).isEqualTo(2);
+        assertThat(result.ids()).containsExactly(new IdRange(101, 102));
+        assertThat(result.stoppedAt()).isEqualTo(2);
+        assertThat(result.error()).isEqualTo("Boxes with labels [A-4] are already registered");
+        verify(boxRepository, times(2)).findExistingLabels(List.of("A-3", "A-4"));
+    }
+
+    @Test
+    void givenFirstChunkFails_whenRegisterBoxes_thenThrowAsNothingWasRegistered() {
+        // given
+        when(boxRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("unique id"));
+
+        // when / then
+        assertThatThrownBy(() -> registrationService.registerBoxes(3, null))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        verify(boxRepository, never()).findExistingLabels(anyList());
+    }
+
+    @Test
+    void givenInvalidRequest_whenRegisterBoxes_thenThrowIllegalArgument() {
+        // when / then
+        assertThatThrownBy(() -> registrationService.registerBoxes(null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Provide either a box count or a list of box labels");
+
+        assertThatThrownBy(() -> registrationService.registerBoxes(2, List.of("A-1")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Provide either a box count or a list of box labels");
+
+        assertThatThrownBy(() -> registrationService.registerBoxes(6, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("At most 5 boxes can be registered at once");
+
+        assertThatThrownBy(() -> registrationService.registerBoxes(null, List.of("A-1", "A-1")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Box labels must be unique");
+        verifyNoInteractions(boxRepository, transactionTemplate);
+    }
+
+    @Test
+    void givenGapsInIds_whenCollapse_thenKeepOrderedRuns() {
+        // when / then
+        assertThat(IdRange.collapse(List.of(1L, 2L, 3L, 51L, 52L, 10L))).containsExactly(
+                new IdRange(1, 3), new IdRange(51, 52), new IdRange(10, 10));
+        assertThat(IdRange.collapse(List.of())).isEmpty();
+    }
+}
@@ -1,33 +1,56 @@
 package com.vb.fundraiser.service;
 
 import com.vb.fundraiser.client.CurrencyConversionClient;
+import com.vb.fundraiser.client.ExchangeRate;
 import com.vb.fundraiser.exception.box.*;
 import com.vb.fundraiser.exception.currency.CurrencyNotFoundException;
 import com.vb.fundraiser.exception.currency.InvalidMoneyAmountException;
+import com.vb.fundraiser.exception.currency.StaleExchangeRateException;
 import com.vb.fundraiser.exception.event.FundraisingEventNotFoundException;
 import com.vb.fundraiser.model.dto.CollectionBoxDTO;
+import com.vb.fundraiser.model.dto.CursorSlice;
+import com.vb.fundraiser.model.dto.PendingTransferDTO;
 import com.vb.fundraiser.model.entity.BoxCurrencyAmount;
 import com.vb.fundraiser.model.entity.CollectionBox;
+import com.vb.fundraiser.model.entity.ConversionAudit;
 import com.vb.fundraiser.model.entity.Currency;
 import com.vb.fundraiser.model.entity.FundraisingEvent;
+import com.vb.fundraiser.model.entity.PendingTransfer;
+import com.vb.fundraiser.model.entity.TransferAmount;
+import com.vb.fundraiser.repository.BoxCurrencyAmountRepository;
 import com.vb.fundraiser.repository.CollectionBoxRepository;
-import com.vb.fundraiser.repository.CurrencyRepository;
+import com.vb.fundraiser.repository.ConversionAuditRepository;
 import com.vb.fundraiser.repository.FundraisingEventRepository;
+import com.vb.fundraiser.repository.PendingTransferRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.vb.fundraiser.util.PageCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -37,11 +60,28 @@ class CollectionBoxServiceTest {
     @Mock
     private CollectionBoxRepository boxRepository;
     @Mock
+    private BoxCurrencyAmountRepository amountRepository;
+    @Mock
     private FundraisingEventRepository eventRepository;
     @Mock
-    private CurrencyRepository currencyRepository;
+    private CurrencyRegistry currencyRegistry;
     @Mock
     private CurrencyConversionClient conversionClient;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private ConversionAuditRepository auditRepository;
+    @Mock
+    private DepositPricer depositPricer;
+    @Mock
+    private PendingTransferRepository transferRepository;
+    @Mock
+    private BalanceOutbox balanceOutbox;
+    @Spy
+    private ConflictRetryExecutor retryExecutor =
+            new ConflictRetryExecutor(3, Duration.ZERO, Duration.ZERO, 1, 10, new SimpleMeterRegistry());
+    @Spy
+    private EventBalanceLedger balanceLedger = new EventBalanceLedger(false, 8, null, null, null);
 
     @InjectMocks
     private CollectionBoxService boxService;
@@ -67,6 +107,13 @@ class CollectionBoxServiceTest {
                 .currency(eurCurrency)
                 .accountBalance(BigDecimal.ZERO)
                 .build();
+
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().doAnswer(inv -> {
+            inv.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
     }
 
     private CollectionBox emptyBox(Long id, boolean assigned) {
@@ -180,7 +227,7 @@ class CollectionBoxServiceTest {
         @Test
         void givenNoBoxesExist_whenGetAllBoxes_thenReturnEmptyPage() {
             // given
-            when(boxRepository.findByIsDeletedFalse(any(Pageable.class))).thenReturn(Page.empty());
+            when(boxRepository.findBoxSummaries(any(Pageable.class))).thenReturn(Page.empty());
 
             // when
             Page<CollectionBoxDTO> result = boxService.getAllBoxes(0, 10, "asc");
@@ -190,25 +237,72 @@ class CollectionBoxServiceTest {
         }
 
         @Test
-        void givenBoxesWithDifferentStates_whenGetAllBoxes_thenReturnCorrectDTOs() {
+        void givenBoxSummaries_whenGetAllBoxes_thenReturnRepositoryPageSortedById() {
+            // given
+            List<CollectionBoxDTO> summaries = List.of(
+                    new CollectionBoxDTO(2L, true, true),
+                    new CollectionBoxDTO(1L, false, false));
+            when(boxRepository.findBoxSummaries(any(Pageable.class))).thenReturn(new PageImpl<>(summaries));
+
+            // when
+            Page<CollectionBoxDTO> result = boxService.getAllBoxes(1, 2, "desc");
+
+            // then
+            assertThat(result.getContent()).isEqualTo(summaries);
+            verify(boxRepository).findBoxSummaries(PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "id")));
+            verifyNoMoreInteractions(boxRepository);
+        }
+
+        @Test
+        void givenMoreBoxesThanSliceSize_whenGetBoxesAfter_thenReturnSliceAndCursorToContinue() {
             // given
-            CollectionBox emptyBox = emptyBox(1L, false);
+            when(boxRepository.findBoxSummariesAfter(Long.MIN_VALUE, Limit.of(3))).thenReturn(List.of(
+                    new CollectionBoxDTO(4L, false, true),
+                    new CollectionBoxDTO(7L, true, false),
+                    new CollectionBoxDTO(9L, true, true)));
+            when(boxRepository.findBoxSummariesAfter(7L, Limit.of(3))).thenReturn(List.of(
+                    new CollectionBoxDTO(9L, true, true)));
 
-            CollectionBox assignedEmptyBox = emptyBox(2L, true);
+            // when
+            CursorSlice<CollectionBoxDTO> first = boxService.getBoxesAfter("", 2, "asc");
+            CursorSlice<CollectionBoxDTO> second = boxService.getBoxesAfter(first.nextCursor(), 2, "asc");
 
-            CollectionBox nonEmptyUnassignedBox = nonEmptyBox(3L, false);
+            // then
+            assertThat(first.content()).extracting(CollectionBoxDTO::id).containsExactly(4L, 7L);
+            assertThat(first.hasNext()).isTrue();
+            assertThat(second.content()).extracting(CollectionBoxDTO::id).containsExactly(9L);
+            assertThat(second.hasNext()).isFalse();
+            assertThat(second.nextCursor()).isNull();
+            verify(boxRepository, never()).findBoxSummaries(any());
+        }
 
-            Page<CollectionBox> page = new PageImpl<>(List.of(emptyBox, assignedEmptyBox, nonEmptyUnassignedBox));
-            when(boxRepository.findByIsDeletedFalse(any(Pageable.class))).thenReturn(page);
+        @Test
+        void givenDescendingOrder_whenGetBoxesAfter_thenSeekBelowCursor() {
+            // given
+            String cursor = new PageCursor("id", Sort.Direction.DESC, 20L, "").encode();
+            when(boxRepository.findBoxSummariesBefore(20L, Limit.of(11))).thenReturn(List.of(new CollectionBoxDTO(19L, false, true)));
 
             // when
-            Page<CollectionBoxDTO> result = boxService.getAllBoxes(0, 10, "asc");
+            CursorSlice<CollectionBoxDTO> slice = boxService.getBoxesAfter(cursor, 10, "desc");
 
             // then
-            assertThat(result).hasSize(3);
-            assertThat(result).anyMatch(dto -> dto.id().equals(1L) && !dto.assigned() && dto.empty());
-            assertThat(result).anyMatch(dto -> dto.id().equals(2L) && dto.assigned() && dto.empty());
-            assertThat(result).anyMatch(dto -> dto.id().equals(3L) && !dto.assigned() && !dto.empty());
+            assertThat(slice.content()).extracting(CollectionBoxDTO::id).containsExactly(19L);
+        }
+
+        @Test
+        void givenInvalidOrMismatchedCursor_whenGetBoxesAfter_thenThrowIllegalArgument() {
+            // given
+            String descendingCursor = new PageCursor("id", Sort.Direction.DESC, 20L, "").encode();
+
+            // when / then
+            assertThatThrownBy(() -> boxService.getBoxesAfter("not a cursor!", 10, "asc"))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Invalid pagination cursor");
+
+            assertThatThrownBy(() -> boxService.getBoxesAfter(descendingCursor, 10, "asc"))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Pagination cursor was issued for a different sort order");
+            verifyNoInteractions(boxRepository);
         }
 
         @Test
@@ -258,61 +352,84 @@ class CollectionBoxServiceTest {
     @Nested
     class AddMoney {
         @Test
-        void givenValidInputsAndNewCurrency_whenAddMoney_thenInsertNewEntry() {
+        void givenExistingCurrencyEntry_whenAddMoney_thenIncrementInPlace() {
             // given
-            BigDecimal amount = BigDecimal.valueOf(100);
+            BigDecimal amount = BigDecimal.valueOf(5);
+            when(boxRepository.findAssignedById(BOX_ID)).thenReturn(Optional.of(true));
+            when(currencyRegistry.findByCode(EUR)).thenReturn(Optional.of(eurCurrency));
+            when(amountRepository.addToAmount(BOX_ID, eurCurrency.getId(), amount, null)).thenReturn(1);
 
-            CollectionBox box = emptyBox(BOX_ID, true);
+            // when
+            boxService.addMoney(BOX_ID, EUR, amount);
 
-            when(boxRepository.findByIdAndIsDeletedFalse(BOX_ID)).thenReturn(Optional.of(box));
-            when(currencyRepository.findByCode(EUR)).thenReturn(Optional.of(eurCurrency));
+            // then
+            verify(amountRepository, never()).saveAndFlush(any());
+        }
+
+        @Test
+        void givenFirstDonationInCurrency_whenAddMoney_thenInsertNewEntry() {
+            // given
+            BigDecimal amount = BigDecimal.valueOf(100);
+            CollectionBox boxReference = emptyBox(BOX_ID, true);
+            when(boxRepository.findAssignedById(BOX_ID)).thenReturn(Optional.of(true));
+            when(amountRepository.addToAmount(BOX_ID, eurCurrency.getId(), amount, null)).thenReturn(0);
+            when(currencyRegistry.findByCode(EUR)).thenReturn(Optional.of(eurCurrency));
+            when(boxRepository.getReferenceById(BOX_ID)).thenReturn(boxReference);
 
             // when
             boxService.addMoney(BOX_ID, EUR, amount);
 
             // then
-            assertThat(box.getAmounts()).hasSize(1);
-            assertThat(box.getAmounts().getFirst().getAmount()).isEqualByComparingTo(amount);
-            assertThat(box.getAmounts().getFirst().getCurrency()).isEqualTo(eurCurrency);
+            ArgumentCaptor<BoxCurrencyAmount> captor = ArgumentCaptor.forClass(BoxCurrencyAmount.class);
+            verify(amountRepository).saveAndFlush(captor.capture());
+            assertThat(captor.getValue().getBox()).isSameAs(boxReference);
+            assertThat(captor.getValue().getCurrency()).isEqualTo(eurCurrency);
+            assertThat(captor.getValue().getAmount()).isEqualByComparingTo(amount);
         }
 
         @Test
-        void givenValidInputsAndExistingCurrency_whenAddMoney_thenIncreaseAmount() {
+        void givenConcurrentFirstDonationWonInsert_whenAddMoney_thenRetryAsIncrement() {
             // given
-            BigDecimal initial = BigDecimal.valueOf(10);
-            BigDecimal added = BigDecimal.valueOf(5);
+            BigDecimal amount = BigDecimal.TEN;
+            when(boxRepository.findAssignedById(BOX_ID)).thenReturn(Optional.of(true));
+            when(amountRepository.addToAmount(BOX_ID, eurCurrency.getId(), amount, null)).thenReturn(0, 1);
+            when(currencyRegistry.findByCode(EUR)).thenReturn(Optional.of(eurCurrency));
+            when(amountRepository.saveAndFlush(any()))
+                    .thenThrow(new DataIntegrityViolationException("unique (id_box, id_currency)"));
 
-            BoxCurrencyAmount entry = BoxCurrencyAmount.builder()
-                    .currency(eurCurrency)
-                    .amount(initial)
-                    .build();
+            // when
+            boxService.addMoney(BOX_ID, EUR, amount);
 
-            CollectionBox box = CollectionBox.builder()
-                    .id(BOX_ID)
-                    .event(event)
-                    .amounts(new ArrayList<>(List.of(entry)))
-                    .build();
+            // then
+            verify(amountRepository, times(2)).addToAmount(BOX_ID, eurCurrency.getId(), amount, null);
+            verify(amountRepository, times(1)).saveAndFlush(any());
+        }
 
-            when(boxRepository.findByIdAndIsDeletedFalse(BOX_ID)).thenReturn(Optional.of(box));
-            when(currencyRepository.findByCode(EUR)).thenReturn(Optional.of(eurCurrency));
+        @Test
+        void givenConvertAtDeposit_whenAddMoney_thenAddPricedValueAlongsideAmount() {
+            // given
+            BigDecimal amount = BigDecimal.TEN;
+            when(depositPricer.price(BOX_ID, USD, amount)).thenReturn(new BigDecimal("9.000000"));
+            when(boxRepository.findAssignedById(BOX_ID)).thenReturn(Optional.of(true));
+            when(currencyRegistry.findByCode(USD)).thenReturn(Optional.of(usdCurrency));
+            when(amountRepository.addToAmount(BOX_ID, usdCurrency.getId(), amount, new BigDecimal("9.000000"))).thenReturn(1);
 
             // when
-            boxService.addMoney(BOX_ID, EUR, added);
+            boxService.addMoney(BOX_ID, USD, amount);
 
             // then
-            assertThat(entry.getAmount()).isEqualByComparingTo("15");
+            verify(amountRepository, never()).saveAndFlush(any());
         }
 
         @Test
         void givenBoxNotAssignedToEvent_whenAddMoney_thenThrowBoxNotAssignedException() {
             // given
-            CollectionBox box = emptyBox(BOX_ID, false);
-
-            when(boxRepository.findByIdAndIsDeletedFalse(BOX_ID)).thenReturn(Optional.of(box));
+            when(boxRepository.findAssignedById(BOX_ID)).thenReturn(Optional.of(false));
 
             // when / then
             assertThatThrownBy(() -> boxService.addMoney(BOX_ID, EUR, BigDecimal.TEN))
                     .isInstanceOf(BoxNotAssignedException.class);
+            verifyNoInteractions(amountRepository);
         }
 
         @Test
@@ -330,7 +447,7 @@ class CollectionBoxServiceTest {
         @Test
         void givenNonExistingBox_whenAddMoney_thenThrowBoxNotFoundException() {
             // given
-            when(boxRepository.findByIdAndIsDeletedFalse(BOX_ID)).thenReturn(Optional.empty());
+            when(boxRepository.findAssignedById(BOX_ID)).thenReturn(Optional.empty());
 
             // when / then
             assertThatThrownBy(() -> boxService.addMoney(BOX_ID, EUR, BigDecimal.TEN))
@@ -341,14 +458,14 @@ class CollectionBoxServiceTest {
         void givenInvalidCurrency_whenAddMoney_thenThrowCurrencyNotFoundException() {
             // given
             String invalidCurrencyCode = "ZZZ";
-            CollectionBox box = emptyBox(BOX_ID, true);
 
-            when(boxRepository.findByIdAndIsDeletedFalse(BOX_ID)).thenReturn(Optional.of(box));
-            when(currencyRepository.findByCode(invalidCurrencyCode)).thenReturn(Optional.empty());
+            when(boxRepository.findAssignedById(BOX_ID)).thenReturn(Optional.of(true));
+            when(currencyRegistry.findByCode(invalidCurrencyCode)).thenReturn(Optional.empty());
 
             // when / then
             assertThatThrownBy(() -> boxService.addMoney(BOX_ID, invalidCurrencyCode, BigDecimal.TEN))
                     .isInstanceOf(CurrencyNotFoundException.class);
+            verifyNoInteractions(amountRepository);
         }
     }
 
@@ -388,6 +505,58 @@ class CollectionBoxServiceTest {
             assertThat(event.getAccountBalance()).isEqualByComparingTo(existingBalance.add(initialAmount));
             verify(boxRepository).save(box);
             verify(eventRepository).save(event);
+            verify(balanceOutbox).recordCredit(eq(EVENT_ID), eq(EUR),
+                    argThat(amount -> amount.compareTo(initialAmount) == 0), eq("emptyBox"));
+        }
+
+        @Test
+        void givenConcurrentUpdateDuringTransfer_whenEmptyBox_thenRetryOnFreshState() {
+            // given
+            FundraisingEvent staleEvent = FundraisingEvent.builder().id(EVENT_ID).currency(eurCurrency)
+                    .accountBalance(BigDecimal.ZERO).build();
+            FundraisingEvent freshEvent = FundraisingEvent.builder().id(EVENT_ID).currency(eurCurrency)
+                    .accountBalance(BigDecimal.valueOf(30)).build();
+
+            when(boxRepository.findByIdAndIsDeletedFalse(BOX_ID)).thenReturn(
+                    Optional.of(boxWithEur(staleEvent, 100)),
+                    Optional.of(boxWithEur(staleEvent, 100)),
+                    Optional.of(boxWithEur(freshEvent, 100)));
+            when(eventRepository.save(staleEvent))
+                    .thenThrow(new ObjectOptimisticLockingFailureException(FundraisingEvent.class, EVENT_ID));
+
+            // when
+            boxService.emptyBox(BOX_ID);
+
+            // then
+            assertThat(freshEvent.getAccountBalance()).isEqualByComparingTo("130");
+            verify(retryExecutor).execute(eq("emptyBox"), any());
+            verify(eventRepository).save(freshEvent);
+        }
+
+        @Test
+        void givenConflictOnEveryAttempt_whenEmptyBox_thenGiveUpAfterMaxAttempts() {
+            // given
+            when(boxRepository.findByIdAndIsDeletedFalse(BOX_ID))
+                    .thenAnswer(inv -> Optional.of(boxWithEur(event, 100)));
+            when(eventRepository.save(event))
+                    .thenThrow(new ObjectOptimisticLockingFailureException(FundraisingEvent.class, EVENT_ID));
+
+            // when / then
+            assertThatThrownBy(() -> boxService.emptyBox(BOX_ID))
+                    .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+            verify(eventRepository, times(3)).save(event);
+        }
+
+        private CollectionBox boxWithEur(FundraisingEvent assignedEvent, long amount) {
+            BoxCurrencyAmount entry = BoxCurrencyAmount.builder()
+                    .currency(eurCurrency)
+                    .amount(BigDecimal.valueOf(amount))
+                    .build();
+            return CollectionBox.builder()
+                    .id(BOX_ID)
+                    .event(assignedEvent)
+                    .amounts(new ArrayList<>(List.of(entry)))
+                    .build();
         }
 
         @Test
@@ -416,8 +585,8 @@ class CollectionBoxServiceTest {
                     .build();
 
             when(boxRepository.findByIdAndIsDeletedFalse(BOX_ID)).thenReturn(Optional.of(box));
-            when(conversionClient.convert(BigDecimal.valueOf(10), "USD", "EUR"))
-                    .thenReturn(BigDecimal.valueOf(45));
+            when(conversionClient.getExchangeRates(Set.of(USD), EUR))
+                    .thenReturn(Map.of(USD, new ExchangeRate(USD, EUR, BigDecimal.valueOf(4.5), Instant.now())));
 
             // when
             boxService.emptyBox(BOX_ID);
@@ -426,6 +595,103 @@ class CollectionBoxServiceTest {
             assertThat(eurAmount.getAmount()).isZero();
             assertThat(usdAmount.getAmount()).isZero();
             assertThat(event.getAccountBalance()).isEqualByComparingTo("95");
+
+            ArgumentCaptor<List<ConversionAudit>> audits = ArgumentCaptor.captor();
+            verify(auditRepository).saveAll(audits.capture());
+            assertThat(audits.getValue()).singleElement().satisfies(audit -> {
+                assertThat(audit.getOperation()).isEqualTo("emptyBox");
+                assertThat(audit.getSourceCurrency()).isEqualTo(USD);
+                assertThat(audit.getSourceTotal()).isEqualByComparingTo("10");
+                assertThat(audit.getRate()).isEqualByComparingTo("4.5");
+                assertThat(audit.getConvertedTotal()).isEqualByComparingTo("45");
+            });
+        }
+
+        @Test
+        void givenDepositsPricedAtDeposit_whenEmptyBox_thenSumStoredValuesWithoutRates() {
+            // given
+            BoxCurrencyAmount eurAmount = BoxCurrencyAmount.builder()
+                    .currency(eurCurrency)
+                    .amount(BigDecimal.valueOf(50))
+                    .convertedAmount(BigDecimal.valueOf(50))
+                    .build();
+            BoxCurrencyAmount usdAmount = BoxCurrencyAmount.builder()
+                    .currency(usdCurrency)
+                    .amount(BigDecimal.TEN)
+                    .convertedAmount(new BigDecimal("9.25"))
+                    .build();
+            CollectionBox box = CollectionBox.builder()
+                    .id(BOX_ID)
+                    .event(event)
+                    .amounts(new ArrayList<>(List.of(eurAmount, usdAmount)))
+                    .build();
+
+            when(depositPricer.isEnabled()).thenReturn(true);
+            when(boxRepository.findByIdAndIsDeletedFalse(BOX_ID)).thenReturn(Optional.of(box));
+
+            // when
+            boxService.emptyBox(BOX_ID);
+
+            // then
+            assertThat(event.getAccountBalance()).isEqualByComparingTo("59.25");
+            assertThat(usdAmount.getAmount()).isZero();
+            assertThat(usdAmount.getConvertedAmount()).isZero();
+            verify(conversionClient, never()).getExchangeRates(anyCollection(), anyString());
+            verifyNoInteractions(auditRepository);
+        }
+
+        @Test
+        void givenUnpricedDepositInConvertAtDepositMode_whenEmptyBox_thenConvertAtCurrentRates() {
+            // given
+            BoxCurrencyAmount usdAmount = BoxCurrencyAmount.builder()
+                    .currency(usdCurrency)
+                    .amount(BigDecimal.TEN)
+                    .build();
+            CollectionBox box = CollectionBox.builder()
+                    .id(BOX_ID)
+                    .event(event)
+                    .amounts(new ArrayList<>(List.of(usdAmount)))
+                    .build();
+
+            when(depositPricer.isEnabled()).thenReturn(true);
+            when(boxRepository.findByIdAndIsDeletedFalse(BOX_ID)).thenReturn(Optional.of(box));
+            when(conversionClient.getExchangeRates(Set.of(USD), EUR))
+                    .thenReturn(Map.of(USD, new ExchangeRate(USD, EUR, new BigDecimal("0.8"), Instant.now())));
+
+            // when
+            boxService.emptyBox(BOX_ID);
+
+            // then
+            assertThat(event.getAccountBalance()).isEqualByComparingTo("8");
+        }
+
+        @Test
+        void givenRateStaleBeforeTransfer_whenEmptyBox_thenThrowStaleExchangeRateAndKeepAmounts() {
+            // given
+            BoxCurrencyAmount usdAmount = BoxCurrencyAmount.builder()
+                    .currency(usdCurrency)
+                    .amount(BigDecimal.TEN)
+                    .build();
+
+            CollectionBox box = CollectionBox.builder()
+                    .id(BOX_ID)
+                    .event(event)
+                    .amounts(new ArrayList<>(List.of(usdAmount)))
+                    .build();
+
+            ExchangeRate rate = new ExchangeRate(USD, EUR, BigDecimal.valueOf(0.9), Instant.now());
+            when(boxRepository.findByIdAndIsDeletedFalse(BOX_ID)).thenReturn(Optional.of(box));
+            when(conversionClient.getExchangeRates(Set.of(USD), EUR)).thenReturn(Map.of(USD, rate));
+            when(conversionClient.isStale(rate)).thenReturn(true);
+
+            // when / then
+            assertThatThrownBy(() -> boxService.emptyBox(BOX_ID))
+                    .isInstanceOf(StaleExchangeRateException.class);
+
+            assertThat(usdAmount.getAmount()).isEqualByComparingTo(BigDecimal.TEN);
+            assertThat(event.getAccountBalance()).isEqualByComparingTo(BigDecimal.ZERO);
+            verify(eventRepository, never()).save(any());
+            verifyNoInteractions(auditRepository, balanceOutbox);
         }
 
         @Test
@@ -483,4 +749,58 @@ class CollectionBoxServiceTest {
                     .isInstanceOf(BoxNotAssignedException.class);
         }
     }
+
+    @Nested
+    class EmptyBoxDeferred {
+        @Test
+        void givenBoxWithMixedCurrencies_whenEmptyBoxDeferred_thenZeroBoxAndQueueTransferWithoutRates() {
+            // given
+            BoxCurrencyAmount eurAmount = BoxCurrencyAmount.builder().currency(eurCurrency).amount(BigDecimal.valueOf(50)).build();
+            BoxCurrencyAmount usdAmount = BoxCurrencyAmount.builder().currency(usdCurrency).amount(BigDecimal.TEN).build();
+            BoxCurrencyAmount emptyPln = BoxCurrencyAmount.builder()
+                    .currency(Currency.builder().id(3L).code("PLN").build()).amount(BigDecimal.ZERO).build();
+            CollectionBox box = CollectionBox.builder()
+                    .id(BOX_ID)
+                    .event(event)
+                    .amounts(new ArrayList<>(List.of(eurAmount, usdAmount, emptyPln)))
+                    .build();
+
+            when(boxRepository.findByIdAndIsDeletedFalse(BOX_ID)).thenReturn(Optional.of(box));
+            when(transferRepository.save(any(PendingTransfer.class))).thenAnswer(inv -> {
+                PendingTransfer transfer = inv.getArgument(0);
+                transfer.setId(77L);
+                return transfer;
+            });
+
+            // when
+            PendingTransferDTO result = boxService.emptyBoxDeferred(BOX_ID);
+
+            // then
+            assertThat(result.transferId()).isEqualTo(77L);
+            assertThat(result.status()).isEqualTo(PendingTransfer.Status.PENDING);
+            assertThat(result.currencyCode()).isEqualTo(EUR);
+            assertThat(eurAmount.getAmount()).isZero();
+            assertThat(usdAmount.getAmount()).isZero();
+            assertThat(event.getAccountBalance()).isEqualByComparingTo(BigDecimal.ZERO);
+
+            ArgumentCaptor<PendingTransfer> saved = ArgumentCaptor.forClass(PendingTransfer.class);
+            verify(transferRepository).save(saved.capture());
+            assertThat(saved.getValue().getAmounts())
+                    .extracting(TransferAmount::getCurrencyCode, TransferAmount::getAmount)
+                    .containsExactly(tuple(EUR, BigDecimal.valueOf(50)), tuple(USD, BigDecimal.TEN));
+            verify(boxRepository).save(box);
+            verifyNoInteractions(conversionClient);
+        }
+
+        @Test
+        void givenEmptyBox_whenEmptyBoxDeferred_thenThrowEmptyBoxMoneyTransferException() {
+            // given
+            when(boxRepository.findByIdAndIsDeletedFalse(BOX_ID)).thenReturn(Optional.of(emptyBox(BOX_ID, true)));
+
+            // when / then
+            assertThatThrownBy(() -> boxService.emptyBoxDeferred(BOX_ID))
+                    .isInstanceOf(EmptyBoxMoneyTransferException.class);
+            verifyNoInteractions(transferRepository);
+        }
+    }
 }
@@ -0,0 +1,93 @@
+package com.vb.fundraiser.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ConflictRetryExecutorTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ConflictRetryExecutor executor(int maxAttempts, double budgetRatio, int budgetCapacity) {
+        return new ConflictRetryExecutor(maxAttempts, Duration.ofMillis(1), Duration.ofMillis(5),
+                budgetRatio, budgetCapacity, meterRegistry);
+    }
+
+    @Test
+    void givenConflictThenSuccess_whenExecute_thenRetryAndReturnResult() {
+        // given
+        AtomicInteger calls = new AtomicInteger();
+
+        // when
+        String result = executor(3, 0.2, 10).execute("emptyBox", () -> {
+            if (calls.incrementAndGet() == 1) {
+                throw conflict();
+            }
+            return "done";
+        });
+
+        // then
+        assertThat(result).isEqualTo("done");
+        assertThat(calls).hasValue(2);
+        assertThat(meterRegistry.get("fundraiser.concurrency.conflicts").tag("operation", "emptyBox").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("fundraiser.concurrency.retries").tag("operation", "emptyBox").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void givenPersistentConflict_whenExecute_thenGiveUpAfterMaxAttempts() {
+        // given
+        AtomicInteger calls = new AtomicInteger();
+
+        // when / then
+        assertThatThrownBy(() -> executor(3, 0.2, 10).run("addMoney", () -> {
+            calls.incrementAndGet();
+            throw conflict();
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(calls).hasValue(3);
+        assertThat(meterRegistry.get("fundraiser.concurrency.retries.exhausted").tag("reason", "attempts").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void givenRetryBudgetSpent_whenExecute_thenFailWithoutRetrying() {
+        // given
+        ConflictRetryExecutor executor = executor(5, 0, 1);
+        AtomicInteger calls = new AtomicInteger();
+        executor.run("emptyBox", () -> {
+            if (calls.incrementAndGet() == 1) {
+                throw conflict();
+            }
+        });
+
+        // when / then
+        assertThatThrownBy(() -> executor.run("emptyBox", () -> {
+            calls.incrementAndGet();
+            throw conflict();
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(calls).hasValue(3);
+        assertThat(meterRegistry.get("fundraiser.concurrency.retries.exhausted").tag("reason", "budget").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void givenNonConcurrencyFailure_whenExecute_thenPropagateWithoutRetry() {
+        // given
+        AtomicInteger calls = new AtomicInteger();
+
+        // when / then
+        assertThatThrownBy(() -> executor(3, 0.2, 10).run("addMoney", () -> {
+            calls.incrementAndGet();
+            throw new DataIntegrityViolationException("not null");
+        })).isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(calls).hasValue(1);
+    }
+
+    private static ObjectOptimisticLockingFailureException conflict() {
+        return new ObjectOptimisticLockingFailureException("CollectionBox", 1L);
+    }
+}
@@ -0,0 +1,119 @@
+package com.vb.fundraiser.service;
+
+import com.vb.fundraiser.client.ExchangeRate;
+import com.vb.fundraiser.exception.currency.StaleExchangeRateException;
+import com.vb.fundraiser.model.entity.ConversionAudit;
+import com.vb.fundraiser.service.ConversionPlan.PendingAmount;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ConversionPlanTest {
+    private static final Instant FETCHED_AT = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Test
+    void givenAmountsInSeveralCurrencies_whenPlan_thenConvertEachCurrencyTotalOnce() {
+        // given
+        ExchangeRate usdToEur = rate("USD", "0.5");
+        List<PendingAmount> pending = List.of(
+                amount(1L, "USD", "3"), amount(2L, "USD", "1"), amount(2L, "EUR", "5"), amount(3L, "EUR", "0"));
+
+        // when
+        ConversionPlan plan = ConversionPlan.of("EUR", pending, Map.of("USD", usdToEur), rate -> false);
+
+        // then
+        assertThat(plan.groups()).extracting(ConversionPlan.Group::sourceCurrency).containsExactly("USD", "EUR");
+        assertThat(plan.total()).isEqualByComparingTo("7");
+        assertThat(plan.sourceCount()).isEqualTo(2);
+        assertThat(plan.allocations()).containsOnly(
+                entry(1L, new BigDecimal("1.500000")),
+                entry(2L, new BigDecimal("5.500000")));
+    }
+
+    @Test
+    void givenSharesThatDoNotDivideEvenly_whenPlan_thenAllocationsAddUpToRoundedGroupTotal() {
+        // given
+        ExchangeRate usdToEur = rate("USD", "0.333333333");
+        List<PendingAmount> pending = List.of(
+                amount(1L, "USD", "1"), amount(2L, "USD", "1"), amount(3L, "USD", "1"));
+
+        // when
+        ConversionPlan plan = ConversionPlan.of("EUR", pending, Map.of("USD", usdToEur), rate -> false);
+
+        // then
+        assertThat(plan.total()).isEqualByComparingTo("1.000000");
+        assertThat(plan.allocations().values()).containsExactly(
+                new BigDecimal("0.333334"), new BigDecimal("0.333333"), new BigDecimal("0.333333"));
+        assertThat(plan.allocations().values().stream().reduce(BigDecimal.ZERO, BigDecimal::add))
+                .isEqualByComparingTo(plan.total());
+    }
+
+    @Test
+    void givenMissingOrStaleRate_whenPlan_thenThrowStaleExchangeRateForFirstBoxHoldingIt() {
+        // given
+        ExchangeRate usdToEur = rate("USD", "0.9");
+        List<PendingAmount> pending = List.of(amount(7L, "USD", "2"), amount(8L, "GBP", "1"));
+
+        // when / then
+        assertThatThrownBy(() -> ConversionPlan.of("EUR", pending, Map.of("USD", usdToEur), rate -> true))
+                .isInstanceOf(StaleExchangeRateException.class)
+                .hasMessageContaining("from USD to EUR resolved for box 7");
+        assertThatThrownBy(() -> ConversionPlan.of("EUR", pending, Map.of("USD", usdToEur), rate -> false))
+                .isInstanceOf(StaleExchangeRateException.class)
+                .hasMessageContaining("from GBP to EUR resolved for box 8");
+    }
+
+    @Test
+    void givenPlan_whenAuditRecords_thenRecordRatePerConvertedGroupOnly() {
+        // given
+        ConversionPlan plan = ConversionPlan.of("EUR",
+                List.of(amount(1L, "USD", "10"), amount(2L, "USD", "30"), amount(1L, "EUR", "4")),
+                Map.of("USD", rate("USD", "0.9")), rate -> false);
+        Instant now = Instant.now();
+
+        // when
+        List<ConversionAudit> audits = plan.auditRecords(null, "emptyBox", now);
+
+        // then
+        assertThat(audits).singleElement().satisfies(audit -> {
+            assertThat(audit.getOperation()).isEqualTo("emptyBox");
+            assertThat(audit.getSourceCurrency()).isEqualTo("USD");
+            assertThat(audit.getTargetCurrency()).isEqualTo("EUR");
+            assertThat(audit.getSourceTotal()).isEqualByComparingTo("40");
+            assertThat(audit.getRate()).isEqualByComparingTo("0.9");
+            assertThat(audit.getConvertedTotal()).isEqualByComparingTo("36");
+            assertThat(audit.getBoxes()).isEqualTo(2);
+            assertThat(audit.getRateFetchedAt()).isEqualTo(FETCHED_AT);
+            assertThat(audit.getCreatedAt()).isEqualTo(now);
+        });
+    }
+
+    @Test
+    void givenRateFinerThanAuditScale_whenAuditRecords_thenRecordTheRateAppliedSoTheTotalIsReproducible() {
+        // given
+        ConversionPlan plan = ConversionPlan.of("EUR", List.of(amount(1L, "JPY", "123456789.123456")),
+                Map.of("JPY", rate("JPY", "0.0061234567890123456789")), rate -> false);
+
+        // when
+        ConversionAudit audit = plan.auditRecords(null, "emptyBox", Instant.now()).getFirst();
+
+        // then
+        assertThat(audit.getRate()).isEqualTo(new BigDecimal("0.00612345678901234568"));
+        assertThat(audit.getSourceTotal().multiply(audit.getRate()).setScale(6, RoundingMode.HALF_EVEN))
+                .isEqualTo(audit.getConvertedTotal());
+    }
+
+    private PendingAmount amount(Long boxId, String currency, String value) {
+        return new PendingAmount(boxId, currency, new BigDecimal(value));
+    }
+
+    private ExchangeRate rate(String from, String value) {
+        return new ExchangeRate(from, "EUR", new BigDecimal(value), FETCHED_AT);
+    }
+}
@@ -0,0 +1,65 @@
+package com.vb.fundraiser.service;
+
+import com.vb.fundraiser.model.entity.Currency;
+import com.vb.fundraiser.repository.CurrencyRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CurrencyRegistryTest {
+    @Mock
+    private CurrencyRepository currencyRepository;
+
+    @InjectMocks
+    private CurrencyRegistry currencyRegistry;
+
+    private final Currency usd = Currency.builder().id(1L).code("USD").build();
+    private final Currency eur = Currency.builder().id(2L).code("EUR").build();
+
+    @Test
+    void givenLoadedRegistry_whenFindByCode_thenServeFromMemory() {
+        // given
+        when(currencyRepository.findAll()).thenReturn(List.of(usd, eur));
+        currencyRegistry.refresh();
+
+        // when / then
+        assertThat(currencyRegistry.findByCode("EUR")).containsSame(eur);
+        assertThat(currencyRegistry.findByCode("USD")).containsSame(usd);
+        assertThat(currencyRegistry.findByCode("PLN")).isEmpty();
+        assertThat(currencyRegistry.findByCode("eur")).isEmpty();
+        assertThat(currencyRegistry.findByCode(null)).isEmpty();
+        assertThat(currencyRegistry.codes()).containsExactly("EUR", "USD");
+        verify(currencyRepository, times(1)).findAll();
+    }
+
+    @Test
+    void givenCurrenciesChanged_whenRefresh_thenReplaceWholeRegistry() {
+        // given
+        Currency pln = Currency.builder().id(3L).code("PLN").build();
+        when(currencyRepository.findAll()).thenReturn(List.of(usd), List.of(eur, pln));
+        currencyRegistry.refresh();
+
+        // when
+        currencyRegistry.refresh();
+
+        // then
+        assertThat(currencyRegistry.findByCode("USD")).isEmpty();
+        assertThat(currencyRegistry.findByCode("PLN")).containsSame(pln);
+        assertThat(currencyRegistry.codes()).containsExactly("EUR", "PLN");
+    }
+
+    @Test
+    void givenNotLoaded_whenFindByCode_thenReturnEmpty() {
+        // when / then
+        assertThat(currencyRegistry.findByCode("USD")).isEmpty();
+        assertThat(currencyRegistry.codes()).isEmpty();
+    }
+}
@@ -0,0 +1,74 @@
+package com.vb.fundraiser.service;
+
+import com.vb.fundraiser.client.CurrencyConversionClient;
+import com.vb.fundraiser.model.entity.Currency;
+import com.vb.fundraiser.repository.CollectionBoxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DepositPricerTest {
+    private static final Long BOX_ID = 1L;
+
+    @Mock
+    private CollectionBoxRepository boxRepository;
+    @Mock
+    private CurrencyRegistry currencyRegistry;
+    @Mock
+    private CurrencyConversionClient conversionClient;
+
+    private DepositPricer depositPricer;
+
+    @BeforeEach
+    void setUp() {
+        depositPricer = new DepositPricer(true, boxRepository, currencyRegistry, conversionClient);
+
+        lenient().when(currencyRegistry.findByCode("USD")).thenReturn(Optional.of(Currency.builder().id(2L).code("USD").build()));
+        lenient().when(currencyRegistry.findByCode("EUR")).thenReturn(Optional.of(Currency.builder().id(1L).code("EUR").build()));
+        lenient().when(boxRepository.findEventCurrencyCode(BOX_ID)).thenReturn(Optional.of("EUR"));
+    }
+
+    @Test
+    void givenForeignCurrency_whenPrice_thenConvertAtCurrentRateToLedgerScale() {
+        // given
+        when(conversionClient.getRate("USD", "EUR")).thenReturn(new BigDecimal("0.9123456789"));
+
+        // when / then
+        assertThat(depositPricer.price(BOX_ID, "USD", BigDecimal.TEN)).isEqualTo(new BigDecimal("9.123457"));
+    }
+
+    @Test
+    void givenEventCurrency_whenPrice_thenKeepAmountWithoutRateLookup() {
+        // when / then
+        assertThat(depositPricer.price(BOX_ID, "EUR", BigDecimal.TEN)).isEqualTo(BigDecimal.TEN);
+        verifyNoInteractions(conversionClient);
+    }
+
+    @Test
+    void givenRateLookupFails_whenPrice_thenLeaveDepositUnpriced() {
+        // given
+        when(conversionClient.getRate("USD", "EUR")).thenThrow(new IllegalStateException("UniRate unavailable"));
+
+        // when / then
+        assertThat(depositPricer.price(BOX_ID, "USD", BigDecimal.TEN)).isNull();
+    }
+
+    @Test
+    void givenModeDisabled_whenPrice_thenReturnNullWithoutQueries() {
+        // given
+        DepositPricer disabled = new DepositPricer(false, boxRepository, currencyRegistry, conversionClient);
+
+        // when / then
+        assertThat(disabled.price(BOX_ID, "USD", BigDecimal.TEN)).isNull();
+        verifyNoInteractions(boxRepository, conversionClient);
+    }
+}
@@ -0,0 +1,147 @@
+package com.vb.fundraiser.service;
+
+import com.vb.fundraiser.model.dto.DonationBatchResultDTO;
+import com.vb.fundraiser.model.dto.DonationOutcomeDTO;
+import com.vb.fundraiser.model.dto.DonationOutcomeDTO.Status;
+import com.vb.fundraiser.model.entity.BoxCurrencyAmount;
+import com.vb.fundraiser.model.entity.CollectionBox;
+import com.vb.fundraiser.model.entity.Currency;
+import com.vb.fundraiser.model.entity.FundraisingEvent;
+import com.vb.fundraiser.model.request.DonationRecord;
+import com.vb.fundraiser.repository.BoxCurrencyAmountRepository;
+import com.vb.fundraiser.repository.CollectionBoxRepository;
+import com.vb.fundraiser.repository.CurrencyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+class DonationBatchServiceTest {
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private CollectionBoxRepository boxRepository;
+    @Autowired
+    private BoxCurrencyAmountRepository amountRepository;
+    @Autowired
+    private CurrencyRepository currencyRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private DonationBatchService batchService;
+    private FundraisingEvent event;
+
+    @BeforeEach
+    void setUp() {
+        Currency eur = entityManager.persist(Currency.builder().code("EUR").build());
+        entityManager.persist(Currency.builder().code("USD").build());
+        event = entityManager.persist(FundraisingEvent.builder()
+                .name("Charity")
+                .currency(eur)
+                .accountBalance(BigDecimal.ZERO)
+                .build());
+        entityManager.flush();
+
+        CurrencyRegistry registry = new CurrencyRegistry(currencyRepository);
+        registry.refresh();
+        ConflictRetryExecutor retryExecutor =
+                new ConflictRetryExecutor(3, Duration.ZERO, Duration.ZERO, 1, 10, new SimpleMeterRegistry());
+        batchService = new DonationBatchService(2, 10, boxRepository, amountRepository, registry,
+                new TransactionTemplate(transactionManager), retryExecutor);
+    }
+
+    @Test
+    void givenRecordsForSeveralBoxes_whenAddMoneyBatch_thenSumPerBoxAndCurrency() {
+        // given
+        Long funded = persistBox(event, "EUR", "5");
+        Long fresh = persistBox(event, null, null);
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        DonationBatchResultDTO result = batchService.addMoneyBatch(List.of(
+                new DonationRecord(funded, "EUR", new BigDecimal("1.50")),
+                new DonationRecord(fresh, "usd", new BigDecimal("2")),
+                new DonationRecord(funded, "EUR", new BigDecimal("3.50")),
+                new DonationRecord(fresh, "USD", new BigDecimal("4"))));
+        entityManager.flush();
+        entityManager.clear();
+
+        // then
+        assertThat(result.accepted()).isEqualTo(4);
+        assertThat(result.outcomes()).extracting(DonationOutcomeDTO::status).containsOnly(Status.ACCEPTED);
+        assertThat(amounts()).containsOnly(
+                entry(funded + ":EUR", new BigDecimal("10.000000")),
+                entry(fresh + ":USD", new BigDecimal("6.000000")));
+    }
+
+    @Test
+    void givenInvalidRecords_whenAddMoneyBatch_thenRejectThemAndApplyTheRest() {
+        // given
+        Long assigned = persistBox(event, null, null);
+        Long unassigned = persistBox(null, null, null);
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        DonationBatchResultDTO result = batchService.addMoneyBatch(List.of(
+                new DonationRecord(assigned, "EUR", BigDecimal.TEN),
+                new DonationRecord(unassigned, "EUR", BigDecimal.ONE),
+                new DonationRecord(999_999L, "EUR", BigDecimal.ONE),
+                new DonationRecord(assigned, "ZZZ", BigDecimal.ONE),
+                new DonationRecord(assigned, "EUR", new BigDecimal("-1")),
+                new DonationRecord(null, "EUR", BigDecimal.ONE)));
+        entityManager.flush();
+        entityManager.clear();
+
+        // then
+        assertThat(result.accepted()).isEqualTo(1);
+        assertThat(result.rejected()).isEqualTo(5);
+        assertThat(result.outcomes()).extracting(DonationOutcomeDTO::error).containsExactly(
+                null,
+                "Box " + unassigned + " is not assigned to any fundraising event",
+                "Collection box with ID 999999 not found",
+                "Currency 'ZZZ' not found or unsupported",
+                "Invalid amount: -1. Amount must be greater than 0",
+                "Box ID must not be null");
+        assertThat(amounts()).containsOnly(entry(assigned + ":EUR", new BigDecimal("10.000000")));
+    }
+
+    @Test
+    void givenTooManyRecords_whenAddMoneyBatch_thenThrowIllegalArgument() {
+        // when / then
+        assertThatThrownBy(() -> batchService.addMoneyBatch(
+                Collections.nCopies(11, new DonationRecord(1L, "EUR", BigDecimal.ONE))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("A donation batch may contain at most 10 records");
+    }
+
+    private Long persistBox(FundraisingEvent assignedEvent, String currencyCode, String amount) {
+        CollectionBox box = entityManager.persist(CollectionBox.builder().event(assignedEvent).build());
+        if (currencyCode != null) {
+            Currency currency = currencyRepository.findByCode(currencyCode).orElseThrow();
+            entityManager.persist(BoxCurrencyAmount.builder().box(box).currency(currency).amount(new BigDecimal(amount)).build());
+        }
+        return box.getId();
+    }
+
+    private Map<String, BigDecimal> amounts() {
+        return amountRepository.findAll().stream().collect(Collectors.toMap(
+                a -> a.getBox().getId() + ":" + a.getCurrency().getCode(),
+                BoxCurrencyAmount::getAmount));
+    }
+}
@@ -0,0 +1,106 @@
+package com.vb.fundraiser.service;
+
+import com.vb.fundraiser.model.entity.Currency;
+import com.vb.fundraiser.model.entity.EventBalanceShard;
+import com.vb.fundraiser.model.entity.FundraisingEvent;
+import com.vb.fundraiser.repository.EventBalanceShardRepository;
+import com.vb.fundraiser.repository.FundraisingEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+class EventBalanceLedgerTest {
+    private static final int SHARDS = 4;
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EventBalanceShardRepository shardRepository;
+    @Autowired
+    private FundraisingEventRepository eventRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private EventBalanceLedger ledger;
+    private Currency eur;
+
+    @BeforeEach
+    void setUp() {
+        ledger = new EventBalanceLedger(true, SHARDS, shardRepository, eventRepository, new TransactionTemplate(transactionManager));
+        eur = entityManager.persist(Currency.builder().code("EUR").build());
+    }
+
+    @Test
+    void givenShardedEvent_whenCredit_thenSpreadOverShardsAndFoldOnRead() {
+        // given
+        FundraisingEvent event = persistEvent("Marathon", "100");
+        ledger.initialize(event);
+
+        // when
+        for (int i = 0; i < 20; i++) {
+            ledger.credit(event, new BigDecimal("2.50"));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // then
+        assertThat(shardRepository.findAll()).hasSize(SHARDS);
+        assertThat(entityManager.find(FundraisingEvent.class, event.getId()).getAccountBalance()).isEqualByComparingTo("100");
+        assertThat(ledger.balanceOf(event)).isEqualByComparingTo("150");
+    }
+
+    @Test
+    void givenPendingShardCredits_whenCompact_thenMoveThemIntoEventBalance() {
+        // given
+        FundraisingEvent event = persistEvent("Marathon", "100");
+        FundraisingEvent other = persistEvent("Bake sale", "5");
+        ledger.initialize(event);
+        ledger.initialize(other);
+        ledger.credit(event, new BigDecimal("30"));
+        ledger.credit(event, new BigDecimal("12.25"));
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        ledger.compact();
+        entityManager.flush();
+        entityManager.clear();
+
+        // then
+        assertThat(entityManager.find(FundraisingEvent.class, event.getId()).getAccountBalance()).isEqualByComparingTo("142.25");
+        assertThat(shardRepository.findAll()).allMatch(shard -> shard.getAmount().signum() == 0);
+        assertThat(ledger.balancesOf(eventRepository.findAll()))
+                .containsEntry(event.getId(), new BigDecimal("142.250000"))
+                .containsEntry(other.getId(), new BigDecimal("5.000000"));
+    }
+
+    @Test
+    void givenEventWithoutShards_whenCredit_thenCreditEventRow() {
+        // given
+        FundraisingEvent event = persistEvent("Legacy", "10");
+
+        // when
+        ledger.credit(event, BigDecimal.ONE);
+
+        // then
+        assertThat(event.getAccountBalance()).isEqualByComparingTo("11");
+        assertThat(shardRepository.findAll()).extracting(EventBalanceShard::getEvent).doesNotContain(event);
+    }
+
+    private FundraisingEvent persistEvent(String name, String balance) {
+        return entityManager.persist(FundraisingEvent.builder()
+                .name(name)
+                .currency(eur)
+                .accountBalance(new BigDecimal(balance))
+                .build());
+    }
+}
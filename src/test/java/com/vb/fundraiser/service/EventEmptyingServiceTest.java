@@ -0,0 +1,260 @@
+package com.vb.fundraiser.service;
+
+import com.vb.fundraiser.client.CurrencyConversionClient;
+import com.vb.fundraiser.client.ExchangeRate;
+import com.vb.fundraiser.exception.currency.StaleExchangeRateException;
+import com.vb.fundraiser.exception.event.FundraisingEventNotFoundException;
+import com.vb.fundraiser.model.dto.EventEmptyingDTO;
+import com.vb.fundraiser.model.dto.HeldAmount;
+import com.vb.fundraiser.model.entity.BoxCurrencyAmount;
+import com.vb.fundraiser.model.entity.CollectionBox;
+import com.vb.fundraiser.model.entity.ConversionAudit;
+import com.vb.fundraiser.model.entity.Currency;
+import com.vb.fundraiser.model.entity.FundraisingEvent;
+import com.vb.fundraiser.repository.BoxCurrencyAmountRepository;
+import com.vb.fundraiser.repository.ConversionAuditRepository;
+import com.vb.fundraiser.repository.FundraisingEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventEmptyingServiceTest {
+    private static final Long EVENT_ID = 10L;
+    private static final Long USD_AUDIT_ID = 70L;
+
+    @Mock
+    private FundraisingEventRepository eventRepository;
+    @Mock
+    private BoxCurrencyAmountRepository amountRepository;
+    @Mock
+    private CurrencyConversionClient conversionClient;
+    @Mock
+    private EventBalanceLedger balanceLedger;
+    @Mock
+    private BalanceOutbox balanceOutbox;
+    @Mock
+    private ConversionAuditRepository auditRepository;
+    @Mock
+    private DepositPricer depositPricer;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private EventEmptyingService emptyingService;
+
+    private final Currency eur = Currency.builder().id(1L).code("EUR").build();
+    private final Currency usd = Currency.builder().id(2L).code("USD").build();
+
+    @BeforeEach
+    void setUp() {
+        emptyingService = emptyingService(2);
+
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(eventRepository.findById(EVENT_ID)).thenReturn(Optional.of(FundraisingEvent.builder()
+                .id(EVENT_ID).name("Charity").currency(eur).accountBalance(BigDecimal.ZERO).build()));
+        lenient().when(auditRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<ConversionAudit> audits = inv.getArgument(0);
+            audits.forEach(audit -> audit.setId(USD_AUDIT_ID));
+            return audits;
+        });
+    }
+
+    @Test
+    void givenBoxesInSeveralCurrencies_whenEmptyEventBoxes_thenConvertEachCurrencyOnceAndCreditPerChunk() {
+        // given
+        ExchangeRate usdToEur = new ExchangeRate("USD", "EUR", new BigDecimal("0.5"), Instant.now());
+        when(amountRepository.findHeldAmounts(EVENT_ID)).thenReturn(List.of(
+                held(11L, 1L, "USD", "3"), held(12L, 2L, "USD", "1"), held(13L, 2L, "EUR", "5"), held(14L, 3L, "EUR", "2.25")));
+        when(conversionClient.getExchangeRates(List.of("USD"), "EUR")).thenReturn(Map.of("USD", usdToEur));
+        when(amountRepository.lockNonEmptyAmounts(EVENT_ID, List.of(1L, 2L))).thenReturn(List.of(
+                amount(11L, 1L, usd, "3"), amount(12L, 2L, usd, "1"), amount(13L, 2L, eur, "5")));
+        when(amountRepository.lockNonEmptyAmounts(EVENT_ID, List.of(3L))).thenReturn(List.of(amount(14L, 3L, eur, "2.25")));
+
+        // when
+        EventEmptyingDTO result = emptyingService.emptyEventBoxes(EVENT_ID);
+
+        // then
+        assertThat(result).isEqualTo(new EventEmptyingDTO(EVENT_ID, "EUR", 3, 0, new BigDecimal("9.25")));
+        verify(conversionClient, times(1)).getExchangeRates(anyCollection(), eq("EUR"));
+        verify(amountRepository).zeroAmounts(List.of(11L, 12L, 13L));
+        verify(amountRepository).zeroAmounts(List.of(14L));
+
+        ArgumentCaptor<BigDecimal> credits = ArgumentCaptor.forClass(BigDecimal.class);
+        verify(balanceLedger, times(2)).credit(eq(EVENT_ID), credits.capture());
+        assertThat(credits.getAllValues()).extracting(BigDecimal::stripTrailingZeros)
+                .containsExactlyInAnyOrder(new BigDecimal("7"), new BigDecimal("2.25"));
+        verify(balanceOutbox, times(2)).recordCredit(eq(EVENT_ID), eq("EUR"), any(), eq("emptyEventBoxes"));
+
+        ArgumentCaptor<List<ConversionAudit>> audits = ArgumentCaptor.captor();
+        verify(auditRepository).saveAll(audits.capture());
+        assertThat(audits.getValue()).singleElement().satisfies(audit -> {
+            assertThat(audit.getSourceCurrency()).isEqualTo("USD");
+            assertThat(audit.getRate()).isEqualByComparingTo("0.5");
+        });
+        verify(auditRepository).addToTotals(eq(USD_AUDIT_ID), argThat(amount -> amount.compareTo(new BigDecimal("4")) == 0),
+                argThat(amount -> amount.compareTo(new BigDecimal("2")) == 0), eq(2));
+    }
+
+    @Test
+    void givenSmallerChunks_whenEmptyEventBoxes_thenCreditTheSameTotalWithOneAuditRow() {
+        // given
+        ExchangeRate usdToEur = new ExchangeRate("USD", "EUR", new BigDecimal("0.3333335"), Instant.now());
+        when(amountRepository.findHeldAmounts(EVENT_ID)).thenReturn(List.of(
+                held(11L, 1L, "USD", "1"), held(12L, 2L, "USD", "1"), held(13L, 3L, "USD", "1")));
+        when(conversionClient.getExchangeRates(List.of("USD"), "EUR")).thenReturn(Map.of("USD", usdToEur));
+        when(amountRepository.lockNonEmptyAmounts(EVENT_ID, List.of(1L))).thenReturn(List.of(amount(11L, 1L, usd, "1")));
+        when(amountRepository.lockNonEmptyAmounts(EVENT_ID, List.of(2L))).thenReturn(List.of(amount(12L, 2L, usd, "1")));
+        when(amountRepository.lockNonEmptyAmounts(EVENT_ID, List.of(3L))).thenReturn(List.of(amount(13L, 3L, usd, "1")));
+
+        // when
+        EventEmptyingDTO result = emptyingService(1).emptyEventBoxes(EVENT_ID);
+
+        // then
+        ArgumentCaptor<BigDecimal> credits = ArgumentCaptor.forClass(BigDecimal.class);
+        verify(balanceLedger, times(3)).credit(eq(EVENT_ID), credits.capture());
+        assertThat(credits.getAllValues().stream().reduce(BigDecimal.ZERO, BigDecimal::add)).isEqualByComparingTo("1.000000");
+        assertThat(result.boxesEmptied()).isEqualTo(3);
+        verify(auditRepository, times(1)).saveAll(anyList());
+        verify(auditRepository, times(3)).addToTotals(eq(USD_AUDIT_ID), any(), any(), eq(1));
+    }
+
+    @Test
+    void givenBoxFundedAfterPlanning_whenEmptyEventBoxes_thenLeaveItUntouchedAndReportItAsFailed() {
+        // given
+        when(amountRepository.findHeldAmounts(EVENT_ID)).thenReturn(List.of(held(11L, 1L, "EUR", "3"), held(12L, 2L, "EUR", "1")));
+        when(conversionClient.getExchangeRates(List.of(), "EUR")).thenReturn(Map.of());
+        when(amountRepository.lockNonEmptyAmounts(EVENT_ID, List.of(1L, 2L))).thenReturn(List.of(
+                amount(11L, 1L, eur, "3"), amount(12L, 2L, eur, "4")));
+
+        // when
+        EventEmptyingDTO result = emptyingService.emptyEventBoxes(EVENT_ID);
+
+        // then
+        assertThat(result).isEqualTo(new EventEmptyingDTO(EVENT_ID, "EUR", 1, 1, new BigDecimal("3.00")));
+        verify(amountRepository).zeroAmounts(List.of(11L));
+        verify(balanceLedger).credit(eq(EVENT_ID), argThat(amount -> amount.compareTo(new BigDecimal("3")) == 0));
+    }
+
+    @Test
+    void givenBoxesPricedAtDeposit_whenEmptyEventBoxes_thenCreditStoredValuesAndConvertOnlyUnpricedBoxes() {
+        // given
+        ExchangeRate usdToEur = new ExchangeRate("USD", "EUR", new BigDecimal("0.5"), Instant.now());
+        when(depositPricer.isEnabled()).thenReturn(true);
+        when(amountRepository.findHeldAmounts(EVENT_ID)).thenReturn(List.of(
+                priced(11L, 1L, "USD", "3", "2.70"), priced(12L, 1L, "EUR", "1", "1"),
+                priced(13L, 2L, "USD", "4", "3.60"), held(14L, 2L, "GBP", "1")));
+        when(conversionClient.getExchangeRates(List.of("USD", "GBP"), "EUR"))
+                .thenReturn(Map.of("USD", usdToEur, "GBP", new ExchangeRate("GBP", "EUR", new BigDecimal("1.2"), Instant.now())));
+        when(amountRepository.lockNonEmptyAmounts(EVENT_ID, List.of(1L, 2L))).thenReturn(List.of(
+                amount(11L, 1L, usd, "3", "2.70"), amount(12L, 1L, eur, "1", "1"),
+                amount(13L, 2L, usd, "4", "3.60"), amount(14L, 2L, Currency.builder().id(3L).code("GBP").build(), "1")));
+
+        // when
+        EventEmptyingDTO result = emptyingService.emptyEventBoxes(EVENT_ID);
+
+        // then
+        assertThat(result).isEqualTo(new EventEmptyingDTO(EVENT_ID, "EUR", 2, 0, new BigDecimal("6.90")));
+        verify(balanceLedger).credit(eq(EVENT_ID), argThat(amount -> amount.compareTo(new BigDecimal("6.9")) == 0));
+        verify(auditRepository).addToTotals(eq(USD_AUDIT_ID), argThat(amount -> amount.compareTo(new BigDecimal("4")) == 0),
+                argThat(amount -> amount.compareTo(new BigDecimal("2")) == 0), eq(1));
+    }
+
+    @Test
+    void givenEveryBoxPricedAtDeposit_whenEmptyEventBoxes_thenResolveNoRates() {
+        // given
+        when(depositPricer.isEnabled()).thenReturn(true);
+        when(amountRepository.findHeldAmounts(EVENT_ID)).thenReturn(List.of(priced(11L, 1L, "USD", "3", "2.70")));
+        when(amountRepository.lockNonEmptyAmounts(EVENT_ID, List.of(1L))).thenReturn(List.of(amount(11L, 1L, usd, "3", "2.70")));
+
+        // when
+        EventEmptyingDTO result = emptyingService.emptyEventBoxes(EVENT_ID);
+
+        // then
+        assertThat(result.transferred()).isEqualByComparingTo("2.70");
+        verifyNoInteractions(conversionClient, auditRepository);
+    }
+
+    @Test
+    void givenStaleRate_whenEmptyEventBoxes_thenThrowWithoutEmptyingAnyBox() {
+        // given
+        ExchangeRate usdToEur = new ExchangeRate("USD", "EUR", new BigDecimal("0.5"), Instant.now());
+        when(amountRepository.findHeldAmounts(EVENT_ID)).thenReturn(List.of(held(11L, 1L, "USD", "3"), held(14L, 3L, "EUR", "2")));
+        when(conversionClient.getExchangeRates(List.of("USD"), "EUR")).thenReturn(Map.of("USD", usdToEur));
+        when(conversionClient.isStale(usdToEur)).thenReturn(true);
+
+        // when / then
+        assertThatThrownBy(() -> emptyingService.emptyEventBoxes(EVENT_ID))
+                .isInstanceOf(StaleExchangeRateException.class);
+        verifyNoInteractions(transactionTemplate, balanceLedger, auditRepository);
+        verify(amountRepository, never()).zeroAmounts(any());
+    }
+
+    @Test
+    void givenNoFundedBoxes_whenEmptyEventBoxes_thenDoNothing() {
+        // given
+        when(amountRepository.findHeldAmounts(EVENT_ID)).thenReturn(List.of());
+
+        // when
+        EventEmptyingDTO result = emptyingService.emptyEventBoxes(EVENT_ID);
+
+        // then
+        assertThat(result.boxesEmptied()).isZero();
+        verifyNoInteractions(conversionClient, balanceLedger, transactionTemplate);
+    }
+
+    @Test
+    void givenUnknownEvent_whenEmptyEventBoxes_thenThrowNotFound() {
+        // when / then
+        assertThatThrownBy(() -> emptyingService.emptyEventBoxes(99L))
+                .isInstanceOf(FundraisingEventNotFoundException.class);
+        verify(amountRepository, never()).findHeldAmounts(any());
+    }
+
+    private EventEmptyingService emptyingService(int chunkSize) {
+        ConflictRetryExecutor retryExecutor =
+                new ConflictRetryExecutor(3, Duration.ZERO, Duration.ZERO, 1, 10, new SimpleMeterRegistry());
+        return new EventEmptyingService(chunkSize, 2, eventRepository, amountRepository, conversionClient,
+                balanceLedger, balanceOutbox, auditRepository, depositPricer, transactionTemplate, retryExecutor);
+    }
+
+    private HeldAmount held(Long id, Long boxId, String currencyCode, String value) {
+        return new HeldAmount(id, boxId, currencyCode, new BigDecimal(value), null);
+    }
+
+    private HeldAmount priced(Long id, Long boxId, String currencyCode, String value, String converted) {
+        return new HeldAmount(id, boxId, currencyCode, new BigDecimal(value), new BigDecimal(converted));
+    }
+
+    private BoxCurrencyAmount amount(Long id, Long boxId, Currency currency, String value) {
+        return amount(id, boxId, currency, value, null);
+    }
+
+    private BoxCurrencyAmount amount(Long id, Long boxId, Currency currency, String value, String converted) {
+        return BoxCurrencyAmount.builder()
+                .id(id)
+                .box(CollectionBox.builder().id(boxId).build())
+                .currency(currency)
+                .amount(new BigDecimal(value))
+                .convertedAmount(converted == null ? null : new BigDecimal(converted))
+                .build();
+    }
+}
@@ -2,26 +2,38 @@ package com.vb.fundraiser.service;
 
 import com.vb.fundraiser.exception.currency.CurrencyNotFoundException;
 import com.vb.fundraiser.exception.event.FundraisingEventAlreadyExistsException;
+import com.vb.fundraiser.model.dto.CursorSlice;
 import com.vb.fundraiser.model.dto.FundraisingEventDTO;
 import com.vb.fundraiser.model.entity.Currency;
 import com.vb.fundraiser.model.entity.FundraisingEvent;
-import com.vb.fundraiser.repository.CurrencyRepository;
 import com.vb.fundraiser.repository.FundraisingEventRepository;
+import com.vb.fundraiser.util.PageCursor;
+import com.vb.fundraiser.util.ReportFormat;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -31,11 +43,17 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 public class FundraisingEventServiceTest {
     @Mock
-    private CurrencyRepository currencyRepository;
+    private CurrencyRegistry currencyRegistry;
 
     @Mock
     private FundraisingEventRepository eventRepository;
 
+    @Mock
+    private BalanceOutbox balanceOutbox;
+
+    @Spy
+    private EventBalanceLedger balanceLedger = new EventBalanceLedger(false, 8, null, null, null);
+
     @InjectMocks
     private FundraisingEventService eventService;
 
@@ -63,7 +81,7 @@ public class FundraisingEventServiceTest {
                     .accountBalance(ZERO_BALANCE)
                     .build();
 
-            when(currencyRepository.findByCode(CURRENCY_CODE)).thenReturn(Optional.of(currency));
+            when(currencyRegistry.findByCode(CURRENCY_CODE)).thenReturn(Optional.of(currency));
             when(eventRepository.save(any())).thenReturn(saved);
 
             // when
@@ -75,6 +93,7 @@ public class FundraisingEventServiceTest {
             assertThat(result.name()).isEqualTo(EVENT_NAME);
             assertThat(result.currencyCode()).isEqualTo(CURRENCY_CODE);
             assertThat(result.accountBalance()).isEqualTo(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP));
+            verify(balanceOutbox).recordCreated(saved);
         }
 
         @Test
@@ -87,7 +106,7 @@ public class FundraisingEventServiceTest {
                     .isInstanceOf(FundraisingEventAlreadyExistsException.class)
                     .hasMessage("Fundraising event with name '" + EVENT_NAME + "' already exists");
 
-            verifyNoInteractions(currencyRepository);
+            verifyNoInteractions(currencyRegistry);
 
             verifyNoMoreInteractions(eventRepository);
         }
@@ -96,7 +115,7 @@ public class FundraisingEventServiceTest {
         void givenInvalidCurrency_whenCreateEvent_thenThrowCurrencyNotFoundException() {
             // given
             String invalidCurrencyCode = "ZZZ";
-            when(currencyRepository.findByCode(invalidCurrencyCode)).thenReturn(Optional.empty());
+            when(currencyRegistry.findByCode(invalidCurrencyCode)).thenReturn(Optional.empty());
 
             // when / then
             assertThatThrownBy(() -> eventService.createEvent(EVENT_NAME, invalidCurrencyCode))
@@ -110,16 +129,10 @@ public class FundraisingEventServiceTest {
         @Test
         void givenSingleEvent_whenGetFinancialReport_thenReturnRoundedAndPagedResult() {
             // given
-            FundraisingEvent event = FundraisingEvent.builder()
-                    .id(1L)
-                    .name(EVENT_NAME)
-                    .currency(currency)
-                    .accountBalance(new BigDecimal("123.45678"))
-                    .build();
-
-            Page<FundraisingEvent> page = new PageImpl<>(List.of(event));
+            Page<FundraisingEventDTO> page = new PageImpl<>(List.of(
+                    new FundraisingEventDTO(1L, EVENT_NAME, "EUR", new BigDecimal("123.45678"))));
 
-            when(eventRepository.findAll(any(Pageable.class))).thenReturn(page);
+            when(eventRepository.findReportPage(any(Pageable.class))).thenReturn(page);
 
             // when
             Page<FundraisingEventDTO> result = eventService.getFinancialReport(0, 10, "name", DIRECTION);
@@ -134,15 +147,9 @@ public class FundraisingEventServiceTest {
         @Test
         void givenValidPagination_whenGetFinancialReport_thenReturnPageOfEvents() {
             // given
-            FundraisingEvent event = FundraisingEvent.builder()
-                    .id(1L)
-                    .name("Save Animals")
-                    .currency(currency)
-                    .accountBalance(new BigDecimal("10.125"))
-                    .build();
-
-            Page<FundraisingEvent> eventPage = new PageImpl<>(List.of(event));
-            when(eventRepository.findAll(any(Pageable.class))).thenReturn(eventPage);
+            Page<FundraisingEventDTO> eventPage = new PageImpl<>(List.of(
+                    new FundraisingEventDTO(1L, "Save Animals", "EUR", new BigDecimal("10.125"))));
+            when(eventRepository.findReportPage(PageRequest.of(0, 5, Sort.by("name", "id")))).thenReturn(eventPage);
 
             // when
             Page<FundraisingEventDTO> result = eventService.getFinancialReport(0, 5, "name", "asc");
@@ -154,6 +161,66 @@ public class FundraisingEventServiceTest {
             assertThat(dto.accountBalance()).isEqualByComparingTo("10.13");
         }
 
+        @Test
+        void givenMoreEventsThanSliceSize_whenGetFinancialReportAfter_thenSeekFromCursor() {
+            // given
+            FundraisingEvent first = FundraisingEvent.builder().id(5L).name("A").currency(currency).accountBalance(new BigDecimal("7.50")).build();
+            FundraisingEvent second = FundraisingEvent.builder().id(2L).name("B").currency(currency).accountBalance(new BigDecimal("7.50")).build();
+            Sort sort = Sort.by(Sort.Direction.ASC, "accountBalance").and(Sort.by(Sort.Direction.ASC, "id"));
+
+            when(eventRepository.findBy(ScrollPosition.keyset(), sort, Limit.of(1)))
+                    .thenReturn(Window.from(List.of(first), i -> ScrollPosition.keyset(), true));
+            when(eventRepository.findBy(ScrollPosition.forward(Map.of("accountBalance", new BigDecimal("7.50"), "id", 5L)), sort, Limit.of(1)))
+                    .thenReturn(Window.from(List.of(second), i -> ScrollPosition.keyset(), false));
+
+            // when
+            CursorSlice<FundraisingEventDTO> firstSlice = eventService.getFinancialReportAfter(null, 1, "accountBalance", "asc");
+            CursorSlice<FundraisingEventDTO> secondSlice = eventService.getFinancialReportAfter(firstSlice.nextCursor(), 1, "accountBalance", "asc");
+
+            // then
+            assertThat(firstSlice.content()).extracting(FundraisingEventDTO::id).containsExactly(5L);
+            assertThat(firstSlice.hasNext()).isTrue();
+            assertThat(secondSlice.content()).extracting(FundraisingEventDTO::id).containsExactly(2L);
+            assertThat(secondSlice.nextCursor()).isNull();
+            verify(eventRepository, never()).findReportPage(any(Pageable.class));
+        }
+
+        @Test
+        void givenUnsupportedSortFieldOrForeignCursor_whenGetFinancialReportAfter_thenThrowException() {
+            // given
+            String nameCursor = new PageCursor("name", Sort.Direction.ASC, 1L, "A").encode();
+
+            // when / then
+            assertThatThrownBy(() -> eventService.getFinancialReportAfter(null, 10, "createdAt", "asc"))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Sort field must be one of: id, name, accountBalance, currency");
+
+            assertThatThrownBy(() -> eventService.getFinancialReportAfter(nameCursor, 10, "accountBalance", "asc"))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Pagination cursor was issued for a different sort order");
+        }
+
+        @Test
+        void givenCurrencySort_whenGetFinancialReport_thenSortByCurrencyCodeThenId() {
+            // given
+            when(eventRepository.findReportPage(any(Pageable.class))).thenReturn(Page.empty());
+
+            // when
+            eventService.getFinancialReport(0, 10, "currency", "desc");
+
+            // then
+            verify(eventRepository).findReportPage(PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "currencyCode", "id")));
+        }
+
+        @Test
+        void givenUnknownSortField_whenGetFinancialReport_thenThrowBeforeQuerying() {
+            // when / then
+            assertThatThrownBy(() -> eventService.getFinancialReport(0, 10, "version", "asc"))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Sort field must be one of: id, name, accountBalance, currency");
+            verifyNoInteractions(eventRepository);
+        }
+
         @Test
         void givenInvalidPageNumber_whenGetFinancialReport_thenThrowException() {
             // when / then
@@ -180,39 +247,74 @@ public class FundraisingEventServiceTest {
     }
 
     @Nested
-    class GenerateHtmlReport {
+    class WriteReport {
         @Test
-        void givenValidSortField_whenGenerateHtmlReport_thenReturnHtml() {
+        void givenEvents_whenWriteHtmlReport_thenRenderEscapedRowsWithRoundedBalances() throws Exception {
             // given
-            FundraisingEvent event = FundraisingEvent.builder()
-                    .id(1L)
-                    .name(EVENT_NAME)
-                    .currency(currency)
-                    .accountBalance(BigDecimal.ZERO)
-                    .build();
-
-            when(eventRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(event)));
+            Sort sort = Sort.by("name");
+            when(eventRepository.streamReport(sort)).thenReturn(Stream.of(
+                    new FundraisingEventDTO(1L, EVENT_NAME, "EUR", new BigDecimal("10.005")),
+                    new FundraisingEventDTO(2L, "<b>Bold</b>", "USD", BigDecimal.ZERO)));
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
 
             // when
-            String html = eventService.generateHtmlReport("name", "asc");
+            eventService.writeReport(ReportFormat.HTML, sort, output);
 
             // then
-            assertThat(html).contains("<table>").contains(EVENT_NAME).contains("</table>");
+            String html = output.toString(StandardCharsets.UTF_8);
+            assertThat(html).contains("<table>").contains("</table>");
+            assertThat(html).contains("<tr><td>" + EVENT_NAME + "</td><td>10.01</td><td>EUR</td></tr>");
+            assertThat(html).contains("&lt;b&gt;Bold&lt;/b&gt;").doesNotContain("<b>");
         }
 
         @Test
-        void givenNoEvents_whenGenerateHtmlReport_thenReturnsHtmlWithHeaderOnly() {
+        void givenNoEvents_whenWriteHtmlReport_thenWriteHeaderOnly() throws Exception {
             // given
-            when(eventRepository.findAll(any(Pageable.class))).thenReturn(Page.empty());
+            when(eventRepository.streamReport(any(Sort.class))).thenReturn(Stream.empty());
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
 
             // when
-            String html = eventService.generateHtmlReport("name", "asc");
+            eventService.writeReport(ReportFormat.HTML, Sort.by("name"), output);
 
             // then
+            String html = output.toString(StandardCharsets.UTF_8);
             assertThat(html).contains("<h1>Fundraising Events Report</h1>");
             assertThat(html).contains("<th>Fundraising event name</th>");
             assertThat(html).contains("<table>");
             assertThat(html).doesNotContain("<td>");
         }
+
+        @Test
+        void givenEvents_whenWriteCsvAndNdjsonReports_thenWriteOneLinePerEvent() throws Exception {
+            // given
+            when(eventRepository.streamReport(any(Sort.class))).thenAnswer(invocation -> Stream.of(
+                    new FundraisingEventDTO(1L, "Food, \"water\"", "EUR", new BigDecimal("3.5")),
+                    new FundraisingEventDTO(2L, EVENT_NAME, "USD", BigDecimal.ONE)));
+            ByteArrayOutputStream csv = new ByteArrayOutputStream();
+            ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+
+            // when
+            eventService.writeReport(ReportFormat.CSV, Sort.by("id"), csv);
+            eventService.writeReport(ReportFormat.NDJSON, Sort.by("id"), ndjson);
+
+            // then
+            assertThat(csv.toString(StandardCharsets.UTF_8)).isEqualTo("""
+                    id,name,currencyCode,accountBalance\r
+                    1,"Food, \"\"water\"\"",EUR,3.50\r
+                    2,Charity,USD,1.00\r
+                    """);
+            assertThat(ndjson.toString(StandardCharsets.UTF_8)).isEqualTo("""
+                    {"id":1,"name":"Food, \\"water\\"","currencyCode":"EUR","accountBalance":3.50}
+                    {"id":2,"name":"Charity","currencyCode":"USD","accountBalance":1.00}
+                    """);
+        }
+
+        @Test
+        void givenInvalidDirection_whenReportSort_thenThrowException() {
+            // when / then
+            assertThatThrownBy(() -> eventService.reportSort("name", "sideways"))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Sort direction must be 'asc' or 'desc'");
+        }
     }
-}
\ No newline at end of file
+}
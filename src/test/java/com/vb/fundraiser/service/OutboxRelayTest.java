@@ -0,0 +1,98 @@
+package com.vb.fundraiser.service;
+
+import com.vb.fundraiser.client.OutboxSink;
+import com.vb.fundraiser.model.dto.BalanceChangeMessage;
+import com.vb.fundraiser.model.entity.OutboxMessage;
+import com.vb.fundraiser.repository.OutboxMessageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+    @Mock
+    private OutboxMessageRepository outboxRepository;
+    @Mock
+    private OutboxSink sink;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxRelay(2, Duration.ofMinutes(1), Duration.ofMinutes(5), outboxRepository, sink, meterRegistry);
+    }
+
+    @Test
+    void givenMessagesOverSeveralBatches_whenRelay_thenPublishAndDeleteEachBatchInOrder() {
+        // given
+        List<BalanceChangeMessage> first = List.of(message(1L), message(2L));
+        List<BalanceChangeMessage> second = List.of(message(3L));
+        when(outboxRepository.findOldest(Limit.of(2))).thenReturn(first, second);
+
+        // when
+        int relayed = relay.relayPending();
+
+        // then
+        assertThat(relayed).isEqualTo(3);
+        var inOrder = inOrder(sink, outboxRepository);
+        inOrder.verify(sink).publish(first);
+        inOrder.verify(outboxRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        inOrder.verify(sink).publish(second);
+        inOrder.verify(outboxRepository).deleteAllByIdInBatch(List.of(3L));
+        assertThat(meterRegistry.counter("fundraiser.outbox.published").count()).isEqualTo(3);
+        assertThat(meterRegistry.summary("fundraiser.outbox.batch.size").count()).isEqualTo(2);
+        assertThat(meterRegistry.timer("fundraiser.outbox.publish").count()).isEqualTo(2);
+    }
+
+    @Test
+    void givenSinkFails_whenRelay_thenKeepBatchAndPauseUntilBackoffElapses() {
+        // given
+        List<BalanceChangeMessage> batch = List.of(message(1L));
+        when(outboxRepository.findOldest(Limit.of(2))).thenReturn(batch);
+        doThrow(new UncheckedIOException(new IOException("disk full"))).when(sink).publish(batch);
+
+        // when
+        int relayed = relay.relayPending();
+        int relayedWhilePaused = relay.relayPending();
+
+        // then
+        assertThat(relayed).isZero();
+        assertThat(relayedWhilePaused).isZero();
+        verify(sink, times(1)).publish(any());
+        verify(outboxRepository, times(1)).findOldest(any());
+        verify(outboxRepository, never()).deleteAllByIdInBatch(any());
+        assertThat(meterRegistry.counter("fundraiser.outbox.failures").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("fundraiser.outbox.published").count()).isZero();
+    }
+
+    @Test
+    void givenEmptyOutbox_whenRelay_thenPublishNothing() {
+        // given
+        when(outboxRepository.findOldest(any())).thenReturn(List.of());
+
+        // when / then
+        assertThat(relay.relayPending()).isZero();
+        verifyNoInteractions(sink);
+    }
+
+    private BalanceChangeMessage message(Long id) {
+        return new BalanceChangeMessage(id, OutboxMessage.Type.BALANCE_CREDITED, 10L, "EUR", BigDecimal.TEN,
+                "emptyBox", Instant.parse("2026-01-01T12:00:00Z"));
+    }
+}
@@ -0,0 +1,144 @@
+package com.vb.fundraiser.service;
+
+import com.vb.fundraiser.client.CurrencyConversionClient;
+import com.vb.fundraiser.client.ExchangeRate;
+import com.vb.fundraiser.model.dto.DueTransfer;
+import com.vb.fundraiser.model.entity.PendingTransfer;
+import com.vb.fundraiser.model.entity.TransferAmount;
+import com.vb.fundraiser.repository.ConversionAuditRepository;
+import com.vb.fundraiser.repository.FundraisingEventRepository;
+import com.vb.fundraiser.repository.PendingTransferRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferSettlementServiceTest {
+    private static final Long EVENT_ID = 10L;
+    private static final Long OTHER_EVENT_ID = 20L;
+
+    @Mock
+    private PendingTransferRepository transferRepository;
+    @Mock
+    private FundraisingEventRepository eventRepository;
+    @Mock
+    private ConversionAuditRepository auditRepository;
+    @Mock
+    private CurrencyConversionClient conversionClient;
+    @Mock
+    private EventBalanceLedger balanceLedger;
+    @Mock
+    private BalanceOutbox balanceOutbox;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private TransferSettlementService settlementService;
+
+    @BeforeEach
+    void setUp() {
+        settlementService = new TransferSettlementService(2, 2, Duration.ofSeconds(30), transferRepository,
+                eventRepository, auditRepository, conversionClient, balanceLedger, balanceOutbox, transactionTemplate);
+
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().doAnswer(inv -> {
+            inv.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void givenDueTransfersOfOneEvent_whenSettle_thenConvertEachCurrencyOnceAndCreditEventOnce() {
+        // given
+        PendingTransfer first = transfer(1L, "USD", "3", "EUR", "5");
+        PendingTransfer second = transfer(2L, "USD", "1");
+        when(transferRepository.findDue(any(), eq(Limit.of(2))))
+                .thenReturn(List.of(new DueTransfer(1L, EVENT_ID, "EUR"), new DueTransfer(2L, EVENT_ID, "EUR")), List.of());
+        when(transferRepository.findCurrencyCodes(List.of(1L, 2L))).thenReturn(List.of("EUR", "USD"));
+        when(conversionClient.getExchangeRates(List.of("USD"), "EUR"))
+                .thenReturn(Map.of("USD", new ExchangeRate("USD", "EUR", new BigDecimal("0.5"), Instant.now())));
+        when(transferRepository.findPendingWithAmounts(List.of(1L, 2L))).thenReturn(List.of(first, second));
+
+        // when
+        int settled = settlementService.settleDueTransfers();
+
+        // then
+        assertThat(settled).isEqualTo(2);
+        assertThat(first.getStatus()).isEqualTo(PendingTransfer.Status.SETTLED);
+        assertThat(first.getTransferred()).isEqualByComparingTo("6.5");
+        assertThat(second.getTransferred()).isEqualByComparingTo("0.5");
+        assertThat(second.getSettledAt()).isNotNull();
+        verify(balanceLedger).credit(eq(EVENT_ID), argThat(total -> total.compareTo(new BigDecimal("7")) == 0));
+        verify(balanceOutbox).recordCredit(eq(EVENT_ID), eq("EUR"),
+                argThat(total -> total.compareTo(new BigDecimal("7")) == 0), eq("settleTransfers"));
+        verify(auditRepository).saveAll(anyList());
+        verify(transferRepository, never()).recordFailure(any(), any(), any());
+    }
+
+    @Test
+    void givenRateLookupFailsForOneEvent_whenSettle_thenRecordFailureAndSettleTheOtherEvent() {
+        // given
+        PendingTransfer other = transfer(3L, "PLN", "4");
+        when(transferRepository.findCurrencyCodes(List.of(1L))).thenReturn(List.of("USD"));
+        when(transferRepository.findCurrencyCodes(List.of(3L))).thenReturn(List.of("PLN"));
+        when(conversionClient.getExchangeRates(List.of("USD"), "EUR"))
+                .thenThrow(new IllegalStateException("UniRate unavailable"));
+        when(conversionClient.getExchangeRates(List.of(), "PLN")).thenReturn(Map.of());
+        when(transferRepository.findPendingWithAmounts(List.of(3L))).thenReturn(List.of(other));
+        when(transferRepository.findDue(any(), eq(Limit.of(2))))
+                .thenReturn(List.of(new DueTransfer(1L, EVENT_ID, "EUR"), new DueTransfer(3L, OTHER_EVENT_ID, "PLN")), List.of());
+
+        // when
+        int settled = settlementService.settleDueTransfers();
+
+        // then
+        assertThat(settled).isEqualTo(1);
+        assertThat(other.getTransferred()).isEqualByComparingTo("4");
+        verify(transferRepository).recordFailure(eq(List.of(1L)), eq("UniRate unavailable"),
+                argThat(next -> next.isAfter(Instant.now().plusSeconds(20))));
+        verify(balanceLedger, never()).credit(eq(EVENT_ID), any(BigDecimal.class));
+        verify(balanceOutbox, never()).recordCredit(eq(EVENT_ID), any(), any(), any());
+    }
+
+    @Test
+    void givenNothingDue_whenSettle_thenDoNothing() {
+        // given
+        when(transferRepository.findDue(any(), any())).thenReturn(List.of());
+
+        // when / then
+        assertThat(settlementService.settleDueTransfers()).isZero();
+        verifyNoInteractions(conversionClient, balanceLedger, transactionTemplate);
+    }
+
+    private PendingTransfer transfer(Long id, String... currencyAmounts) {
+        List<TransferAmount> amounts = new ArrayList<>();
+        for (int i = 0; i < currencyAmounts.length; i += 2) {
+            amounts.add(new TransferAmount(currencyAmounts[i], new BigDecimal(currencyAmounts[i + 1])));
+        }
+        return PendingTransfer.builder()
+                .id(id)
+                .status(PendingTransfer.Status.PENDING)
+                .amounts(amounts)
+                .createdAt(Instant.now())
+                .nextAttemptAt(Instant.now())
+                .build();
+    }
+}